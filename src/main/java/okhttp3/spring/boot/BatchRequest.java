@@ -0,0 +1,76 @@
+/*
+ * Copyright (c) 2018, hiwepy (https://github.com/hiwepy).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package okhttp3.spring.boot;
+
+import java.lang.reflect.Type;
+import java.util.Map;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+
+import lombok.Getter;
+import okhttp3.spring.boot.OkHttp3Template.HttpMethod;
+
+/**
+ * 批量请求中的单个请求描述
+ *
+ * @author ： <a href="https://github.com/hiwepy">wandl</a>
+ */
+@Getter
+public class BatchRequest<T> {
+
+	private final HttpMethod method;
+	private final String url;
+	private final Map<String, Object> headers;
+	private final Map<String, Object> queryParams;
+	private final Object bodyContent;
+	/**
+	 * 返回值类型：{@link Class}、{@link TypeReference#getType()} 或 JavaType
+	 */
+	private final Type responseType;
+
+	protected BatchRequest(HttpMethod method, String url, Map<String, Object> headers, Map<String, Object> queryParams,
+			Object bodyContent, Type responseType) {
+		this.method = method;
+		this.url = url;
+		this.headers = headers;
+		this.queryParams = queryParams;
+		this.bodyContent = bodyContent;
+		this.responseType = responseType;
+	}
+
+	public static <T> BatchRequest<T> get(String url, Class<T> rtClass) {
+		return new BatchRequest<>(HttpMethod.GET, url, null, null, null, rtClass);
+	}
+
+	public static <T> BatchRequest<T> get(String url, Map<String, Object> params, Class<T> rtClass) {
+		return new BatchRequest<>(HttpMethod.GET, url, null, params, null, rtClass);
+	}
+
+	public static <T> BatchRequest<T> get(String url, Map<String, Object> params, TypeReference<T> typeRef) {
+		return new BatchRequest<>(HttpMethod.GET, url, null, params, null, typeRef.getType());
+	}
+
+	public static <T> BatchRequest<T> of(HttpMethod method, String url, Map<String, Object> headers,
+			Map<String, Object> queryParams, Object bodyContent, Class<T> rtClass) {
+		return new BatchRequest<>(method, url, headers, queryParams, bodyContent, rtClass);
+	}
+
+	public static <T> BatchRequest<T> of(HttpMethod method, String url, Map<String, Object> headers,
+			Map<String, Object> queryParams, Object bodyContent, TypeReference<T> typeRef) {
+		return new BatchRequest<>(method, url, headers, queryParams, bodyContent, typeRef.getType());
+	}
+
+}
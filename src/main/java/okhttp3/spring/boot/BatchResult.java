@@ -0,0 +1,62 @@
+/*
+ * Copyright (c) 2018, hiwepy (https://github.com/hiwepy).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package okhttp3.spring.boot;
+
+import java.util.Objects;
+
+import lombok.Getter;
+
+/**
+ * 批量请求中单个请求的执行结果，与请求列表的顺序一一对应
+ *
+ * @author ： <a href="https://github.com/hiwepy">wandl</a>
+ */
+@Getter
+public class BatchResult<T> {
+
+	private final int index;
+	private final BatchRequest<T> request;
+	private final T value;
+	private final Throwable error;
+
+	public BatchResult(int index, BatchRequest<T> request, T value, Throwable error) {
+		this.index = index;
+		this.request = request;
+		this.value = value;
+		this.error = error;
+	}
+
+	public boolean isSuccess() {
+		return Objects.isNull(error);
+	}
+
+	/**
+	 * 批量请求的执行模式
+	 */
+	public enum Mode {
+
+		/**
+		 * 任一请求失败时，取消其余未完成的请求
+		 */
+		FAIL_FAST,
+		/**
+		 * 执行全部请求，分别收集成功或失败的结果
+		 */
+		COLLECT_ALL
+
+	}
+
+}
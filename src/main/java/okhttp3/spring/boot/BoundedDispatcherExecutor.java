@@ -0,0 +1,316 @@
+/*
+ * Copyright (c) 2018, hiwepy (https://github.com/hiwepy).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package okhttp3.spring.boot;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import lombok.extern.slf4j.Slf4j;
+import okhttp3.Call;
+import okhttp3.internal.Util;
+import okhttp3.spring.boot.OkHttp3PoolProperties.RejectionPolicy;
+
+/**
+ * 有界的 Dispatcher 执行器：线程数固定上限，排队的异步请求不超过 maxQueuedCalls，队列已满时按 {@link RejectionPolicy} 处理，
+ * 排队超过 queueTimeout 的请求在出队时直接失败；丢弃的请求被取消后按 OkHttp 执行器拒绝的流程处理：
+ * 回调收到 InterruptedIOException，Dispatcher 正常结束该请求，不会执行拦截器链
+ *
+ * 队列有界时应取消 Dispatcher 的 maxRequests 及 maxRequestsPerHost 限制，否则超出的请求仍会在 Dispatcher 的内存队列中无限排队；
+ * 自动配置在这种情况下将两者设为 Integer.MAX_VALUE，每个主机的并发改由自适应并发限制拦截器控制
+ *
+ * caller-runs 策略在调用 enqueue 的线程上执行请求；该线程通常是 Dispatcher 线程（在回调中发起新请求），
+ * 嵌套执行的请求在回调中再次被拒绝时不会继续嵌套，而是排到外层任务结束后依次执行，调用栈深度保持不变
+ *
+ * @author ： <a href="https://github.com/hiwepy">wandl</a>
+ */
+@Slf4j
+public class BoundedDispatcherExecutor extends ThreadPoolExecutor implements OkHttp3Statistics {
+
+	private static final Method ASYNC_CALL_GET = asyncCallMethod("get");
+	private static final Method ASYNC_CALL_EXECUTE_ON = asyncCallMethod("executeOn", ExecutorService.class);
+
+	/**
+	 * 执行器事件监听，用于记录排队时间及拒绝次数等指标
+	 */
+	public interface Listener {
+
+		/**
+		 * @param waitNanos 请求在队列中的等待时间
+		 */
+		default void onQueueWait(long waitNanos) {
+		}
+
+		/**
+		 * @param reason 拒绝原因：queueFull、droppedOldest、callerRuns、queueTimeout
+		 */
+		default void onRejected(String reason) {
+		}
+
+	}
+
+	private final int maxQueuedCalls;
+	private final RejectionPolicy rejectionPolicy;
+	private final long queueTimeoutNanos;
+	private final LongAdder queueFull = new LongAdder();
+	private final LongAdder droppedOldest = new LongAdder();
+	private final LongAdder callerRuns = new LongAdder();
+	private final LongAdder queueTimeout = new LongAdder();
+	/**
+	 * 当前线程正在以 caller-runs 方式执行任务时，嵌套拒绝的任务排在这里，由最外层依次执行
+	 */
+	private final ThreadLocal<Deque<Runnable>> callerRunsTasks = new ThreadLocal<>();
+	private volatile Listener listener = new Listener() {
+	};
+
+	/**
+	 * @param maxThreads 最大线程数
+	 * @param maxQueuedCalls 允许排队的最大请求数，不大于 0 时不限制
+	 * @param keepAlive 空闲线程存活时间
+	 * @param rejectionPolicy 队列已满时的处理策略
+	 * @param queueTimeout 允许的最长排队时间，为 0 时不限制
+	 */
+	public BoundedDispatcherExecutor(int maxThreads, int maxQueuedCalls, Duration keepAlive, RejectionPolicy rejectionPolicy,
+			Duration queueTimeout) {
+		super(maxThreads, maxThreads, keepAlive.toMillis(), TimeUnit.MILLISECONDS, newQueue(maxQueuedCalls),
+				Util.threadFactory("OkHttp Dispatcher", false));
+		this.maxQueuedCalls = maxQueuedCalls;
+		this.rejectionPolicy = rejectionPolicy;
+		this.queueTimeoutNanos = queueTimeout.toNanos();
+		this.allowCoreThreadTimeOut(true);
+		this.setRejectedExecutionHandler((task, executor) -> this.reject(task));
+	}
+
+	private static BlockingQueue<Runnable> newQueue(int maxQueuedCalls) {
+		return maxQueuedCalls > 0 ? new LinkedBlockingQueue<>(maxQueuedCalls) : new LinkedBlockingQueue<>();
+	}
+
+	private static Method asyncCallMethod(String name, Class<?>... parameterTypes) {
+		try {
+			Method method = Class.forName("okhttp3.RealCall$AsyncCall").getDeclaredMethod(name, parameterTypes);
+			method.setAccessible(true);
+			return method;
+		} catch (ReflectiveOperationException | RuntimeException e) {
+			log.warn("OkHttp3 >> Queued calls can not be failed directly, load shedding falls back to running them : {}", e.getMessage());
+			return null;
+		}
+	}
+
+	public boolean isQueueBounded() {
+		return maxQueuedCalls > 0;
+	}
+
+	@Override
+	public void execute(Runnable command) {
+		super.execute(new QueuedTask(command, System.nanoTime()));
+	}
+
+	private void reject(Runnable task) {
+		if (this.isShutdown()) {
+			throw new RejectedExecutionException("OkHttp3 dispatcher executor is shutdown");
+		}
+		switch (rejectionPolicy) {
+		case CALLER_RUNS:
+			callerRuns.increment();
+			listener.onRejected("callerRuns");
+			this.runOnCaller(task);
+			break;
+		case DROP_OLDEST:
+			Runnable oldest = this.getQueue().poll();
+			super.execute(task);
+			if (oldest instanceof QueuedTask) {
+				droppedOldest.increment();
+				listener.onRejected("droppedOldest");
+				this.shed((QueuedTask) oldest, "Dropped by a newer call, dispatcher queue is full : " + maxQueuedCalls);
+			}
+			break;
+		case FAIL_FAST:
+		default:
+			queueFull.increment();
+			listener.onRejected("queueFull");
+			// OkHttp 将拒绝转换为 InterruptedIOException 通知回调
+			throw new RejectedExecutionException("OkHttp3 dispatcher queue is full : " + maxQueuedCalls);
+		}
+	}
+
+	/**
+	 * 在当前线程执行被拒绝的任务；当前线程已在执行 caller-runs 任务时只排入队列，由最外层在同一个栈帧中依次执行，
+	 * 避免回调中连续发起的请求使调用栈无限增长
+	 */
+	private void runOnCaller(Runnable task) {
+		Deque<Runnable> pending = callerRunsTasks.get();
+		if (Objects.nonNull(pending)) {
+			pending.add(task);
+			return;
+		}
+		pending = new ArrayDeque<>();
+		callerRunsTasks.set(pending);
+		try {
+			task.run();
+		} finally {
+			// 外层任务的回调抛出异常时，排队的任务仍需执行，否则这些请求永远不会结束
+			for (Runnable next = pending.poll(); Objects.nonNull(next); next = pending.poll()) {
+				try {
+					next.run();
+				} catch (RuntimeException e) {
+					log.warn("OkHttp3 >> Caller-runs call failed : {}", e.getMessage());
+				}
+			}
+			callerRunsTasks.remove();
+		}
+	}
+
+	/**
+	 * 取消请求并交给总是拒绝的执行器，由 OkHttp 通知回调失败并结束该请求，当前线程只执行失败回调；
+	 * 无法通过反射访问 OkHttp 内部方法时照常执行
+	 */
+	private void shed(QueuedTask task, String reason) {
+		Call call = this.callOf(task.delegate);
+		if (Objects.isNull(call) || Objects.isNull(ASYNC_CALL_EXECUTE_ON)) {
+			task.delegate.run();
+			return;
+		}
+		call.cancel();
+		try {
+			ASYNC_CALL_EXECUTE_ON.invoke(task.delegate, new RejectingExecutor(reason));
+		} catch (InvocationTargetException e) {
+			// 失败回调抛出的异常，Dispatcher 已结束该请求
+			log.warn("OkHttp3 >> Shed call callback failed : {}", e.getCause().getMessage());
+		} catch (ReflectiveOperationException e) {
+			task.delegate.run();
+		}
+	}
+
+	private Call callOf(Runnable task) {
+		if (Objects.isNull(ASYNC_CALL_GET) || !ASYNC_CALL_GET.getDeclaringClass().isInstance(task)) {
+			return null;
+		}
+		try {
+			return (Call) ASYNC_CALL_GET.invoke(task);
+		} catch (ReflectiveOperationException e) {
+			return null;
+		}
+	}
+
+	public void setListener(Listener listener) {
+		this.listener = listener;
+	}
+
+	@Override
+	public String getStatisticsName() {
+		return "dispatcher";
+	}
+
+	@Override
+	public Map<String, Object> getStatistics() {
+		Map<String, Object> statistics = new LinkedHashMap<>();
+		statistics.put("running", this.getActiveCount());
+		statistics.put("queued", this.getQueue().size());
+		statistics.put("poolSize", this.getPoolSize());
+		statistics.put("completed", this.getCompletedTaskCount());
+		statistics.put("queueFull", queueFull.sum());
+		statistics.put("droppedOldest", droppedOldest.sum());
+		statistics.put("callerRuns", callerRuns.sum());
+		statistics.put("queueTimeout", queueTimeout.sum());
+		return statistics;
+	}
+
+	/**
+	 * 拒绝所有任务的执行器，使 OkHttp 按执行器拒绝的流程结束被丢弃的请求
+	 */
+	private static final class RejectingExecutor extends AbstractExecutorService {
+
+		private final String reason;
+
+		RejectingExecutor(String reason) {
+			this.reason = reason;
+		}
+
+		@Override
+		public void execute(Runnable command) {
+			throw new RejectedExecutionException(reason);
+		}
+
+		@Override
+		public void shutdown() {
+		}
+
+		@Override
+		public List<Runnable> shutdownNow() {
+			return Collections.emptyList();
+		}
+
+		@Override
+		public boolean isShutdown() {
+			return true;
+		}
+
+		@Override
+		public boolean isTerminated() {
+			return true;
+		}
+
+		@Override
+		public boolean awaitTermination(long timeout, TimeUnit unit) {
+			return true;
+		}
+
+	}
+
+	/**
+	 * 记录入队时间的任务，出队时检查排队时间
+	 */
+	private final class QueuedTask implements Runnable {
+
+		private final Runnable delegate;
+		private final long enqueuedNanos;
+
+		QueuedTask(Runnable delegate, long enqueuedNanos) {
+			this.delegate = delegate;
+			this.enqueuedNanos = enqueuedNanos;
+		}
+
+		@Override
+		public void run() {
+			long waitNanos = System.nanoTime() - enqueuedNanos;
+			listener.onQueueWait(waitNanos);
+			if (queueTimeoutNanos > 0 && waitNanos > queueTimeoutNanos) {
+				queueTimeout.increment();
+				listener.onRejected("queueTimeout");
+				shed(this, "Queued for " + TimeUnit.NANOSECONDS.toMillis(waitNanos) + "ms, exceeds the queue timeout");
+				return;
+			}
+			delegate.run();
+		}
+
+	}
+
+}
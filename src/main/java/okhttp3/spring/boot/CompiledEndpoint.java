@@ -0,0 +1,306 @@
+/*
+ * Copyright (c) 2018, hiwepy (https://github.com/hiwepy).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package okhttp3.spring.boot;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+
+import org.springframework.util.CollectionUtils;
+import org.springframework.util.StringUtils;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JavaType;
+
+import okhttp3.HttpUrl;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.spring.boot.OkHttp3Template.HttpMethod;
+
+/**
+ * 预编译的请求端点：基础地址在创建时解析一次，路径模板预先拆分为已编码的固定片段与路径变量，
+ * 每次调用只需替换路径变量并追加查询参数；发出的请求会以 {@code CompiledEndpoint.class} 为键携带当前端点，
+ * 指标统计可据此使用低基数的 URI 模板作为标签
+ *
+ * @author ： <a href="https://github.com/hiwepy">wandl</a>
+ */
+public class CompiledEndpoint {
+
+	private final OkHttp3Template template;
+	private final HttpMethod method;
+	private final String uriTemplate;
+	private final HttpUrl baseUrl;
+	private final List<Segment> segments;
+	private final List<String> variableNames;
+
+	protected CompiledEndpoint(OkHttp3Template template, HttpMethod method, String uriTemplate, HttpUrl baseUrl,
+			List<Segment> segments, List<String> variableNames) {
+		this.template = template;
+		this.method = method;
+		this.uriTemplate = uriTemplate;
+		this.baseUrl = baseUrl;
+		this.segments = segments;
+		this.variableNames = variableNames;
+	}
+
+	/**
+	 * 编译端点描述
+	 *
+	 * @param template 请求模板
+	 * @param spec 端点描述，例如：{@code GET /users/{id}/orders} 或 {@code GET https://host/users/{id}}
+	 * @return 预编译的请求端点
+	 */
+	public static CompiledEndpoint compile(OkHttp3Template template, String spec) {
+		String trimmed = spec.trim();
+		int index = trimmed.indexOf(' ');
+		if (index < 0) {
+			throw new IllegalArgumentException("Endpoint must be declared as '<METHOD> <path>' : " + spec);
+		}
+		HttpMethod method = HttpMethod.valueOf(trimmed.substring(0, index).toUpperCase());
+		String uriTemplate = trimmed.substring(index + 1).trim();
+		// 1、拆分基础地址与路径模板
+		String base;
+		String path;
+		int schemeIndex = uriTemplate.indexOf("://");
+		if (schemeIndex > 0) {
+			int pathIndex = uriTemplate.indexOf('/', schemeIndex + 3);
+			base = pathIndex < 0 ? uriTemplate : uriTemplate.substring(0, pathIndex);
+			path = pathIndex < 0 ? "" : uriTemplate.substring(pathIndex);
+		} else {
+			base = template.getBaseUrl();
+			path = uriTemplate;
+			if (!StringUtils.hasText(base)) {
+				throw new IllegalArgumentException("Relative endpoint requires a baseUrl : " + spec);
+			}
+		}
+		HttpUrl baseUrl = HttpUrl.parse(base);
+		if (Objects.isNull(baseUrl)) {
+			throw new IllegalArgumentException("Invalid endpoint base url : " + base);
+		}
+		// 2、预编译路径片段
+		List<Segment> segments = new ArrayList<>();
+		List<String> variableNames = new ArrayList<>();
+		String[] rawSegments = path.split("/", -1);
+		for (int i = 0; i < rawSegments.length; i++) {
+			String raw = rawSegments[i];
+			boolean last = i == rawSegments.length - 1;
+			if (raw.isEmpty() && !(last && i > 0)) {
+				continue;
+			}
+			segments.add(Segment.compile(raw, variableNames));
+		}
+		return new CompiledEndpoint(template, method, uriTemplate, baseUrl, Collections.unmodifiableList(segments),
+				Collections.unmodifiableList(variableNames));
+	}
+
+	/**
+	 * 按路径变量出现的顺序替换变量，生成请求地址
+	 */
+	public HttpUrl expand(Object... uriVariables) {
+		return this.expand(this.toVariables(uriVariables), null);
+	}
+
+	/**
+	 * 替换路径变量并追加查询参数，生成请求地址
+	 *
+	 * @param uriVariables 路径变量
+	 * @param queryParams 查询参数
+	 * @return 请求地址
+	 */
+	public HttpUrl expand(Map<String, ?> uriVariables, Map<String, ?> queryParams) {
+		HttpUrl.Builder builder = baseUrl.newBuilder();
+		for (Segment segment : segments) {
+			if (Objects.nonNull(segment.encoded)) {
+				builder.addEncodedPathSegment(segment.encoded);
+			} else {
+				builder.addPathSegment(segment.expand(uriVariables, this));
+			}
+		}
+		if (!CollectionUtils.isEmpty(queryParams)) {
+			for (Entry<String, ?> entry : queryParams.entrySet()) {
+				builder.addQueryParameter(entry.getKey(), Objects.isNull(entry.getValue()) ? "" : entry.getValue().toString());
+			}
+		}
+		return builder.build();
+	}
+
+	public Request.Builder newRequestBuilder(Map<String, ?> uriVariables, Map<String, ?> queryParams,
+			Map<String, Object> headers, Object bodyContent) throws IOException {
+		return template.createRequestBuilder(this.expand(uriVariables, queryParams), method, headers, bodyContent)
+				.tag(CompiledEndpoint.class, this);
+	}
+
+	public <T> T execute(Class<T> rtClass, Object... uriVariables) throws IOException {
+		return this.execute(this.toVariables(uriVariables), null, null, null, rtClass);
+	}
+
+	public <T> T execute(TypeReference<T> typeRef, Object... uriVariables) throws IOException {
+		return this.execute(this.toVariables(uriVariables), null, null, null, template.constructType(typeRef));
+	}
+
+	public <T> T execute(Map<String, ?> uriVariables, Map<String, ?> queryParams, Map<String, Object> headers,
+			Object bodyContent, Class<T> rtClass) throws IOException {
+		long startTime = System.currentTimeMillis();
+		return template.executeForValue(startTime, this.newRequestBuilder(uriVariables, queryParams, headers, bodyContent).build(), rtClass);
+	}
+
+	public <T> T execute(Map<String, ?> uriVariables, Map<String, ?> queryParams, Map<String, Object> headers,
+			Object bodyContent, JavaType rtType) throws IOException {
+		long startTime = System.currentTimeMillis();
+		return template.executeForValue(startTime, this.newRequestBuilder(uriVariables, queryParams, headers, bodyContent).build(), rtType);
+	}
+
+	/**
+	 * 执行请求并返回原始的响应对象，调用方负责关闭响应；请求异常时返回 null
+	 */
+	public Response exchange(Map<String, ?> uriVariables, Map<String, ?> queryParams, Map<String, Object> headers,
+			Object bodyContent) throws IOException {
+		long startTime = System.currentTimeMillis();
+		return template.execute(startTime, this.newRequestBuilder(uriVariables, queryParams, headers, bodyContent).build());
+	}
+
+	public <T> CompletableFuture<T> executeAsync(Class<T> rtClass, Object... uriVariables) {
+		return this.executeAsync(this.toVariables(uriVariables), null, null, null, rtClass);
+	}
+
+	public <T> CompletableFuture<T> executeAsync(Map<String, ?> uriVariables, Map<String, ?> queryParams,
+			Map<String, Object> headers, Object bodyContent, Class<T> rtClass) {
+		long startTime = System.currentTimeMillis();
+		try {
+			Request request = this.newRequestBuilder(uriVariables, queryParams, headers, bodyContent).build();
+			return template.enqueue(startTime, request, response -> template.readValue(startTime, response, rtClass));
+		} catch (IOException | RuntimeException e) {
+			return template.failedFuture(e);
+		}
+	}
+
+	public <T> CompletableFuture<T> executeAsync(Map<String, ?> uriVariables, Map<String, ?> queryParams,
+			Map<String, Object> headers, Object bodyContent, JavaType rtType) {
+		long startTime = System.currentTimeMillis();
+		try {
+			Request request = this.newRequestBuilder(uriVariables, queryParams, headers, bodyContent).build();
+			return template.enqueue(startTime, request, response -> template.readValue(startTime, response, rtType));
+		} catch (IOException | RuntimeException e) {
+			return template.failedFuture(e);
+		}
+	}
+
+	protected Map<String, Object> toVariables(Object... uriVariables) {
+		if (uriVariables.length != variableNames.size()) {
+			throw new IllegalArgumentException("Expected " + variableNames.size() + " path variables for " + this + " but got " + uriVariables.length);
+		}
+		Map<String, Object> variables = new HashMap<>(uriVariables.length * 2);
+		for (int i = 0; i < uriVariables.length; i++) {
+			variables.put(variableNames.get(i), uriVariables[i]);
+		}
+		return variables;
+	}
+
+	public HttpMethod getMethod() {
+		return method;
+	}
+
+	/**
+	 * @return 端点声明的 URI 模板，可作为低基数的指标标签
+	 */
+	public String getUriTemplate() {
+		return uriTemplate;
+	}
+
+	public HttpUrl getBaseUrl() {
+		return baseUrl;
+	}
+
+	public List<String> getVariableNames() {
+		return variableNames;
+	}
+
+	@Override
+	public String toString() {
+		return method.getName() + " " + uriTemplate;
+	}
+
+	/**
+	 * 路径片段：固定片段在编译时完成编码，含变量的片段由固定部分与变量名交替组成
+	 */
+	protected static final class Segment {
+
+		private static final HttpUrl ENCODER = HttpUrl.get("http://localhost/");
+
+		private final String encoded;
+		/**
+		 * 偶数位为固定文本，奇数位为变量名
+		 */
+		private final String[] parts;
+
+		private Segment(String encoded, String[] parts) {
+			this.encoded = encoded;
+			this.parts = parts;
+		}
+
+		static Segment compile(String raw, List<String> variableNames) {
+			if (raw.indexOf('{') < 0) {
+				List<String> encodedSegments = ENCODER.newBuilder().addPathSegment(raw).build().encodedPathSegments();
+				return new Segment(encodedSegments.get(encodedSegments.size() - 1), null);
+			}
+			List<String> parts = new ArrayList<>();
+			int from = 0;
+			while (from <= raw.length()) {
+				int open = raw.indexOf('{', from);
+				int close = open < 0 ? -1 : raw.indexOf('}', open);
+				if (open < 0 || close < 0) {
+					parts.add(raw.substring(from));
+					break;
+				}
+				String name = raw.substring(open + 1, close).trim();
+				parts.add(raw.substring(from, open));
+				parts.add(name);
+				if (!variableNames.contains(name)) {
+					variableNames.add(name);
+				}
+				from = close + 1;
+			}
+			return new Segment(null, parts.toArray(new String[0]));
+		}
+
+		String expand(Map<String, ?> uriVariables, CompiledEndpoint endpoint) {
+			if (parts.length == 3 && parts[0].isEmpty() && parts[2].isEmpty()) {
+				return this.value(parts[1], uriVariables, endpoint);
+			}
+			StringBuilder builder = new StringBuilder();
+			for (int i = 0; i < parts.length; i++) {
+				builder.append(i % 2 == 0 ? parts[i] : this.value(parts[i], uriVariables, endpoint));
+			}
+			return builder.toString();
+		}
+
+		private String value(String name, Map<String, ?> uriVariables, CompiledEndpoint endpoint) {
+			Object value = Objects.isNull(uriVariables) ? null : uriVariables.get(name);
+			if (Objects.isNull(value)) {
+				throw new IllegalArgumentException("Missing path variable '" + name + "' for " + endpoint);
+			}
+			return value.toString();
+		}
+
+	}
+
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright (c) 2018, hiwepy (https://github.com/hiwepy).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package okhttp3.spring.boot;
+
+import org.springframework.util.unit.DataSize;
+
+import lombok.Data;
+
+/**
+ * 文件下载选项
+ *
+ * @author ： <a href="https://github.com/hiwepy">wandl</a>
+ */
+@Data
+public class DownloadOptions {
+
+	/**
+	 * 并行分段数，大于 1 且服务端支持 Range 请求时按分段并行下载，默认：1
+	 */
+	private int segments = 1;
+
+	/**
+	 * 单个分段的最小大小，文件较小时减少分段数，默认：8MB
+	 */
+	private DataSize minSegmentSize = DataSize.ofMegabytes(8);
+
+	/**
+	 * 是否支持断点续传：下载进度记录在目标文件旁的 {@code .download} 状态文件中，下次下载时从已完成的位置继续
+	 */
+	private boolean resume = true;
+
+	/**
+	 * 每写入多少字节保存一次下载进度，默认：16MB
+	 */
+	private DataSize checkpointSize = DataSize.ofMegabytes(16);
+
+	public static DownloadOptions defaults() {
+		return new DownloadOptions();
+	}
+
+	public static DownloadOptions segments(int segments) {
+		DownloadOptions options = new DownloadOptions();
+		options.setSegments(segments);
+		return options;
+	}
+
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) 2018, hiwepy (https://github.com/hiwepy).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package okhttp3.spring.boot;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+import lombok.Getter;
+
+/**
+ * 文件下载结果
+ *
+ * @author ： <a href="https://github.com/hiwepy">wandl</a>
+ */
+@Getter
+public class DownloadResult {
+
+	private final Path path;
+	/**
+	 * 文件总大小（字节）
+	 */
+	private final long contentLength;
+	/**
+	 * 本次下载实际传输的字节数，断点续传时小于文件总大小
+	 */
+	private final long transferred;
+	/**
+	 * 实际使用的分段数
+	 */
+	private final int segments;
+	/**
+	 * 是否从上次中断的位置继续下载
+	 */
+	private final boolean resumed;
+	private final Duration elapsed;
+
+	public DownloadResult(Path path, long contentLength, long transferred, int segments, boolean resumed, Duration elapsed) {
+		this.path = path;
+		this.contentLength = contentLength;
+		this.transferred = transferred;
+		this.segments = segments;
+		this.resumed = resumed;
+		this.elapsed = elapsed;
+	}
+
+	/**
+	 * @return 本次下载的平均吞吐量（字节/秒）
+	 */
+	public double getThroughput() {
+		long millis = Math.max(elapsed.toMillis(), 1);
+		return transferred * 1000D / millis;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%s : %d bytes (%d transferred, %d segments%s) in %d ms, %.2f MB/s", path, contentLength,
+				transferred, segments, resumed ? ", resumed" : "", elapsed.toMillis(), this.getThroughput() / (1024 * 1024));
+	}
+
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright (c) 2018, hiwepy (https://github.com/hiwepy).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package okhttp3.spring.boot;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import okhttp3.MediaType;
+import okhttp3.RequestBody;
+import okio.BufferedSink;
+import okio.Okio;
+import okio.Source;
+
+/**
+ * 文件请求体：发送时按 Okio 分段从文件流式写入，不会将整个文件读入内存，并提供准确的 Content-Length；可重复发送
+ *
+ * @author ： <a href="https://github.com/hiwepy">wandl</a>
+ */
+public class FileRequestBody extends RequestBody {
+
+	private final MediaType contentType;
+	private final Path path;
+
+	public FileRequestBody(MediaType contentType, Path path) {
+		this.contentType = contentType;
+		this.path = path;
+	}
+
+	@Override
+	public MediaType contentType() {
+		return contentType;
+	}
+
+	@Override
+	public long contentLength() throws IOException {
+		return Files.size(path);
+	}
+
+	@Override
+	public void writeTo(BufferedSink sink) throws IOException {
+		try (Source source = Okio.source(path)) {
+			sink.writeAll(source);
+		}
+	}
+
+	public Path getPath() {
+		return path;
+	}
+
+}
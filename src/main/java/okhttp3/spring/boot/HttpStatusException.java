@@ -0,0 +1,39 @@
+/*
+ * Copyright (c) 2018, hiwepy (https://github.com/hiwepy).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package okhttp3.spring.boot;
+
+import java.io.IOException;
+
+/**
+ * 响应状态码不是 2xx 时抛出的异常
+ *
+ * @author ： <a href="https://github.com/hiwepy">wandl</a>
+ */
+@SuppressWarnings("serial")
+public class HttpStatusException extends IOException {
+
+	private final int code;
+
+	public HttpStatusException(int code, String message) {
+		super("HTTP " + code + " " + message);
+		this.code = code;
+	}
+
+	public int getCode() {
+		return code;
+	}
+
+}
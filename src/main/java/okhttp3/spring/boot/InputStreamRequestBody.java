@@ -0,0 +1,76 @@
+/*
+ * Copyright (c) 2018, hiwepy (https://github.com/hiwepy).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package okhttp3.spring.boot;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import okhttp3.MediaType;
+import okhttp3.RequestBody;
+import okio.BufferedSink;
+import okio.Okio;
+import okio.Source;
+
+/**
+ * 输入流请求体：发送时按 Okio 分段从输入流写入，写入完成后关闭输入流；
+ * 输入流只能读取一次，因此该请求体是一次性的（{@link #isOneShot()}），不能被重试
+ *
+ * @author ： <a href="https://github.com/hiwepy">wandl</a>
+ */
+public class InputStreamRequestBody extends RequestBody {
+
+	private final MediaType contentType;
+	private final InputStream inputStream;
+	private final long contentLength;
+
+	public InputStreamRequestBody(MediaType contentType, InputStream inputStream) {
+		this(contentType, inputStream, -1);
+	}
+
+	/**
+	 * @param contentType 请求体类型
+	 * @param inputStream 输入流
+	 * @param contentLength 输入流的长度，未知时为 -1（使用分块传输编码）
+	 */
+	public InputStreamRequestBody(MediaType contentType, InputStream inputStream, long contentLength) {
+		this.contentType = contentType;
+		this.inputStream = inputStream;
+		this.contentLength = contentLength;
+	}
+
+	@Override
+	public MediaType contentType() {
+		return contentType;
+	}
+
+	@Override
+	public long contentLength() {
+		return contentLength;
+	}
+
+	@Override
+	public boolean isOneShot() {
+		return true;
+	}
+
+	@Override
+	public void writeTo(BufferedSink sink) throws IOException {
+		try (Source source = Okio.source(inputStream)) {
+			sink.writeAll(source);
+		}
+	}
+
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright (c) 2018, hiwepy (https://github.com/hiwepy).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package okhttp3.spring.boot;
+
+import java.io.IOException;
+
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import okhttp3.MediaType;
+import okhttp3.RequestBody;
+import okio.BufferedSink;
+
+/**
+ * 基于 Jackson 的请求体：在 {@link #writeTo(BufferedSink)} 时直接将对象序列化到输出流，
+ * 不会预先生成 JSON 字符串及其字节数组
+ *
+ * @author ： <a href="https://github.com/hiwepy">wandl</a>
+ */
+public class JacksonRequestBody extends RequestBody {
+
+	private final MediaType contentType;
+	private final ObjectWriter writer;
+	private final Object value;
+
+	/**
+	 * @param contentType 请求体类型
+	 * @param writer 序列化对象，需关闭 {@code AUTO_CLOSE_TARGET}，以免序列化完成后提前关闭输出流
+	 * @param value 需要序列化的对象
+	 */
+	public JacksonRequestBody(MediaType contentType, ObjectWriter writer, Object value) {
+		this.contentType = contentType;
+		this.writer = writer;
+		this.value = value;
+	}
+
+	@Override
+	public MediaType contentType() {
+		return contentType;
+	}
+
+	@Override
+	public long contentLength() {
+		return -1; // We don't know the serialized length in advance!
+	}
+
+	@Override
+	public void writeTo(BufferedSink sink) throws IOException {
+		writer.writeValue(sink.outputStream(), value);
+	}
+
+	public Object getValue() {
+		return value;
+	}
+
+}
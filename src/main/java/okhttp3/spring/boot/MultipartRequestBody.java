@@ -0,0 +1,94 @@
+/*
+ * Copyright (c) 2018, hiwepy (https://github.com/hiwepy).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package okhttp3.spring.boot;
+
+import java.io.IOException;
+import java.util.Objects;
+
+import okhttp3.MediaType;
+import okhttp3.MultipartBody;
+import okhttp3.RequestBody;
+import okio.BufferedSink;
+
+/**
+ * multipart 请求体包装：okhttp 3.14 的 {@link MultipartBody} 没有覆盖 {@link RequestBody#isOneShot()}，
+ * 包含一次性表单项（例如输入流）时仍会被重试或对冲请求重复发送；该包装在任一表单项为一次性时报告为一次性请求体
+ *
+ * @author ： <a href="https://github.com/hiwepy">wandl</a>
+ */
+public class MultipartRequestBody extends RequestBody {
+
+	private final MultipartBody delegate;
+
+	MultipartRequestBody(MultipartBody delegate) {
+		this.delegate = delegate;
+	}
+
+	/**
+	 * 包含一次性表单项的 multipart 请求体包装为一次性请求体，其它请求体原样返回
+	 *
+	 * @param body 请求体，可以为空
+	 * @return 包装后的请求体或原请求体
+	 */
+	public static RequestBody of(RequestBody body) {
+		return body instanceof MultipartBody && hasOneShotPart((MultipartBody) body)
+				? new MultipartRequestBody((MultipartBody) body) : body;
+	}
+
+	/**
+	 * 判断请求体是否为一次性请求体，multipart 请求体按其表单项判断
+	 *
+	 * @param body 请求体，可以为空
+	 * @return 是否为一次性请求体
+	 */
+	public static boolean isOneShot(RequestBody body) {
+		return Objects.nonNull(body) && (body.isOneShot() || body instanceof MultipartBody && hasOneShotPart((MultipartBody) body));
+	}
+
+	private static boolean hasOneShotPart(MultipartBody body) {
+		for (MultipartBody.Part part : body.parts()) {
+			if (part.body().isOneShot() || part.body().isDuplex()) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	public MultipartBody getMultipartBody() {
+		return delegate;
+	}
+
+	@Override
+	public MediaType contentType() {
+		return delegate.contentType();
+	}
+
+	@Override
+	public long contentLength() throws IOException {
+		return delegate.contentLength();
+	}
+
+	@Override
+	public boolean isOneShot() {
+		return true;
+	}
+
+	@Override
+	public void writeTo(BufferedSink sink) throws IOException {
+		delegate.writeTo(sink);
+	}
+
+}
@@ -1,9 +1,14 @@
 package okhttp3.spring.boot;
 
+import java.io.File;
 import java.net.Proxy;
 import java.net.ProxySelector;
+import java.time.Duration;
 import java.util.List;
 import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
@@ -20,30 +25,48 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.databind.json.JsonMapper;
 import com.google.common.collect.Lists;
+import lombok.extern.slf4j.Slf4j;
 import okhttp3.*;
 import okhttp3.internal.Util;
+import okhttp3.spring.boot.cache.CacheRuleInterceptor;
+import okhttp3.spring.boot.cache.ResponseCacheInterceptor;
+import okhttp3.spring.boot.cache.ResponseObjectCache;
+import okhttp3.spring.boot.codec.JacksonCodec;
+import okhttp3.spring.boot.codec.OkHttp3Codec;
+import okhttp3.spring.boot.codec.OkHttp3CodecProperties;
+import okhttp3.spring.boot.codec.ProtobufCodec;
 import okhttp3.spring.boot.ext.*;
 import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
 import org.springframework.http.client.OkHttp3ClientHttpRequestFactory;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
 
 import okhttp3.internal.tls.OkHostnameVerifier;
 import okhttp3.logging.HttpLoggingInterceptor;
 import okhttp3.spring.boot.ssl.SSLContexts;
 import okhttp3.spring.boot.ssl.TrustManagerUtils;
 import org.springframework.util.CollectionUtils;
+import org.springframework.util.StringUtils;
 
 /**
  * OkHttp Client Ini
  */
+@Slf4j
 @Configuration
 @ConditionalOnClass(okhttp3.OkHttpClient.class)
 @EnableConfigurationProperties({ OkHttp3Properties.class, OkHttp3PoolProperties.class, OkHttp3SslProperties.class,
-	GzipRequestProperties.class, RequestHeaderProperties.class })
+	GzipRequestProperties.class, RequestHeaderProperties.class, RequestCoalescingProperties.class, ConditionalRequestProperties.class,
+	OkHttp3CodecProperties.class, OkHttp3CacheProperties.class, OkHttp3ObjectCacheProperties.class,
+	OkHttp3HedgingProperties.class, ConcurrencyLimitProperties.class, CircuitBreakerProperties.class, RequestRetryProperties.class,
+	OkHttp3ClientsProperties.class })
 public class OkHttp3AutoConfiguration {
 
 	@Bean
@@ -51,9 +74,22 @@ public class OkHttp3AutoConfiguration {
 		return new RequestHeaderInterceptor(headerProperties);
 	}
 
+	@Bean(destroyMethod = "shutdown")
+	@ConditionalOnMissingBean
+	public RetryPolicy retryPolicy(RequestRetryProperties retryProperties, OkHttp3Properties properties) {
+		// 兼容 okhttp3.max-retry 与 okhttp3.retry-interval
+		if (retryProperties.getMaxRetries() <= 0 && properties.getMaxRetry() > 0) {
+			retryProperties.setMaxRetries(properties.getMaxRetry());
+			if (properties.getRetryInterval() > 0) {
+				retryProperties.setInitialBackoff(Duration.ofMillis(properties.getRetryInterval()));
+			}
+		}
+		return new RetryPolicy(retryProperties);
+	}
+
 	@Bean
-	public RequestRetryIntercepter requestRetryIntercepter(OkHttp3Properties properties) {
-		return new RequestRetryIntercepter(properties.getMaxRetry(), properties.getRetryInterval());
+	public RequestRetryIntercepter requestRetryIntercepter(RetryPolicy retryPolicy) {
+		return new RequestRetryIntercepter(retryPolicy);
 	}
 
 	@Bean
@@ -61,6 +97,66 @@ public class OkHttp3AutoConfiguration {
 		return new GzipRequestInterceptor(gzipProperties);
 	}
 
+	@Bean
+	public RequestCoalescingInterceptor coalescingInterceptor(RequestCoalescingProperties coalescingProperties) {
+		return new RequestCoalescingInterceptor(coalescingProperties);
+	}
+
+	@Bean
+	public ConditionalRequestInterceptor conditionalRequestInterceptor(ConditionalRequestProperties conditionalProperties) {
+		return new ConditionalRequestInterceptor(conditionalProperties);
+	}
+
+	@Bean
+	@ConditionalOnMissingBean
+	@ConditionalOnProperty(prefix = ConcurrencyLimitProperties.PREFIX, name = "enabled", havingValue = "true")
+	public AdaptiveConcurrencyLimitInterceptor concurrencyLimitInterceptor(ConcurrencyLimitProperties limitProperties) {
+		return new AdaptiveConcurrencyLimitInterceptor(limitProperties);
+	}
+
+	@Bean
+	@ConditionalOnMissingBean
+	@ConditionalOnProperty(prefix = CircuitBreakerProperties.PREFIX, name = "enabled", havingValue = "true")
+	public CircuitBreakerInterceptor circuitBreakerInterceptor(CircuitBreakerProperties circuitBreakerProperties) {
+		return new CircuitBreakerInterceptor(circuitBreakerProperties);
+	}
+
+	@Bean(destroyMethod = "close")
+	@ConditionalOnMissingBean
+	@ConditionalOnProperty(prefix = OkHttp3CacheProperties.PREFIX, name = "enabled", havingValue = "true")
+	public Cache okhttp3Cache(OkHttp3CacheProperties cacheProperties) {
+		return new Cache(new File(cacheProperties.getDirectory()), cacheProperties.getMaxSize().toBytes());
+	}
+
+	@Bean
+	@ConditionalOnProperty(prefix = OkHttp3CacheProperties.PREFIX, name = "enabled", havingValue = "true")
+	public CacheRuleInterceptor cacheRuleInterceptor(OkHttp3CacheProperties cacheProperties) {
+		return new CacheRuleInterceptor(cacheProperties.getRules());
+	}
+
+	@Bean
+	@ConditionalOnExpression("${" + OkHttp3CacheProperties.PREFIX + ".enabled:false} or ${" + OkHttp3CacheProperties.PREFIX + ".memory.enabled:false}")
+	public ResponseCacheInterceptor responseCacheInterceptor(ObjectProvider<Cache> cacheProvider, OkHttp3CacheProperties cacheProperties,
+			ObjectProvider<CookieJar> cookieJarProvider) {
+		return new ResponseCacheInterceptor(cacheProvider.getIfAvailable(), cacheProperties,
+				cookieJarProvider.getIfAvailable(() -> CookieJar.NO_COOKIES));
+	}
+
+	@Bean
+	@ConditionalOnMissingBean
+	@ConditionalOnProperty(prefix = OkHttp3ObjectCacheProperties.PREFIX, name = "enabled", havingValue = "true")
+	public ResponseObjectCache responseObjectCache(OkHttp3ObjectCacheProperties objectCacheProperties,
+			ObjectProvider<CookieJar> cookieJarProvider) {
+		return new ResponseObjectCache(objectCacheProperties, cookieJarProvider.getIfAvailable(() -> CookieJar.NO_COOKIES));
+	}
+
+	@Bean(destroyMethod = "shutdown")
+	@ConditionalOnMissingBean
+	@ConditionalOnProperty(prefix = OkHttp3HedgingProperties.PREFIX, name = "enabled", havingValue = "true")
+	public RequestHedger requestHedger(OkHttp3HedgingProperties hedgingProperties) {
+		return new RequestHedger(hedgingProperties);
+	}
+
 	@Bean
 	public HttpLoggingInterceptor loggingInterceptor(OkHttp3Properties properties) {
 		HttpLoggingInterceptor loggingInterceptor = new HttpLoggingInterceptor();
@@ -68,11 +164,58 @@ public class OkHttp3AutoConfiguration {
 		return loggingInterceptor;
 	}
 
+	@Bean(name = OkHttp3PoolProperties.DISPATCHER_EXECUTOR_BEAN_NAME, destroyMethod = "shutdown")
+	@ConditionalOnProperty(prefix = OkHttp3PoolProperties.PREFIX, name = "executor", havingValue = "bounded")
+	public BoundedDispatcherExecutor okhttp3BoundedDispatcherExecutor(OkHttp3PoolProperties properties) {
+		return new BoundedDispatcherExecutor(properties.getMaxRequests(), properties.getMaxQueuedCalls(), properties.getThreadKeepAlive(),
+				properties.getRejectionPolicy(), properties.getQueueTimeout());
+	}
+
+	@Bean(name = OkHttp3PoolProperties.DISPATCHER_EXECUTOR_BEAN_NAME, destroyMethod = "shutdown")
+	@ConditionalOnProperty(prefix = OkHttp3PoolProperties.PREFIX, name = "executor", havingValue = "virtual")
+	public ExecutorService okhttp3VirtualDispatcherExecutor(OkHttp3PoolProperties properties) {
+		return OkHttp3Executors.newVirtualThreadPerTaskExecutor().orElseGet(() -> {
+			log.warn("OkHttp3 >> Virtual threads require JDK 21+, fall back to bounded Dispatcher executor.");
+			return OkHttp3Executors.newBoundedExecutor(properties.getMaxRequests(), properties.getThreadKeepAlive());
+		});
+	}
+
+	@Bean(name = OkHttp3Template.ASYNC_EXECUTOR_BEAN_NAME, destroyMethod = "shutdown")
+	@ConditionalOnMissingBean(name = OkHttp3Template.ASYNC_EXECUTOR_BEAN_NAME)
+	public ExecutorService okhttp3AsyncExecutor(OkHttp3PoolProperties properties) {
+		if (OkHttp3PoolProperties.ExecutorType.VIRTUAL.equals(properties.getExecutor())) {
+			Optional<ExecutorService> executor = OkHttp3Executors.newVirtualThreadPerTaskExecutor();
+			if (executor.isPresent()) {
+				return executor.get();
+			}
+		}
+		return OkHttp3Executors.newAsyncExecutor(properties.getAsyncThreads(), properties.getAsyncQueueCapacity(),
+				properties.getThreadKeepAlive());
+	}
+
 	@Bean
-	public Dispatcher dispatcher(OkHttp3PoolProperties properties) {
-		Dispatcher dispatcher = new Dispatcher();
-		dispatcher.setMaxRequests(Math.max(properties.getMaxRequests(), OkHttp3PoolProperties.DEFAULT_MAX_REQUESTS));
-		dispatcher.setMaxRequestsPerHost(Math.max(properties.getMaxRequestsPerHost(), OkHttp3PoolProperties.DEFAULT_MAX_REQUESTS_PER_ROUTE));
+	public Dispatcher dispatcher(OkHttp3PoolProperties properties, ConcurrencyLimitProperties limitProperties,
+			@Qualifier(OkHttp3PoolProperties.DISPATCHER_EXECUTOR_BEAN_NAME) ObjectProvider<ExecutorService> executorProvider) {
+		ExecutorService executor = executorProvider.getIfAvailable();
+		Dispatcher dispatcher = Objects.isNull(executor) ? new Dispatcher() : new Dispatcher(executor);
+		if (executor instanceof BoundedDispatcherExecutor && ((BoundedDispatcherExecutor) executor).isQueueBounded()) {
+			// 排队由执行器的有界队列负责，Dispatcher 不再在内存中排队：maxRequests 及 maxRequestsPerHost 都不限制，
+			// 否则超出限制的请求仍会进入 Dispatcher 无界的 readyAsyncCalls；每个主机的并发可由自适应并发限制拦截器控制
+			if (properties.getMaxRequestsPerHost() < properties.getMaxRequests()) {
+				log.info("OkHttp3 >> Dispatcher queue is bounded, maxRequestsPerHost {} is lifted", properties.getMaxRequestsPerHost());
+			}
+			dispatcher.setMaxRequests(Integer.MAX_VALUE);
+			dispatcher.setMaxRequestsPerHost(Integer.MAX_VALUE);
+		} else if (limitProperties.isEnabled()) {
+			dispatcher.setMaxRequests(properties.getMaxRequests());
+			// 每个主机的并发由自适应并发限制拦截器控制，Dispatcher 只保留其上限
+			int maxRequestsPerHost = Math.min(limitProperties.getMaxLimit(), properties.getMaxRequests());
+			log.info("OkHttp3 >> Adaptive concurrency limit enabled, Dispatcher maxRequestsPerHost : {}", maxRequestsPerHost);
+			dispatcher.setMaxRequestsPerHost(maxRequestsPerHost);
+		} else {
+			dispatcher.setMaxRequests(properties.getMaxRequests());
+			dispatcher.setMaxRequestsPerHost(properties.getMaxRequestsPerHost());
+		}
 		return dispatcher;
 	}
 
@@ -138,12 +281,9 @@ public class OkHttp3AutoConfiguration {
 				.socketFactory(socketFactoryProvider.getIfAvailable(() -> SocketFactory.getDefault()))
 				.writeTimeout(properties.getWriteTimeout());
 
-		for (RequestInterceptor applicationInterceptor : applicationInterceptorProvider) {
-			builder.addInterceptor(applicationInterceptor);
-		}
-		for (NetworkInterceptor networkInterceptor : networkInterceptorProvider) {
-			builder.addNetworkInterceptor(networkInterceptor);
-		}
+		// 按 Ordered/@Order 排序，先添加的在外层：请求头 -> 缓存 -> 合并 -> 熔断 -> 并发限制 -> 重试，未指定顺序的拦截器在最内层
+		applicationInterceptorProvider.orderedStream().forEach(builder::addInterceptor);
+		networkInterceptorProvider.orderedStream().forEach(builder::addNetworkInterceptor);
 		if(sslProperties.isEnabled()) {
 
 			X509TrustManager trustManager = trustManagerProvider.getIfAvailable(()-> { return TrustManagerUtils.getAcceptAllTrustManager(); });
@@ -160,9 +300,19 @@ public class OkHttp3AutoConfiguration {
 	}
 
 	@Bean
+	@Primary
 	@ConditionalOnMissingBean(OkHttpClient.class)
-	public OkHttpClient okhttp3Client(okhttp3.OkHttpClient.Builder okhttp3Builder) throws Exception {
-		return okhttp3Builder.build();
+	public OkHttpClient okhttp3Client(okhttp3.OkHttpClient.Builder okhttp3Builder,
+			ObjectProvider<OkHttp3ClientCustomizer> customizerProvider) throws Exception {
+		// 定制器只作用于默认客户端，命名客户端由 okhttp3Builder 另行派生
+		okhttp3.OkHttpClient.Builder builder = okhttp3Builder.build().newBuilder();
+		customizerProvider.orderedStream().forEach(customizer -> customizer.customize(OkHttp3ClientCustomizer.DEFAULT_CLIENT_NAME, builder));
+		return builder.build();
+	}
+
+	@Bean
+	public static OkHttp3NamedClientsRegistrar okHttp3NamedClientsRegistrar() {
+		return new OkHttp3NamedClientsRegistrar();
 	}
 
 	@Bean
@@ -171,8 +321,15 @@ public class OkHttp3AutoConfiguration {
 	}
 
 	@Bean
+	@Primary
 	public OkHttp3Template okHttp3Template(ObjectProvider<OkHttpClient> okhttp3ClientProvider,
-										  ObjectProvider<ObjectMapper> objectMapperProvider) {
+										  ObjectProvider<ObjectMapper> objectMapperProvider,
+										  @Qualifier(OkHttp3Template.ASYNC_EXECUTOR_BEAN_NAME) ObjectProvider<Executor> asyncExecutorProvider,
+										  ObjectProvider<OkHttp3Codec> codecProvider,
+										  ObjectProvider<ResponseObjectCache> objectCacheProvider,
+										  ObjectProvider<RequestHedger> hedgerProvider,
+										  ObjectProvider<RetryPolicy> retryPolicyProvider,
+										  OkHttp3CodecProperties codecProperties) {
 
 		OkHttpClient okhttp3Client = okhttp3ClientProvider.getIfAvailable(() -> new OkHttpClient.Builder().build());
 
@@ -187,7 +344,82 @@ public class OkHttp3AutoConfiguration {
 			return objectMapperDef;
 		});
 
-		return new OkHttp3Template(okhttp3Client, objectMapper);
+		OkHttp3Template template = new OkHttp3Template(okhttp3Client, objectMapper);
+		asyncExecutorProvider.ifAvailable(template::setAsyncExecutor);
+		List<OkHttp3Codec> codecs = codecProvider.orderedStream().collect(Collectors.toList());
+		if (!codecs.isEmpty()) {
+			template.setCodecs(codecs, codecProperties.isNegotiate());
+		}
+		if (StringUtils.hasText(codecProperties.getRequestContentType())) {
+			MediaType requestContentType = MediaType.get(codecProperties.getRequestContentType());
+			template.setRequestCodec(codecs.stream().filter(codec -> codec.supports(requestContentType)).findFirst().orElse(null));
+		}
+		template.setObjectCache(objectCacheProvider.getIfAvailable());
+		template.setHedger(hedgerProvider.getIfAvailable());
+		retryPolicyProvider.ifAvailable(retryPolicy -> {
+			if (retryPolicy.isEnabled()) {
+				template.setRetryPolicy(retryPolicy);
+			}
+		});
+		return template;
+	}
+
+	@Configuration
+	@ConditionalOnClass(name = "com.fasterxml.jackson.dataformat.smile.SmileFactory")
+	static class SmileCodecConfiguration {
+
+		@Bean
+		@ConditionalOnMissingBean(name = "smileOkHttp3Codec")
+		public OkHttp3Codec smileOkHttp3Codec() {
+			return new JacksonCodec(OkHttp3AutoConfiguration.binaryObjectMapper(Jackson2ObjectMapperBuilder.smile()), JacksonCodec.APPLICATION_SMILE);
+		}
+
+	}
+
+	@Configuration
+	@ConditionalOnClass(name = "com.fasterxml.jackson.dataformat.cbor.CBORFactory")
+	static class CborCodecConfiguration {
+
+		@Bean
+		@ConditionalOnMissingBean(name = "cborOkHttp3Codec")
+		public OkHttp3Codec cborOkHttp3Codec() {
+			return new JacksonCodec(OkHttp3AutoConfiguration.binaryObjectMapper(Jackson2ObjectMapperBuilder.cbor()), JacksonCodec.APPLICATION_CBOR);
+		}
+
+	}
+
+	@Configuration
+	@ConditionalOnClass(name = ProtobufCodec.MESSAGE_LITE_CLASS)
+	static class ProtobufCodecConfiguration {
+
+		@Bean
+		@ConditionalOnMissingBean(name = "protobufOkHttp3Codec")
+		public OkHttp3Codec protobufOkHttp3Codec() {
+			return new ProtobufCodec();
+		}
+
+	}
+
+	/**
+	 * 二进制格式的 ObjectMapper 与默认 JSON ObjectMapper 使用相同的序列化特性
+	 */
+	static ObjectMapper binaryObjectMapper(Jackson2ObjectMapperBuilder builder) {
+		return builder.serializationInclusion(JsonInclude.Include.NON_NULL)
+				.featuresToEnable(MapperFeature.USE_GETTERS_AS_SETTERS, MapperFeature.ALLOW_FINAL_FIELDS_AS_MUTATORS)
+				.featuresToDisable(SerializationFeature.FAIL_ON_EMPTY_BEANS, DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+				.build();
+	}
+
+	@Configuration
+	@ConditionalOnClass(name = "reactor.core.publisher.Mono")
+	static class ReactiveOkHttp3Configuration {
+
+		@Bean
+		@ConditionalOnMissingBean
+		public ReactiveOkHttp3Template reactiveOkHttp3Template(OkHttp3Template okHttp3Template) {
+			return new ReactiveOkHttp3Template(okHttp3Template);
+		}
+
 	}
 
 }
@@ -0,0 +1,112 @@
+/*
+ * Copyright (c) 2018, hiwepy (https://github.com/hiwepy).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package okhttp3.spring.boot;
+
+import java.io.File;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import com.google.common.collect.Lists;
+
+import lombok.Data;
+
+/**
+ * OkHttp3 响应缓存配置：磁盘缓存（{@link okhttp3.Cache}）及其前置的内存缓存
+ * @author ： <a href="https://github.com/hiwepy">wandl</a>
+ */
+@ConfigurationProperties(OkHttp3CacheProperties.PREFIX)
+@Data
+public class OkHttp3CacheProperties {
+
+	public static final String PREFIX = "okhttp3.cache";
+
+	/** Whether Enable OkHttp3 Disk Cache . */
+	private boolean enabled = false;
+
+	/**
+	 * 磁盘缓存目录，默认：${java.io.tmpdir}/okhttp3-cache
+	 */
+	private String directory = new File(System.getProperty("java.io.tmpdir"), "okhttp3-cache").getPath();
+
+	/**
+	 * 磁盘缓存的最大容量，默认：50MB
+	 */
+	private DataSize maxSize = DataSize.ofMegabytes(50);
+
+	/**
+	 * 内存缓存配置
+	 */
+	private Memory memory = new Memory();
+
+	/**
+	 * 缓存策略规则：匹配的响应在写入磁盘缓存前，Cache-Control 被改写为规则指定的有效期，覆盖上游的缓存声明；按顺序匹配第一条
+	 */
+	private List<CacheRule> rules = new ArrayList<>();
+
+	@Data
+	public static class CacheRule {
+
+		/**
+		 * 主机名，支持 *.example.com 形式的子域名通配；为空时匹配任意主机
+		 */
+		private String host;
+
+		/**
+		 * 请求路径的匹配模式，按 / 分段：* 匹配单个分段，** 匹配任意多个分段，例如：/api/dicts/**
+		 */
+		private String path = "/**";
+
+		/**
+		 * 匹配的请求方法，默认：GET
+		 */
+		private List<String> methods = Lists.newArrayList("GET");
+
+		/**
+		 * 强制的缓存有效期，为 0 时改写为 no-store
+		 */
+		private Duration ttl = Duration.ZERO;
+
+	}
+
+	@Data
+	public static class Memory {
+
+		/** Whether Enable In-Memory Cache in front of the Disk Cache . */
+		private boolean enabled = false;
+
+		/**
+		 * 内存缓存的最大容量，按响应体及响应头的大小计算，默认：16MB
+		 */
+		private DataSize maxSize = DataSize.ofMegabytes(16);
+
+		/**
+		 * 可进入内存缓存的最大响应体，较大的响应只保存在磁盘缓存中，默认：64KB
+		 */
+		private DataSize maxEntrySize = DataSize.ofKilobytes(64);
+
+		/**
+		 * 是否遵循响应的 stale-while-revalidate 及 stale-if-error 指令：在允许的时间窗口内，过期的响应立即返回并在后台刷新，
+		 * 或在上游失败、超时时返回过期的响应；默认：false
+		 */
+		private boolean staleEnabled = false;
+
+	}
+
+}
@@ -0,0 +1,37 @@
+/*
+ * Copyright (c) 2018, hiwepy (https://github.com/hiwepy).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package okhttp3.spring.boot;
+
+import okhttp3.OkHttpClient;
+
+/**
+ * OkHttpClient 定制接口：默认客户端（名称为 {@link #DEFAULT_CLIENT_NAME}）及 okhttp3.clients.&lt;name&gt; 定义的每个命名客户端
+ * 创建前都会调用，可据此为不同客户端添加带有客户端名称的拦截器（例如指标统计）
+ *
+ * @author ： <a href="https://github.com/hiwepy">wandl</a>
+ */
+@FunctionalInterface
+public interface OkHttp3ClientCustomizer {
+
+	String DEFAULT_CLIENT_NAME = "default";
+
+	/**
+	 * @param name 客户端名称
+	 * @param builder 客户端构建器
+	 */
+	void customize(String name, OkHttpClient.Builder builder);
+
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright (c) 2018, hiwepy (https://github.com/hiwepy).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package okhttp3.spring.boot;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+/**
+ * 命名客户端配置：okhttp3.clients.&lt;name&gt;.* 的每一项注册名为 &lt;name&gt;OkHttpClient 的 OkHttpClient 及
+ * 名为 &lt;name&gt;OkHttp3Template 的 OkHttp3Template；命名客户端由默认客户端的构建器派生，未配置的项沿用默认客户端的配置
+ *
+ * @author ： <a href="https://github.com/hiwepy">wandl</a>
+ */
+@ConfigurationProperties(OkHttp3ClientsProperties.PREFIX)
+@Data
+public class OkHttp3ClientsProperties {
+
+	public static final String PREFIX = "okhttp3";
+
+	public static final String CLIENT_BEAN_NAME_SUFFIX = "OkHttpClient";
+
+	public static final String TEMPLATE_BEAN_NAME_SUFFIX = "OkHttp3Template";
+
+	private Map<String, NamedClient> clients = new LinkedHashMap<>();
+
+	@Data
+	public static class NamedClient {
+
+		/**
+		 * OkHttp3Template 的基础地址
+		 */
+		private String baseUrl;
+
+		private Duration connectTimeout;
+
+		private Duration readTimeout;
+
+		private Duration writeTimeout;
+
+		private Duration callTimeout;
+
+		private Boolean followRedirects;
+
+		private Boolean retryOnConnectionFailure;
+
+		/**
+		 * 客户端独立的 Dispatcher 允许的最大并发请求数，未配置时沿用 okhttp3.pool.max-requests；
+		 * Dispatcher 与默认客户端共用线程池，各客户端的并发互不占用
+		 */
+		private Integer maxRequests;
+
+		private Integer maxRequestsPerHost;
+
+		/**
+		 * 是否与默认客户端共用连接池，为 false 时按 maxIdleConnections 及 keepAliveDuration 创建独立的连接池
+		 */
+		private boolean sharedConnectionPool = true;
+
+		private int maxIdleConnections = 5;
+
+		private Duration keepAliveDuration = Duration.ofMinutes(5);
+
+		/**
+		 * 是否保留默认客户端的拦截器（包括日志拦截器）
+		 */
+		private boolean inheritInterceptors = true;
+
+		/**
+		 * 额外添加的应用拦截器的 Bean 名称
+		 */
+		private List<String> interceptors = new ArrayList<>();
+
+		/**
+		 * 额外添加的网络拦截器的 Bean 名称
+		 */
+		private List<String> networkInterceptors = new ArrayList<>();
+
+	}
+
+}
@@ -0,0 +1,399 @@
+/*
+ * Copyright (c) 2018, hiwepy (https://github.com/hiwepy).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package okhttp3.spring.boot;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+
+import lombok.extern.slf4j.Slf4j;
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.HttpUrl;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okio.BufferedSource;
+
+/**
+ * 文件下载器：响应体通过 {@link FileChannel#transferFrom} 直接写入文件，不经过堆内缓冲区；
+ * 服务端支持 Range 请求时，按分段并行下载并写入各自的文件位置，下载进度保存在状态文件中以支持断点续传；
+ * 请求通过 {@link OkHttp3Template#newCall(Request)} 发出，与模板的其他请求一样遵循重试及对冲配置
+ *
+ * @author ： <a href="https://github.com/hiwepy">wandl</a>
+ */
+@Slf4j
+public class OkHttp3Downloader {
+
+	public final static String STATE_FILE_SUFFIX = ".download";
+	private final static long TRANSFER_CHUNK = 1024 * 1024;
+
+	private final OkHttp3Template template;
+
+	public OkHttp3Downloader(OkHttp3Template template) {
+		this.template = template;
+	}
+
+	/**
+	 * 下载文件
+	 *
+	 * @param url 文件地址
+	 * @param headers 请求头，可以为空
+	 * @param target 目标文件
+	 * @param options 下载选项
+	 * @return 下载结果
+	 * @throws IOException 下载失败时抛出，已完成的进度会保存在状态文件中
+	 */
+	public DownloadResult download(HttpUrl url, Map<String, Object> headers, Path target, DownloadOptions options) throws IOException {
+		long startTime = System.nanoTime();
+		Path statePath = target.resolveSibling(target.getFileName() + STATE_FILE_SUFFIX);
+		// 1、探测文件大小及是否支持 Range 请求
+		DownloadState probe = this.probe(url, headers);
+		// 2、加载上次的下载进度，文件已发生变化时重新下载
+		DownloadState state = null;
+		if (options.isResume() && probe.isResumable() && Files.exists(target)) {
+			state = DownloadState.load(statePath);
+			if (Objects.nonNull(state) && !state.matches(probe)) {
+				log.info("OkHttp3 >> Download target changed, restart : {}", url);
+				state = null;
+			}
+		}
+		boolean resumed = Objects.nonNull(state);
+		if (!resumed) {
+			state = probe;
+			state.plan(options.getSegments(), options.getMinSegmentSize().toBytes());
+		}
+		// 3、按分段下载
+		LongAdder transferred = new LongAdder();
+		boolean completed = false;
+		try (RandomAccessFile file = new RandomAccessFile(target.toFile(), "rw"); FileChannel channel = file.getChannel()) {
+			if (!resumed) {
+				channel.truncate(0);
+			}
+			for (boolean restarted = false; ; restarted = true) {
+				// 分段写入的位置可能超出当前文件大小，FileChannel#transferFrom 在此情况下不会写入任何数据，因此需预先分配文件大小
+				if (state.acceptRanges && file.length() != state.contentLength) {
+					file.setLength(state.contentLength);
+				}
+				try {
+					this.transfer(url, headers, channel, state, statePath, options, transferred);
+					break;
+				} catch (ResourceChangedException e) {
+					// 下载过程中文件发生变化，重新探测后从头下载一次
+					if (restarted) {
+						throw e;
+					}
+					log.info("OkHttp3 >> Download target changed during transfer, restart : {}", url);
+					state = this.probe(url, headers);
+					state.plan(options.getSegments(), options.getMinSegmentSize().toBytes());
+					resumed = false;
+					transferred.reset();
+					channel.truncate(0);
+				}
+			}
+			if (state.acceptRanges) {
+				channel.truncate(state.contentLength);
+			}
+			completed = true;
+		} finally {
+			if (completed) {
+				Files.deleteIfExists(statePath);
+			} else if (options.isResume() && state.isResumable()) {
+				state.save(statePath);
+			}
+		}
+		long length = state.acceptRanges ? state.contentLength : Files.size(target);
+		DownloadResult result = new DownloadResult(target, length, transferred.sum(), state.segments.size(), resumed,
+				Duration.ofNanos(System.nanoTime() - startTime));
+		log.info("OkHttp3 >> Download Success : {}", result);
+		return result;
+	}
+
+	protected void transfer(HttpUrl url, Map<String, Object> headers, FileChannel channel, DownloadState state, Path statePath,
+			DownloadOptions options, LongAdder transferred) throws IOException {
+		List<Segment> pending = new ArrayList<>();
+		for (Segment segment : state.segments) {
+			if (!segment.isCompleted()) {
+				pending.add(segment);
+			}
+		}
+		long checkpointSize = options.isResume() && state.isResumable() ? options.getCheckpointSize().toBytes() : Long.MAX_VALUE;
+		// 单个分段在调用线程上同步下载
+		if (pending.size() == 1) {
+			Segment segment = pending.get(0);
+			Response response = template.newCall(this.newRequest(url, headers, state, segment)).execute();
+			this.transfer(response, channel, state, segment, statePath, checkpointSize, transferred);
+			return;
+		}
+		// 多个分段通过 Dispatcher 并行下载，任一分段失败时取消其余分段
+		List<Call> calls = new ArrayList<>(pending.size());
+		List<CompletableFuture<Void>> futures = new ArrayList<>(pending.size());
+		for (Segment segment : pending) {
+			Call call = template.newCall(this.newRequest(url, headers, state, segment));
+			CompletableFuture<Void> future = new CompletableFuture<>();
+			call.enqueue(new Callback() {
+
+				@Override
+				public void onFailure(Call call, IOException e) {
+					future.completeExceptionally(e);
+				}
+
+				@Override
+				public void onResponse(Call call, Response response) {
+					try {
+						transfer(response, channel, state, segment, statePath, checkpointSize, transferred);
+						future.complete(null);
+					} catch (IOException | RuntimeException e) {
+						future.completeExceptionally(e);
+					}
+				}
+
+			});
+			calls.add(call);
+			futures.add(future);
+		}
+		try {
+			CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).get();
+		} catch (InterruptedException e) {
+			calls.forEach(Call::cancel);
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Download interrupted : " + url);
+		} catch (ExecutionException e) {
+			calls.forEach(Call::cancel);
+			// 等待其余分段停止写入，避免与状态保存或重新下载并发写文件
+			for (CompletableFuture<Void> future : futures) {
+				try {
+					future.join();
+				} catch (RuntimeException ignored) {
+					// 已取消的分段
+				}
+			}
+			Throwable cause = e.getCause();
+			throw cause instanceof IOException ? (IOException) cause : new IOException(cause);
+		}
+	}
+
+	protected void transfer(Response response, FileChannel channel, DownloadState state, Segment segment, Path statePath,
+			long checkpointSize, LongAdder transferred) throws IOException {
+		try (ResponseBody body = response.body()) {
+			if (state.acceptRanges ? response.code() != 206 : !response.isSuccessful()) {
+				// If-Range 校验失败时服务端返回完整文件，说明文件已变化，丢弃进度
+				if (state.acceptRanges && response.isSuccessful()) {
+					Files.deleteIfExists(statePath);
+					state.validator = null;
+					throw new ResourceChangedException(response.code(), response.message());
+				}
+				throw new HttpStatusException(response.code(), response.message());
+			}
+			BufferedSource source = body.source();
+			long sinceCheckpoint = 0;
+			while (segment.end < 0 || segment.position <= segment.end) {
+				long count = segment.end < 0 ? TRANSFER_CHUNK : Math.min(TRANSFER_CHUNK, segment.end + 1 - segment.position);
+				long n = channel.transferFrom(source, segment.position, count);
+				if (n <= 0) {
+					if (source.exhausted()) {
+						break;
+					}
+					continue;
+				}
+				segment.position += n;
+				transferred.add(n);
+				sinceCheckpoint += n;
+				if (sinceCheckpoint >= checkpointSize) {
+					state.save(statePath);
+					sinceCheckpoint = 0;
+				}
+			}
+			if (segment.end >= 0 && segment.position <= segment.end) {
+				throw new EOFException("Unexpected end of segment at " + segment.position + ", expected " + (segment.end + 1));
+			}
+			segment.completed = true;
+		}
+	}
+
+	protected Request newRequest(HttpUrl url, Map<String, Object> headers, DownloadState state, Segment segment) {
+		Request.Builder builder = this.newRequestBuilder(url, headers);
+		if (state.acceptRanges) {
+			builder.header("Range", "bytes=" + segment.position + "-" + segment.end);
+			if (Objects.nonNull(state.validator)) {
+				builder.header("If-Range", state.validator);
+			}
+		}
+		return builder.get().build();
+	}
+
+	protected Request.Builder newRequestBuilder(HttpUrl url, Map<String, Object> headers) {
+		Request.Builder builder = new Request.Builder().url(url);
+		if (Objects.nonNull(headers)) {
+			for (Entry<String, Object> entry : headers.entrySet()) {
+				builder.addHeader(entry.getKey(), String.valueOf(entry.getValue()));
+			}
+		}
+		return builder;
+	}
+
+	/**
+	 * 通过 HEAD 请求探测文件大小、是否支持 Range 请求及文件校验值；探测失败时按未知大小单线程下载
+	 */
+	protected DownloadState probe(HttpUrl url, Map<String, Object> headers) {
+		DownloadState state = new DownloadState(url.toString());
+		Request request = this.newRequestBuilder(url, headers).header("Accept-Encoding", "identity").head().build();
+		try (Response response = template.newCall(request).execute()) {
+			if (response.isSuccessful()) {
+				String contentLength = response.header("Content-Length");
+				state.contentLength = Objects.isNull(contentLength) ? -1 : Long.parseLong(contentLength.trim());
+				state.acceptRanges = "bytes".equalsIgnoreCase(response.header("Accept-Ranges")) && state.contentLength > 0;
+				String etag = response.header("ETag");
+				state.validator = Objects.nonNull(etag) && !etag.startsWith("W/") ? etag : response.header("Last-Modified");
+			}
+		} catch (IOException | NumberFormatException e) {
+			log.warn("OkHttp3 >> Download probe failed, fall back to single stream : {}", e.getMessage());
+		}
+		return state;
+	}
+
+	/**
+	 * 下载状态：文件信息及各分段的下载进度
+	 */
+	protected static class DownloadState {
+
+		private final String url;
+		private long contentLength = -1;
+		private boolean acceptRanges;
+		private String validator;
+		private List<Segment> segments = new ArrayList<>();
+
+		DownloadState(String url) {
+			this.url = url;
+		}
+
+		/**
+		 * 只有已知大小、支持 Range 请求且有强校验值的文件才能断点续传
+		 */
+		boolean isResumable() {
+			return acceptRanges && Objects.nonNull(validator);
+		}
+
+		boolean matches(DownloadState probe) {
+			return url.equals(probe.url) && contentLength == probe.contentLength && Objects.equals(validator, probe.validator);
+		}
+
+		void plan(int segmentCount, long minSegmentSize) {
+			segments = new ArrayList<>();
+			if (!acceptRanges) {
+				segments.add(new Segment(0, -1));
+				return;
+			}
+			int count = (int) Math.max(1, Math.min(segmentCount, contentLength / Math.max(minSegmentSize, 1)));
+			long size = contentLength / count;
+			for (int i = 0; i < count; i++) {
+				long start = i * size;
+				long end = i == count - 1 ? contentLength - 1 : start + size - 1;
+				segments.add(new Segment(start, end));
+			}
+		}
+
+		synchronized void save(Path path) throws IOException {
+			Properties properties = new Properties();
+			properties.setProperty("url", url);
+			properties.setProperty("contentLength", String.valueOf(contentLength));
+			properties.setProperty("validator", validator);
+			properties.setProperty("segments", String.valueOf(segments.size()));
+			for (int i = 0; i < segments.size(); i++) {
+				Segment segment = segments.get(i);
+				properties.setProperty("segment." + i, segment.position + "-" + segment.end);
+			}
+			try (OutputStream output = Files.newOutputStream(path)) {
+				properties.store(output, null);
+			}
+		}
+
+		static DownloadState load(Path path) {
+			if (!Files.exists(path)) {
+				return null;
+			}
+			Properties properties = new Properties();
+			try (InputStream input = Files.newInputStream(path)) {
+				properties.load(input);
+				DownloadState state = new DownloadState(properties.getProperty("url"));
+				state.contentLength = Long.parseLong(properties.getProperty("contentLength"));
+				state.acceptRanges = true;
+				state.validator = properties.getProperty("validator");
+				int count = Integer.parseInt(properties.getProperty("segments"));
+				for (int i = 0; i < count; i++) {
+					String[] range = properties.getProperty("segment." + i).split("-");
+					Segment segment = new Segment(Long.parseLong(range[0]), Long.parseLong(range[1]));
+					segment.completed = segment.position > segment.end;
+					state.segments.add(segment);
+				}
+				return state;
+			} catch (IOException | RuntimeException e) {
+				log.warn("OkHttp3 >> Invalid download state file {}, restart : {}", path, e.getMessage());
+				return null;
+			}
+		}
+
+	}
+
+	/**
+	 * 服务端在 If-Range 校验失败时返回了完整文件，说明文件在下载过程中已发生变化
+	 */
+	@SuppressWarnings("serial")
+	protected static class ResourceChangedException extends HttpStatusException {
+
+		ResourceChangedException(int code, String message) {
+			super(code, message);
+		}
+
+	}
+
+	/**
+	 * 下载分段：[position, end]，end 为 -1 时表示读取到响应结束
+	 */
+	protected static class Segment {
+
+		private final long end;
+		private volatile long position;
+		private volatile boolean completed;
+
+		Segment(long start, long end) {
+			this.position = start;
+			this.end = end;
+		}
+
+		boolean isCompleted() {
+			return completed;
+		}
+
+	}
+
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright (c) 2018, hiwepy (https://github.com/hiwepy).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package okhttp3.spring.boot;
+
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import lombok.extern.slf4j.Slf4j;
+import okhttp3.internal.Util;
+
+/**
+ * Dispatcher 及异步结果处理执行器工具类
+ *
+ * @author ： <a href="https://github.com/hiwepy">wandl</a>
+ */
+@Slf4j
+public final class OkHttp3Executors {
+
+	/**
+	 * 未指定执行器的模板共享的异步结果处理线程池，首次使用时创建
+	 */
+	private static final class DefaultAsyncExecutorHolder {
+
+		private static final ThreadPoolExecutor INSTANCE = newAsyncExecutor(OkHttp3PoolProperties.DEFAULT_ASYNC_THREADS,
+				OkHttp3PoolProperties.DEFAULT_ASYNC_QUEUE_CAPACITY, Duration.ofSeconds(60));
+
+	}
+
+	private OkHttp3Executors() {
+	}
+
+	/**
+	 * 创建每个任务一个虚拟线程的执行器，需要 JDK 21+；当前 JDK 不支持时返回空
+	 *
+	 * @return 虚拟线程执行器
+	 */
+	public static Optional<ExecutorService> newVirtualThreadPerTaskExecutor() {
+		try {
+			Method method = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+			return Optional.of((ExecutorService) method.invoke(null));
+		} catch (NoSuchMethodException e) {
+			return Optional.empty();
+		} catch (ReflectiveOperationException | RuntimeException e) {
+			log.warn("OkHttp3 >> Virtual Thread Executor Unavailable : {}", e.getMessage());
+			return Optional.empty();
+		}
+	}
+
+	/**
+	 * 创建固定上限的 Dispatcher 执行器：线程数不超过 maxRequests，空闲线程在 keepAlive 后回收
+	 *
+	 * @param maxThreads 最大线程数
+	 * @param keepAlive 空闲线程存活时间
+	 * @return 线程池
+	 */
+	public static ThreadPoolExecutor newBoundedExecutor(int maxThreads, Duration keepAlive) {
+		ThreadPoolExecutor executor = new ThreadPoolExecutor(maxThreads, maxThreads, keepAlive.toMillis(), TimeUnit.MILLISECONDS,
+				new LinkedBlockingQueue<>(), Util.threadFactory("OkHttp Dispatcher", false));
+		executor.allowCoreThreadTimeOut(true);
+		return executor;
+	}
+
+	/**
+	 * 创建异步结果处理线程池：结果处理会从连接读取响应体，是阻塞操作，因此不能使用 ForkJoinPool.commonPool()；
+	 * 线程数及队列均有上限，队列已满时由提交结果的 Dispatcher 线程直接处理，形成背压
+	 *
+	 * @param maxThreads 最大线程数
+	 * @param queueCapacity 队列容量
+	 * @param keepAlive 空闲线程存活时间
+	 * @return 线程池
+	 */
+	public static ThreadPoolExecutor newAsyncExecutor(int maxThreads, int queueCapacity, Duration keepAlive) {
+		ThreadPoolExecutor executor = new ThreadPoolExecutor(maxThreads, maxThreads, keepAlive.toMillis(), TimeUnit.MILLISECONDS,
+				new LinkedBlockingQueue<>(Math.max(queueCapacity, 1)), Util.threadFactory("OkHttp3 Async", true),
+				new ThreadPoolExecutor.CallerRunsPolicy());
+		executor.allowCoreThreadTimeOut(true);
+		return executor;
+	}
+
+	/**
+	 * @return 未指定执行器的模板默认使用的异步结果处理线程池
+	 */
+	public static Executor defaultAsyncExecutor() {
+		return DefaultAsyncExecutorHolder.INSTANCE;
+	}
+
+}
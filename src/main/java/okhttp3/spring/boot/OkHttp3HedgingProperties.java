@@ -0,0 +1,80 @@
+/*
+ * Copyright (c) 2018, hiwepy (https://github.com/hiwepy).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package okhttp3.spring.boot;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import com.google.common.collect.Lists;
+
+import lombok.Data;
+
+/**
+ * OkHttp3Template 对冲请求配置
+ * @author ： <a href="https://github.com/hiwepy">wandl</a>
+ */
+@ConfigurationProperties(OkHttp3HedgingProperties.PREFIX)
+@Data
+public class OkHttp3HedgingProperties {
+
+	public static final String PREFIX = "okhttp3.hedging";
+
+	/** Whether Enable OkHttp3Template Hedged Requests . */
+	private boolean enabled = false;
+
+	/**
+	 * 允许对冲的请求方法，只应配置幂等的方法
+	 */
+	private List<String> methods = Lists.newArrayList("GET", "HEAD", "OPTIONS");
+
+	/**
+	 * 固定的对冲延迟；为 0 时按路由（host:port）观测到的延迟分位数计算
+	 */
+	private Duration delay = Duration.ZERO;
+
+	/**
+	 * 自适应对冲延迟使用的延迟分位数，默认：95（即 p95）
+	 */
+	private double percentile = 95;
+
+	/**
+	 * 自适应对冲延迟的下限，默认：5ms
+	 */
+	private Duration minDelay = Duration.ofMillis(5);
+
+	/**
+	 * 路由的延迟样本少于该数量时不发起对冲，默认：50
+	 */
+	private int minSamples = 50;
+
+	/**
+	 * 延迟统计的时间窗口，分位数按当前及上一个窗口的样本计算，默认：60s
+	 */
+	private Duration window = Duration.ofSeconds(60);
+
+	/**
+	 * 对冲预算：对冲请求数占请求总数的最大百分比，默认：10
+	 */
+	private double budgetPercent = 10;
+
+	/**
+	 * 对冲预算允许累积的最大对冲请求数，默认：10
+	 */
+	private int budgetBurst = 10;
+
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright (c) 2018, hiwepy (https://github.com/hiwepy).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package okhttp3.spring.boot;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.BeanFactoryAware;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.beans.factory.support.BeanDefinitionRegistry;
+import org.springframework.beans.factory.support.BeanDefinitionRegistryPostProcessor;
+import org.springframework.beans.factory.support.RootBeanDefinition;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.EnvironmentAware;
+import org.springframework.core.env.Environment;
+
+import lombok.extern.slf4j.Slf4j;
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
+import okhttp3.Interceptor;
+import okhttp3.OkHttpClient;
+import okhttp3.spring.boot.OkHttp3ClientsProperties.NamedClient;
+
+/**
+ * 按 okhttp3.clients.&lt;name&gt;.* 注册命名客户端：每个客户端由默认客户端的构建器通过 {@link OkHttpClient#newBuilder()} 派生，
+ * 默认共用连接池与 Dispatcher 线程池，但使用独立的 Dispatcher 限制并发，使慢速下游不会占满其他客户端的并发名额
+ *
+ * @author ： <a href="https://github.com/hiwepy">wandl</a>
+ */
+@Slf4j
+public class OkHttp3NamedClientsRegistrar implements BeanDefinitionRegistryPostProcessor, BeanFactoryAware, EnvironmentAware {
+
+	private BeanFactory beanFactory;
+	private Environment environment;
+
+	@Override
+	public void postProcessBeanDefinitionRegistry(BeanDefinitionRegistry registry) throws BeansException {
+		Map<String, NamedClient> clients = Binder.get(environment).bind(OkHttp3ClientsProperties.PREFIX, OkHttp3ClientsProperties.class)
+				.map(OkHttp3ClientsProperties::getClients).orElse(Collections.emptyMap());
+		for (Map.Entry<String, NamedClient> entry : clients.entrySet()) {
+			String name = entry.getKey();
+			NamedClient client = entry.getValue();
+			String clientBeanName = name + OkHttp3ClientsProperties.CLIENT_BEAN_NAME_SUFFIX;
+			registry.registerBeanDefinition(clientBeanName, new RootBeanDefinition(OkHttpClient.class, () -> this.createClient(name, client)));
+			registry.registerBeanDefinition(name + OkHttp3ClientsProperties.TEMPLATE_BEAN_NAME_SUFFIX, new RootBeanDefinition(OkHttp3Template.class,
+					() -> beanFactory.getBean(OkHttp3Template.class).newTemplate(beanFactory.getBean(clientBeanName, OkHttpClient.class), client.getBaseUrl())));
+			log.info("OkHttp3 >> Register named client : {}", name);
+		}
+	}
+
+	@Override
+	public void postProcessBeanFactory(ConfigurableListableBeanFactory beanFactory) throws BeansException {
+	}
+
+	protected OkHttpClient createClient(String name, NamedClient client) {
+		OkHttpClient base = beanFactory.getBean(OkHttpClient.Builder.class).build();
+		OkHttpClient.Builder builder = base.newBuilder();
+		// 1、独立的 Dispatcher，与默认客户端共用线程池；默认客户端的 Dispatcher 在有界执行器下不限制 maxRequests，
+		// 命名客户端的默认值取自 okhttp3.pool.max-requests
+		Dispatcher dispatcher = new Dispatcher(base.dispatcher().executorService());
+		dispatcher.setMaxRequests(Objects.isNull(client.getMaxRequests()) ? beanFactory.getBean(OkHttp3PoolProperties.class).getMaxRequests() : client.getMaxRequests());
+		dispatcher.setMaxRequestsPerHost(Objects.isNull(client.getMaxRequestsPerHost()) ? base.dispatcher().getMaxRequestsPerHost() : client.getMaxRequestsPerHost());
+		builder.dispatcher(dispatcher);
+		// 2、连接池
+		if (!client.isSharedConnectionPool()) {
+			builder.connectionPool(new ConnectionPool(client.getMaxIdleConnections(), client.getKeepAliveDuration().toMillis(), TimeUnit.MILLISECONDS));
+		}
+		// 3、超时及重定向等配置
+		if (Objects.nonNull(client.getConnectTimeout())) {
+			builder.connectTimeout(client.getConnectTimeout());
+		}
+		if (Objects.nonNull(client.getReadTimeout())) {
+			builder.readTimeout(client.getReadTimeout());
+		}
+		if (Objects.nonNull(client.getWriteTimeout())) {
+			builder.writeTimeout(client.getWriteTimeout());
+		}
+		if (Objects.nonNull(client.getCallTimeout())) {
+			builder.callTimeout(client.getCallTimeout());
+		}
+		if (Objects.nonNull(client.getFollowRedirects())) {
+			builder.followRedirects(client.getFollowRedirects());
+		}
+		if (Objects.nonNull(client.getRetryOnConnectionFailure())) {
+			builder.retryOnConnectionFailure(client.getRetryOnConnectionFailure());
+		}
+		// 4、拦截器
+		if (!client.isInheritInterceptors()) {
+			builder.interceptors().clear();
+			builder.networkInterceptors().clear();
+		}
+		for (String interceptor : client.getInterceptors()) {
+			builder.addInterceptor(beanFactory.getBean(interceptor, Interceptor.class));
+		}
+		for (String interceptor : client.getNetworkInterceptors()) {
+			builder.addNetworkInterceptor(beanFactory.getBean(interceptor, Interceptor.class));
+		}
+		beanFactory.getBeanProvider(OkHttp3ClientCustomizer.class).orderedStream().forEach(customizer -> customizer.customize(name, builder));
+		return builder.build();
+	}
+
+	@Override
+	public void setBeanFactory(BeanFactory beanFactory) throws BeansException {
+		this.beanFactory = beanFactory;
+	}
+
+	@Override
+	public void setEnvironment(Environment environment) {
+		this.environment = environment;
+	}
+
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright (c) 2018, hiwepy (https://github.com/hiwepy).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package okhttp3.spring.boot;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import lombok.Data;
+
+/**
+ * OkHttp3Template 反序列化结果缓存配置
+ * @author ： <a href="https://github.com/hiwepy">wandl</a>
+ */
+@ConfigurationProperties(OkHttp3ObjectCacheProperties.PREFIX)
+@Data
+public class OkHttp3ObjectCacheProperties {
+
+	public static final String PREFIX = "okhttp3.object-cache";
+
+	/** Whether Enable OkHttp3Template Deserialized Object Cache . */
+	private boolean enabled = false;
+
+	/**
+	 * 缓存的最大容量，按缓存对象对应的响应体大小计算，默认：32MB
+	 */
+	private DataSize maxSize = DataSize.ofMegabytes(32);
+
+	/**
+	 * 未匹配任何端点规则时的缓存有效期；为 0 时只使用响应的 Cache-Control/Expires，
+	 * 没有有效期但带有 ETag/Last-Modified 的结果仍会缓存，每次调用发起条件请求，304 时直接返回缓存对象
+	 */
+	private Duration defaultTtl = Duration.ZERO;
+
+	/**
+	 * 按请求路径覆盖缓存有效期的端点规则，按顺序匹配第一条
+	 */
+	private List<EndpointTtl> endpoints = new ArrayList<>();
+
+	@Data
+	public static class EndpointTtl {
+
+		/**
+		 * 请求路径的 Ant 风格匹配模式，例如：/api/dicts/**
+		 */
+		private String pattern;
+
+		/**
+		 * 缓存有效期，为 0 时每次都发起条件请求
+		 */
+		private Duration ttl = Duration.ZERO;
+
+	}
+
+}
@@ -15,6 +15,11 @@ public class OkHttp3PoolProperties {
 
 	public static final String PREFIX = "okhttp3.pool";
 
+	/**
+	 * Bean name of the Dispatcher executor created for the {@code bounded} and {@code virtual} modes.
+	 */
+	public static final String DISPATCHER_EXECUTOR_BEAN_NAME = "okhttp3DispatcherExecutor";
+
 	/**
 	 * Default value for max number od connections.
 	 */
@@ -30,6 +35,16 @@ public class OkHttp3PoolProperties {
 	 */
 	public static final int DEFAULT_MAX_REQUESTS_PER_ROUTE = 5;
 
+	/**
+	 * Default value for the number of threads handling async results.
+	 */
+	public static final int DEFAULT_ASYNC_THREADS = Math.max(4, Runtime.getRuntime().availableProcessors());
+
+	/**
+	 * Default value for the number of async results waiting to be handled.
+	 */
+	public static final int DEFAULT_ASYNC_QUEUE_CAPACITY = 1024;
+
 	/**
 	 * The maximum number of requests to execute concurrently. Above this requests queue in
 	 * memory, waiting for the running calls to complete.
@@ -75,4 +90,65 @@ public class OkHttp3PoolProperties {
 	 */
 	private Duration keepAliveDuration = Duration.ofMinutes(5);
 
+	/**
+	 * Dispatcher 执行器类型：
+	 *
+	 * default：OkHttp 默认的无界缓存线程池；
+	 *
+	 * bounded：线程数不超过 maxRequests 的线程池；
+	 *
+	 * virtual：每个请求一个虚拟线程（需要 JDK 21+，不支持时退化为 bounded），同时模板的异步结果处理也在虚拟线程上执行；
+	 * 同步调用始终在调用方线程上阻塞执行，调用方本身为虚拟线程时即运行在虚拟线程上，不会再额外转交给其他线程
+	 */
+	private ExecutorType executor = ExecutorType.DEFAULT;
+	/**
+	 * bounded 模式下空闲线程的存活时间，默认：60秒
+	 */
+	private Duration threadKeepAlive = Duration.ofSeconds(60);
+	/**
+	 * bounded 模式下允许排队的最大异步请求数，默认：0（不限制，超出 maxRequests 的请求在 Dispatcher 的内存队列中排队）；
+	 * 大于 0 时 Dispatcher 不再限制 maxRequests 及 maxRequestsPerHost（maxRequestsPerHost 配置不再生效，每个主机的并发可由自适应并发限制控制），
+	 * 并发由线程数（maxRequests）控制，超出队列的请求按 rejectionPolicy 处理
+	 */
+	private int maxQueuedCalls = 0;
+	/**
+	 * bounded 模式下队列已满时的处理策略，默认：fail-fast
+	 */
+	private RejectionPolicy rejectionPolicy = RejectionPolicy.FAIL_FAST;
+	/**
+	 * bounded 模式下异步请求允许的最长排队时间，超过后请求直接失败，默认：0（不限制）
+	 */
+	private Duration queueTimeout = Duration.ZERO;
+	/**
+	 * OkHttp3Template 异步结果处理线程池（Bean 名称：okhttp3AsyncExecutor）的最大线程数，virtual 模式下不使用
+	 */
+	private int asyncThreads = DEFAULT_ASYNC_THREADS;
+	/**
+	 * OkHttp3Template 异步结果处理线程池的队列容量，队列已满时由 Dispatcher 线程直接处理，默认：1024
+	 */
+	private int asyncQueueCapacity = DEFAULT_ASYNC_QUEUE_CAPACITY;
+
+	public enum ExecutorType {
+
+		DEFAULT, BOUNDED, VIRTUAL
+
+	}
+
+	public enum RejectionPolicy {
+
+		/**
+		 * 直接拒绝新请求，回调收到失败通知
+		 */
+		FAIL_FAST,
+		/**
+		 * 丢弃排队最久的请求，接收新请求
+		 */
+		DROP_OLDEST,
+		/**
+		 * 在提交请求的线程上直接执行新请求
+		 */
+		CALLER_RUNS
+
+	}
+
 }
@@ -66,9 +66,9 @@ public class OkHttp3Properties {
      */
 	private boolean retryOnConnectionFailure = true;
 
-	private int maxRetry; // 最大重试次数
+	private int maxRetry; // 最大重试次数，已由 okhttp3.retry.max-retries 代替
 
-    private long retryInterval;// 重试的间隔
+    private long retryInterval;// 重试的间隔，已由 okhttp3.retry.initial-backoff 代替
 
 	/**
      * Sets the default timeout for complete calls. A value of 0 means no timeout, otherwise values
@@ -0,0 +1,37 @@
+/*
+ * Copyright (c) 2018, hiwepy (https://github.com/hiwepy).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package okhttp3.spring.boot;
+
+import java.util.Map;
+
+/**
+ * 运行时统计信息，实现该接口的 Bean 会由 okhttp3 Actuator 端点统一输出
+ *
+ * @author ： <a href="https://github.com/hiwepy">wandl</a>
+ */
+public interface OkHttp3Statistics {
+
+	/**
+	 * @return 统计项名称，作为端点输出中的键
+	 */
+	String getStatisticsName();
+
+	/**
+	 * @return 当前的统计数据
+	 */
+	Map<String, Object> getStatistics();
+
+}
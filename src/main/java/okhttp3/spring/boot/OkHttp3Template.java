@@ -15,23 +15,58 @@
  */
 package okhttp3.spring.boot;
 
+import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Type;
+import java.net.URLConnection;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.*;
 import java.util.Map.Entry;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.BiFunction;
 import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.function.Supplier;
 
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
 import lombok.extern.slf4j.Slf4j;
 import okhttp3.*;
+import okhttp3.internal.Util;
+import okhttp3.spring.boot.cache.ResponseObjectCache;
+import okhttp3.spring.boot.codec.OkHttp3Codec;
+import okhttp3.spring.boot.ext.RetryPolicy;
+import okio.Buffer;
+import okio.ForwardingSource;
+import okio.Okio;
+import okio.Source;
+import org.springframework.beans.BeanInstantiationException;
 import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.InitializingBean;
 import org.springframework.util.CollectionUtils;
 import org.springframework.util.StringUtils;
 
+import com.fasterxml.jackson.databind.JavaType;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
 
 /**
  * OkHttp3 常规请求模板
@@ -41,16 +76,50 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 @Slf4j
 public class OkHttp3Template implements InitializingBean {
 
+	/**
+	 * 异步请求结果处理线程池的 Bean 名称
+	 */
+	public final static String ASYNC_EXECUTOR_BEAN_NAME = "okhttp3AsyncExecutor";
+
 	public final static String APPLICATION_JSON_VALUE = "application/json";
 	public final static String APPLICATION_JSON_UTF8_VALUE = "application/json;charset=UTF-8";
 	public final static MediaType APPLICATION_JSON = MediaType.parse(APPLICATION_JSON_VALUE);
 	public final static MediaType APPLICATION_JSON_UTF8 = MediaType.parse(APPLICATION_JSON_UTF8_VALUE);
+	public final static MediaType APPLICATION_OCTET_STREAM = MediaType.parse("application/octet-stream");
 
 	public static int TRY_MAX = 5;
 
 	protected OkHttpClient okhttp3Client;
 	protected ObjectMapper objectMapper;
 	protected String baseUrl;
+	protected final ConcurrentMap<Type, ObjectReader> readers = new ConcurrentHashMap<>();
+	protected final ConcurrentMap<Class<?>, ObjectWriter> writers = new ConcurrentHashMap<>();
+	protected final ConcurrentMap<String, CompiledEndpoint> endpoints = new ConcurrentHashMap<>();
+	/**
+	 * 异步请求结果的处理线程池，结果处理会阻塞读取响应体，默认：{@link OkHttp3Executors#defaultAsyncExecutor()}
+	 */
+	protected Executor asyncExecutor = OkHttp3Executors.defaultAsyncExecutor();
+	/**
+	 * 除 JSON 外的编解码器，按优先级排序；响应按 Content-Type 选择解码器，未匹配时使用 JSON
+	 */
+	protected List<OkHttp3Codec> codecs = Collections.emptyList();
+	/**
+	 * 请求体编码器，为空时使用 JSON
+	 */
+	protected OkHttp3Codec requestCodec;
+	/**
+	 * 根据编解码器预先生成的 Accept 请求头，为空时不添加
+	 */
+	protected String acceptHeader;
+	/**
+	 * 反序列化结果缓存，为空时不缓存
+	 */
+	protected ResponseObjectCache objectCache;
+	/**
+	 * 对冲请求，为空时不对冲
+	 */
+	protected RequestHedger hedger;
+	protected RetryPolicy retryPolicy;
 
 	public OkHttp3Template() {
 	}
@@ -66,6 +135,25 @@ public class OkHttp3Template implements InitializingBean {
 		this.baseUrl = baseUrl;
 	}
 
+	/**
+	 * 创建使用另一个客户端的模板，对象映射、编解码器、反序列化结果缓存、对冲及重试配置与当前模板相同
+	 *
+	 * @param client 客户端
+	 * @param baseUrl 基础地址
+	 * @return 新的模板
+	 */
+	public OkHttp3Template newTemplate(OkHttpClient client, String baseUrl) {
+		OkHttp3Template template = new OkHttp3Template(client, objectMapper, baseUrl);
+		template.asyncExecutor = asyncExecutor;
+		template.codecs = codecs;
+		template.requestCodec = requestCodec;
+		template.acceptHeader = acceptHeader;
+		template.objectCache = objectCache;
+		template.hedger = hedger;
+		template.retryPolicy = retryPolicy;
+		return template;
+	}
+
 	@Override
 	public void afterPropertiesSet() throws Exception {
 		// 请求编码，默认：UTF-8
@@ -100,7 +188,7 @@ public class OkHttp3Template implements InitializingBean {
 		return this.doRequest(url, HttpMethod.POST, headers, params, null, rtClass);
 	}
 
-	public <T> T post(String url, Map<String, Object> headers, Map<String, Object> params, Map<String, Object> bodyContent, Class<T> rtClass) throws IOException {
+	public <T> T post(String url, Map<String, Object> headers, Map<String, Object> params, Object bodyContent, Class<T> rtClass) throws IOException {
 		return this.doRequest(url, HttpMethod.POST, headers, params, bodyContent, rtClass);
 	}
 
@@ -116,12 +204,103 @@ public class OkHttp3Template implements InitializingBean {
 		return this.doRequest(url, HttpMethod.GET, headers, params, null, rtClass);
 	}
 
+	public <T> T post(String url, TypeReference<T> typeRef) throws IOException {
+		return this.doRequest(url, HttpMethod.POST, null, null, null, typeRef);
+	}
+
+	public <T> T post(String url, Map<String, Object> params, TypeReference<T> typeRef) throws IOException {
+		return this.doRequest(url, HttpMethod.POST, null, params, null, typeRef);
+	}
+
+	public <T> T post(String url, Map<String, Object> headers, Map<String, Object> params, Object bodyContent, TypeReference<T> typeRef) throws IOException {
+		return this.doRequest(url, HttpMethod.POST, headers, params, bodyContent, typeRef);
+	}
+
+	public <T> T get(String url, TypeReference<T> typeRef) throws IOException {
+		return this.doRequest(url, HttpMethod.GET, null, null, null, typeRef);
+	}
+
+	public <T> T get(String url, Map<String, Object> params, TypeReference<T> typeRef) throws IOException {
+		return this.doRequest(url, HttpMethod.GET, null, params, null, typeRef);
+	}
+
+	public <T> T get(String url, Map<String, Object> headers, Map<String, Object> params, TypeReference<T> typeRef) throws IOException {
+		return this.doRequest(url, HttpMethod.GET, headers, params, null, typeRef);
+	}
+
+	public <T> T postForm(String url, Map<String, Object> formParams, Class<T> rtClass) throws IOException {
+		return this.postForm(url, null, formParams, rtClass);
+	}
+
+	/**
+	 * 提交 application/x-www-form-urlencoded 表单
+	 */
+	public <T> T postForm(String url, Map<String, Object> headers, Map<String, Object> formParams, Class<T> rtClass) throws IOException {
+		return this.doRequest(url, HttpMethod.POST, headers, null, this.createFormBody(formParams), rtClass);
+	}
+
+	public <T> T postMultipart(String url, Map<String, Object> parts, Class<T> rtClass) throws IOException {
+		return this.postMultipart(url, null, parts, null, rtClass);
+	}
+
+	/**
+	 * 提交 multipart/form-data 表单，文件及输入流按分段流式写入，不会预先读入内存
+	 *
+	 * @param url 请求地址
+	 * @param headers 请求头
+	 * @param parts 表单项，取值规则见 {@link #createMultipartBody(Map)}
+	 * @param listener 上传进度监听器，可以为空
+	 * @param rtClass 返回值类型
+	 * @return 响应结果
+	 * @throws IOException 请求失败时抛出
+	 */
+	public <T> T postMultipart(String url, Map<String, Object> headers, Map<String, Object> parts,
+			ProgressRequestBody.ProgressListener listener, Class<T> rtClass) throws IOException {
+		RequestBody body = this.createMultipartBody(parts);
+		return this.doRequest(url, HttpMethod.POST, headers, null, Objects.isNull(listener) ? body : new ProgressRequestBody(body, listener), rtClass);
+	}
+
 	public <T> T doRequest(
 			String url,
 			HttpMethod method,
 			Map<String, Object> headers,
 			Map<String, Object> queryParams,
-			Map<String, Object> bodyContent,
+			Object bodyContent,
+			TypeReference<T> typeRef) throws IOException {
+		return this.doRequest(url, method, headers, queryParams, bodyContent, this.constructType(typeRef));
+	}
+
+	public <T> T doRequest(
+			String url,
+			HttpMethod method,
+			Map<String, Object> headers,
+			Map<String, Object> queryParams,
+			Object bodyContent,
+			JavaType rtType) throws IOException {
+		long startTime = System.currentTimeMillis();
+		// 1.创建Request对象，设置一个url地址,设置请求方式。
+		HttpUrl httpUrl = this.getHttpUrl(this.joinPath(url), queryParams);
+		return this.doRequest(startTime, httpUrl, method, headers, bodyContent, rtType);
+	}
+
+	public <T> T doRequest(
+			long startTime,
+			HttpUrl httpUrl,
+			HttpMethod method,
+			Map<String, Object> headers,
+			Object bodyContent,
+			JavaType rtType) throws IOException {
+		// 2.创建一个call对象,参数就是Request请求对象
+		Request request = this.createRequestBuilder(httpUrl, method, headers, bodyContent).build();
+		return this.executeForValue(startTime, request, rtType);
+	}
+
+	public <T> T doRequest(
+			String url,
+			HttpMethod method,
+			Map<String, Object> headers,
+			Map<String, Object> queryParams,
+			Object bodyContent,
 			Class<T> rtClass) throws IOException {
 		long startTime = System.currentTimeMillis();
 		// 1.创建Request对象，设置一个url地址,设置请求方式。
@@ -134,26 +313,11 @@ public class OkHttp3Template implements InitializingBean {
 			HttpUrl httpUrl,
 			HttpMethod method,
 			Map<String, Object> headers,
-			Map<String, Object> bodyContent,
+			Object bodyContent,
 			Class<T> rtClass) throws IOException {
 		// 2.创建一个call对象,参数就是Request请求对象
-		Response response = this.doRequest(startTime, httpUrl, method, headers, bodyContent);
-		if(rtClass.equals(Void.TYPE)){
-			return null;
-		}
-		T res = null;
-		try {
-			if (response.isSuccessful()) {
-				String body = response.body().string();
-				res = this.readValue(body, rtClass);
-			} else {
-				res = BeanUtils.instantiateClass(rtClass);
-			}
-		} catch (Exception e) {
-			log.error("OkHttp3 >> Async Request Error : {}, use time : {}", e.getMessage(), System.currentTimeMillis() - startTime);
-			res = BeanUtils.instantiateClass(rtClass);
-		}
-		return res;
+		Request request = this.createRequestBuilder(httpUrl, method, headers, bodyContent).build();
+		return this.executeForValue(startTime, request, rtClass);
 	}
 
 	public Response doRequest(
@@ -182,7 +346,7 @@ public class OkHttp3Template implements InitializingBean {
 			HttpMethod method,
 			Map<String, Object> headers,
 			Map<String, Object> queryParams,
-			Map<String, Object> bodyContent) throws IOException {
+			Object bodyContent) throws IOException {
 		long startTime = System.currentTimeMillis();
 		return this.doRequest(startTime, url, method, headers, queryParams, bodyContent);
 	}
@@ -193,7 +357,7 @@ public class OkHttp3Template implements InitializingBean {
 			HttpMethod method,
 			Map<String, Object> headers,
 			Map<String, Object> queryParams,
-			Map<String, Object> bodyContent) throws IOException {
+			Object bodyContent) throws IOException {
 		// 1.创建Request对象，设置一个url地址,设置请求方式。
 		HttpUrl httpUrl = this.getHttpUrl(this.joinPath(url), queryParams);
 		return this.doRequest(startTime, httpUrl, method, headers, bodyContent);
@@ -204,13 +368,41 @@ public class OkHttp3Template implements InitializingBean {
 			HttpUrl httpUrl,
 			HttpMethod method,
 			Map<String, Object> headers,
-			Map<String, Object> bodyContent) throws IOException {
+			Object bodyContent) throws IOException {
 		// 1、创建Request.Builder对象
 		Request.Builder builder = this.createRequestBuilder(httpUrl, method, headers, bodyContent);
 		// 2.创建一个call对象, 参数就是Request请求对象
+		return this.execute(startTime, builder.build());
+	}
+
+	/**
+	 * 创建请求调用：开启了对冲请求时，可对冲的请求返回对冲调用；开启了重试时，返回的调用按重试策略重试，
+	 * 异步调用的重试由定时器调度，不占用 Dispatcher 线程
+	 *
+	 * @param request 请求对象
+	 * @return 请求调用
+	 */
+	public Call newCall(Request request) {
+		RequestHedger hedger = this.hedger;
+		Call.Factory factory = Objects.isNull(hedger) ? okhttp3Client : req -> hedger.newCall(okhttp3Client, req);
+		RetryPolicy retryPolicy = this.retryPolicy;
+		return Objects.isNull(retryPolicy) ? factory.newCall(request) : retryPolicy.newCall(factory, request);
+	}
+
+	/**
+	 * 同步执行已构建好的请求，请求异常时返回 null
+	 * <p>
+	 * 请求在调用方线程上阻塞执行；virtual 模式下若调用方为虚拟线程，阻塞期间只挂起虚拟线程而不占用载体线程，
+	 * 因此这里不再把请求转交给其他执行器，以免调用方线程在等待结果时被白白占用。
+	 *
+	 * @param startTime 请求开始时间
+	 * @param request 请求对象
+	 * @return 响应对象
+	 */
+	public Response execute(long startTime, Request request) {
 		try {
-			Response response = okhttp3Client.newCall(builder.build()).execute();
-			if (response.isSuccessful()) {
+			Response response = this.newCall(request).execute();
+			if (response.isSuccessful() || response.code() == 304) {
 				log.info("OkHttp3 >> Request Success : code : {}, use time : {} ", response.code(), System.currentTimeMillis() - startTime);
 			} else {
 				log.error("OkHttp3 >> Request Failure : code : {}, message : {}, use time : {} ", response.code(), response.message(), System.currentTimeMillis() - startTime);
@@ -222,6 +414,58 @@ public class OkHttp3Template implements InitializingBean {
 		return null;
 	}
 
+	/**
+	 * 同步执行请求并将响应转换为指定类型的对象；开启了反序列化结果缓存时，GET 请求优先使用缓存对象
+	 *
+	 * @param startTime 请求开始时间
+	 * @param request 请求对象
+	 * @param rtClass 返回值类型
+	 * @return 转换后的对象
+	 */
+	public <T> T executeForValue(long startTime, Request request, Class<T> rtClass) {
+		return this.executeForValue(startTime, request, rtClass, () -> BeanUtils.instantiateClass(rtClass));
+	}
+
+	public <T> T executeForValue(long startTime, Request request, JavaType rtType) {
+		return this.executeForValue(startTime, request, rtType, () -> this.instantiate(rtType));
+	}
+
+	@SuppressWarnings("unchecked")
+	private <T> T executeForValue(long startTime, Request request, Type rtType, Supplier<T> fallback) {
+		ResponseObjectCache cache = this.objectCache;
+		if (Objects.isNull(cache) || !cache.isCacheable(request) || this.isVoid(rtType)) {
+			return this.readValue(startTime, this.execute(startTime, request), rtType, fallback);
+		}
+		// 1、有效期内直接返回缓存对象，过期时发起条件请求
+		ResponseObjectCache.Key key = cache.key(request.url(), this.getJavaType(rtType));
+		ResponseObjectCache.CachedObject cached = cache.get(key);
+		if (Objects.nonNull(cached) && cached.isFresh(System.currentTimeMillis())) {
+			return (T) cache.hit(cached);
+		}
+		Response response = this.execute(startTime, Objects.isNull(cached) ? request : cache.conditional(request, cached));
+		if (Objects.isNull(response)) {
+			return fallback.get();
+		}
+		// 2、304 时续期并返回缓存对象
+		if (Objects.nonNull(cached) && response.code() == 304) {
+			response.close();
+			return (T) cache.revalidated(key, cached, response);
+		}
+		if (!response.isSuccessful() || Objects.isNull(response.body())) {
+			return this.readValue(startTime, response, rtType, fallback);
+		}
+		// 3、读取并缓存新的结果，按读取的字节数计算缓存占用
+		try (ResponseBody body = response.body()) {
+			CountingSource source = new CountingSource(body.source());
+			T value = this.readValue(ResponseBody.create(body.contentType(), -1, Okio.buffer(source)), this.getObjectReader(rtType));
+			cache.put(key, response, value, source.bytesRead);
+			return value;
+		} catch (Exception e) {
+			log.error("OkHttp3 >> Response Read Error : {}, use time : {}", e.getMessage(), System.currentTimeMillis() - startTime);
+		}
+		return fallback.get();
+	}
+
 	public <T> void doAsyncRequest(
 			String url,
 			HttpMethod method,
@@ -265,7 +509,7 @@ public class OkHttp3Template implements InitializingBean {
 			HttpMethod method,
 			Map<String, Object> headers,
 			Map<String, Object> queryParams,
-			Map<String, Object> bodyContent,
+			Object bodyContent,
 			Consumer<T> success,
 			BiFunction<Call, IOException, Boolean> failure,
 			Class<T> rtClass) throws IOException {
@@ -280,28 +524,16 @@ public class OkHttp3Template implements InitializingBean {
 			HttpUrl httpUrl,
 			HttpMethod method,
 			Map<String, Object> headers,
-			Map<String, Object> bodyContent,
+			Object bodyContent,
 			Consumer<T> success,
 			BiFunction<Call, IOException, Boolean> failure,
 			Class<T> rtClass) throws IOException {
 		// 2.创建一个call对象,参数就是Request请求对象
 		this.doAsyncRequest(startTime, httpUrl, method, headers, bodyContent, (call, response) -> {
-			if(rtClass.equals(Void.TYPE)){
-				return Void.TYPE;
+			T res = this.readValue(startTime, response, rtClass);
+			if (Objects.nonNull(success)) {
+				success.accept(res);
 			}
-			T res = null;
-			try {
-				if (response.isSuccessful()) {
-					String body = response.body().string();
-					res = this.readValue(body, rtClass);
-				} else {
-					res = BeanUtils.instantiateClass(rtClass);
-				}
-			} catch (Exception e) {
-				log.error("OkHttp3 >> Async Request Error : {}, use time : {}", e.getMessage(), System.currentTimeMillis() - startTime);
-				res = BeanUtils.instantiateClass(rtClass);
-			}
-			success.accept(res);
 			return res;
 		}, failure);
 	}
@@ -312,7 +544,7 @@ public class OkHttp3Template implements InitializingBean {
 			HttpMethod method,
 			Map<String, Object> headers,
 			Map<String, Object> queryParams,
-			Map<String, Object> bodyContent,
+			Object bodyContent,
 			BiFunction<Call, Response, T> success,
 			BiFunction<Call, IOException, Boolean> failure) throws IOException {
 		// 1.创建Request对象，设置一个url地址,设置请求方式。
@@ -325,13 +557,13 @@ public class OkHttp3Template implements InitializingBean {
 			HttpUrl httpUrl,
 			HttpMethod method,
 			Map<String, Object> headers,
-			Map<String, Object> bodyContent,
+			Object bodyContent,
 			BiFunction<Call, Response, T> success,
 			BiFunction<Call, IOException, Boolean> failure) throws IOException {
 		// 1、创建Request.Builder对象
 		Request.Builder builder = this.createRequestBuilder(httpUrl, method, headers, bodyContent);
 		// 2.创建一个call对象,参数就是Request请求对象
-		okhttp3Client.newCall(builder.build()).enqueue(new Callback() {
+		this.newCall(builder.build()).enqueue(new Callback() {
 
 			@Override
 			public void onFailure(Call call, IOException e) {
@@ -356,6 +588,337 @@ public class OkHttp3Template implements InitializingBean {
 		});
 	}
 
+	public <T> CompletableFuture<T> getAsync(String url, Class<T> rtClass) {
+		return this.doRequestAsync(url, HttpMethod.GET, null, null, null, rtClass);
+	}
+
+	public <T> CompletableFuture<T> getAsync(String url, Map<String, Object> params, Class<T> rtClass) {
+		return this.doRequestAsync(url, HttpMethod.GET, null, params, null, rtClass);
+	}
+
+	public <T> CompletableFuture<T> getAsync(String url, Map<String, Object> headers, Map<String, Object> params, Class<T> rtClass) {
+		return this.doRequestAsync(url, HttpMethod.GET, headers, params, null, rtClass);
+	}
+
+	public <T> CompletableFuture<T> postAsync(String url, Object bodyContent, Class<T> rtClass) {
+		return this.doRequestAsync(url, HttpMethod.POST, null, null, bodyContent, rtClass);
+	}
+
+	public <T> CompletableFuture<T> postAsync(String url, Map<String, Object> headers, Map<String, Object> params, Object bodyContent, Class<T> rtClass) {
+		return this.doRequestAsync(url, HttpMethod.POST, headers, params, bodyContent, rtClass);
+	}
+
+	public <T> CompletableFuture<T> doRequestAsync(
+			String url,
+			HttpMethod method,
+			Map<String, Object> headers,
+			Map<String, Object> queryParams,
+			Object bodyContent,
+			Class<T> rtClass) {
+		long startTime = System.currentTimeMillis();
+		// 1.创建Request对象，设置一个url地址,设置请求方式。
+		HttpUrl httpUrl = this.getHttpUrl(this.joinPath(url), queryParams);
+		return this.doRequestAsync(startTime, httpUrl, method, headers, bodyContent, rtClass);
+	}
+
+	/**
+	 * 异步请求并将响应转换为指定类型的对象；响应的反序列化在 {@link #getAsyncExecutor()} 上执行，不占用 Dispatcher 线程；
+	 * 取消返回的 Future 会同时取消对应的 OkHttp {@link Call}
+	 */
+	public <T> CompletableFuture<T> doRequestAsync(
+			long startTime,
+			HttpUrl httpUrl,
+			HttpMethod method,
+			Map<String, Object> headers,
+			Object bodyContent,
+			Class<T> rtClass) {
+		try {
+			Request request = this.createRequestBuilder(httpUrl, method, headers, bodyContent).build();
+			return this.enqueue(startTime, request, response -> this.readValue(startTime, response, rtClass));
+		} catch (IOException e) {
+			return this.failedFuture(e);
+		}
+	}
+
+	public <T> CompletableFuture<T> getAsync(String url, Map<String, Object> params, TypeReference<T> typeRef) {
+		return this.doRequestAsync(url, HttpMethod.GET, null, params, null, typeRef);
+	}
+
+	public <T> CompletableFuture<T> postAsync(String url, Object bodyContent, TypeReference<T> typeRef) {
+		return this.doRequestAsync(url, HttpMethod.POST, null, null, bodyContent, typeRef);
+	}
+
+	public <T> CompletableFuture<T> doRequestAsync(
+			String url,
+			HttpMethod method,
+			Map<String, Object> headers,
+			Map<String, Object> queryParams,
+			Object bodyContent,
+			TypeReference<T> typeRef) {
+		long startTime = System.currentTimeMillis();
+		HttpUrl httpUrl = this.getHttpUrl(this.joinPath(url), queryParams);
+		return this.doRequestAsync(startTime, httpUrl, method, headers, bodyContent, this.constructType(typeRef));
+	}
+
+	public <T> CompletableFuture<T> doRequestAsync(
+			long startTime,
+			HttpUrl httpUrl,
+			HttpMethod method,
+			Map<String, Object> headers,
+			Object bodyContent,
+			JavaType rtType) {
+		try {
+			Request request = this.createRequestBuilder(httpUrl, method, headers, bodyContent).build();
+			return this.enqueue(startTime, request, response -> this.readValue(startTime, response, rtType));
+		} catch (IOException e) {
+			return this.failedFuture(e);
+		}
+	}
+
+	/**
+	 * 异步请求并返回原始的响应对象，调用方负责关闭响应；
+	 * 取消返回的 Future 会同时取消对应的 OkHttp {@link Call}
+	 */
+	public CompletableFuture<Response> doRequestAsync(
+			long startTime,
+			HttpUrl httpUrl,
+			HttpMethod method,
+			Map<String, Object> headers,
+			Object bodyContent) {
+		try {
+			Request request = this.createRequestBuilder(httpUrl, method, headers, bodyContent).build();
+			return this.enqueue(startTime, request, Function.identity());
+		} catch (IOException e) {
+			return this.failedFuture(e);
+		}
+	}
+
+	/**
+	 * 通过 {@link Call#enqueue(Callback)} 发起异步请求，响应在 {@link #getAsyncExecutor()} 上交给 handler 处理；
+	 * 若 handler 不是原样返回响应对象，处理结束后会关闭响应
+	 *
+	 * @param startTime 请求开始时间
+	 * @param request 请求对象
+	 * @param handler 响应处理函数
+	 * @return 异步结果
+	 */
+	protected <T> CompletableFuture<T> enqueue(long startTime, Request request, Function<Response, T> handler) {
+		Call call = this.newCall(request);
+		CompletableFuture<T> future = new CompletableFuture<>();
+		future.whenComplete((res, ex) -> {
+			if (future.isCancelled()) {
+				call.cancel();
+			}
+		});
+		call.enqueue(new Callback() {
+
+			@Override
+			public void onFailure(Call call, IOException e) {
+				log.error("OkHttp3 >> Async Request Failure : {}, use time : {} ", e.getMessage(), System.currentTimeMillis() - startTime);
+				future.completeExceptionally(e);
+			}
+
+			@Override
+			public void onResponse(Call call, Response response) {
+				if (response.isSuccessful()) {
+					log.info("OkHttp3 >> Async Request Success : code : {}, use time : {} ", response.code(), System.currentTimeMillis() - startTime);
+				} else {
+					log.error("OkHttp3 >> Async Request Failure : code : {}, message : {}, use time : {} ", response.code(), response.message(), System.currentTimeMillis() - startTime);
+				}
+				try {
+					asyncExecutor.execute(() -> complete(future, response, handler));
+				} catch (RejectedExecutionException e) {
+					response.close();
+					future.completeExceptionally(e);
+				}
+			}
+
+		});
+		return future;
+	}
+
+	private <T> void complete(CompletableFuture<T> future, Response response, Function<Response, T> handler) {
+		if (future.isDone()) {
+			response.close();
+			return;
+		}
+		try {
+			T res = handler.apply(response);
+			if (res != response) {
+				response.close();
+			}
+			if (!future.complete(res) && res == response) {
+				response.close();
+			}
+		} catch (Throwable e) {
+			response.close();
+			future.completeExceptionally(e instanceof UncheckedIOException ? e.getCause() : e);
+		}
+	}
+
+	public <T> List<BatchResult<T>> batch(List<BatchRequest<T>> requests, int maxConcurrency, Duration timeout) {
+		return this.batch(requests, maxConcurrency, timeout, BatchResult.Mode.COLLECT_ALL);
+	}
+
+	/**
+	 * 并发执行一批请求，结果按请求顺序返回，每个结果单独记录成功或失败（非 2xx 响应记为 {@link HttpStatusException}）；
+	 * 同时在途的请求数不超过 maxConcurrency 与 Dispatcher 的 maxRequests，单个主机不超过 maxRequestsPerHost，
+	 * 因此不会把多余的请求堆积到 Dispatcher 的等待队列中；超过 timeout 仍未完成的请求会被取消并记为 {@link TimeoutException}；
+	 * 地址无效的请求单独记为 {@link IllegalArgumentException}，不影响同批次的其他请求
+	 *
+	 * @param requests 请求列表
+	 * @param maxConcurrency 本批次最大并发数
+	 * @param timeout 整批请求的截止时间
+	 * @param mode 执行模式
+	 * @return 与请求顺序一致的结果列表
+	 */
+	public <T> List<BatchResult<T>> batch(List<BatchRequest<T>> requests, int maxConcurrency, Duration timeout, BatchResult.Mode mode) {
+		int size = requests.size();
+		Dispatcher dispatcher = okhttp3Client.dispatcher();
+		int concurrency = Math.max(1, Math.min(maxConcurrency, dispatcher.getMaxRequests()));
+		int concurrencyPerHost = Math.max(1, Math.min(concurrency, dispatcher.getMaxRequestsPerHost()));
+		Semaphore permits = new Semaphore(concurrency);
+		Map<String, Semaphore> hostPermits = new HashMap<>();
+		AtomicBoolean failed = new AtomicBoolean(false);
+		List<CompletableFuture<T>> futures = new ArrayList<>(Collections.nCopies(size, null));
+		long deadline = System.nanoTime() + timeout.toNanos();
+		try {
+			// 1、按顺序提交请求，并发数达到上限时在调用线程上等待
+			for (int i = 0; i < size && !(BatchResult.Mode.FAIL_FAST.equals(mode) && failed.get()); i++) {
+				BatchRequest<T> request = requests.get(i);
+				long startTime = System.currentTimeMillis();
+				HttpUrl httpUrl;
+				try {
+					httpUrl = this.getHttpUrl(this.joinPath(request.getUrl()), request.getQueryParams());
+				} catch (RuntimeException e) {
+					// 地址无效只影响当前请求，不中断整个批次
+					futures.set(i, this.failedFuture(new IllegalArgumentException("Invalid url : " + request.getUrl(), e)));
+					failed.set(true);
+					continue;
+				}
+				Semaphore hostPermit = hostPermits.computeIfAbsent(httpUrl.host(), host -> new Semaphore(concurrencyPerHost));
+				if (!permits.tryAcquire(deadline - System.nanoTime(), TimeUnit.NANOSECONDS)) {
+					break;
+				}
+				if (!hostPermit.tryAcquire(deadline - System.nanoTime(), TimeUnit.NANOSECONDS)) {
+					permits.release();
+					break;
+				}
+				CompletableFuture<T> future;
+				try {
+					Request okRequest = this.createRequestBuilder(httpUrl, request.getMethod(), request.getHeaders(), request.getBodyContent()).build();
+					ObjectReader reader = this.getObjectReader(request.getResponseType());
+					future = this.enqueue(startTime, okRequest, response -> this.readValueOrThrow(response, reader));
+				} catch (IOException e) {
+					future = this.failedFuture(e);
+				}
+				future.whenComplete((res, ex) -> {
+					hostPermit.release();
+					permits.release();
+					// 截止时间到达后的取消不算作请求失败
+					if (Objects.nonNull(ex) && !(ex instanceof CancellationException)) {
+						failed.set(true);
+					}
+				});
+				futures.set(i, future);
+			}
+			// 2、在截止时间内等待全部结果
+			for (CompletableFuture<T> future : futures) {
+				if (Objects.isNull(future)) {
+					continue;
+				}
+				if (BatchResult.Mode.FAIL_FAST.equals(mode) && failed.get()) {
+					break;
+				}
+				try {
+					future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+				} catch (ExecutionException | CancellationException e) {
+					// 失败结果在下方统一收集
+				} catch (TimeoutException e) {
+					break;
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		// 3、取消未完成的请求并按顺序收集结果；是否因失败而中止以取消前的状态为准
+		boolean aborted = BatchResult.Mode.FAIL_FAST.equals(mode) && failed.get();
+		List<BatchResult<T>> results = new ArrayList<>(size);
+		for (int i = 0; i < size; i++) {
+			CompletableFuture<T> future = futures.get(i);
+			BatchRequest<T> request = requests.get(i);
+			if (Objects.isNull(future)) {
+				Throwable error = aborted
+						? new CancellationException("Batch aborted by a previous failure")
+						: new TimeoutException("Batch deadline exceeded before the request was sent");
+				results.add(new BatchResult<>(i, request, null, error));
+				continue;
+			}
+			if (!future.isDone()) {
+				future.cancel(true);
+			}
+			try {
+				results.add(new BatchResult<>(i, request, future.getNow(null), null));
+			} catch (CancellationException e) {
+				results.add(new BatchResult<>(i, request, null, aborted
+						? e : new TimeoutException("Batch deadline exceeded")));
+			} catch (CompletionException e) {
+				results.add(new BatchResult<>(i, request, null, e.getCause()));
+			}
+		}
+		return results;
+	}
+
+	/**
+	 * 下载文件，响应体直接写入目标文件，不经过堆内缓冲区
+	 *
+	 * @param url 文件地址
+	 * @param target 目标文件
+	 * @return 下载结果
+	 * @throws IOException 下载失败时抛出
+	 */
+	public DownloadResult download(String url, Path target) throws IOException {
+		return this.download(url, null, target, DownloadOptions.defaults());
+	}
+
+	/**
+	 * 下载文件：服务端支持 Range 请求时可按 {@link DownloadOptions#getSegments()} 并行分段下载，并支持断点续传
+	 *
+	 * @param url 文件地址
+	 * @param headers 请求头，可以为空
+	 * @param target 目标文件
+	 * @param options 下载选项
+	 * @return 下载结果
+	 * @throws IOException 下载失败时抛出
+	 */
+	public DownloadResult download(String url, Map<String, Object> headers, Path target, DownloadOptions options) throws IOException {
+		HttpUrl httpUrl = this.getHttpUrl(this.joinPath(url), null);
+		return new OkHttp3Downloader(this).download(httpUrl, headers, target, options);
+	}
+
+	/**
+	 * 读取响应结果，响应状态码不是 2xx 或解析失败时抛出 {@link UncheckedIOException}；不会关闭响应
+	 */
+	protected <T> T readValueOrThrow(Response response, ObjectReader reader) {
+		try {
+			if (!response.isSuccessful()) {
+				throw new HttpStatusException(response.code(), response.message());
+			}
+			if (Objects.isNull(response.body()) || this.isVoid(reader.getValueType())) {
+				return null;
+			}
+			return this.readValue(response.body(), reader);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	protected <T> CompletableFuture<T> failedFuture(Throwable ex) {
+		CompletableFuture<T> future = new CompletableFuture<>();
+		future.completeExceptionally(ex);
+		return future;
+	}
+
 	public HttpUrl getHttpUrl(String httpUrl, Map<String, Object> params) {
 		log.info("OkHttp3 >> Request Url : {}", httpUrl);
 		HttpUrl.Builder urlBuilder = HttpUrl.parse(httpUrl).newBuilder();
@@ -376,28 +939,144 @@ public class OkHttp3Template implements InitializingBean {
 	public Request.Builder createRequestBuilder(HttpUrl httpUrl,
 												  HttpMethod method,
 												  Map<String, Object> headers,
-												  Map<String, Object> bodyContent) throws IOException{
+												  Object bodyContent) throws IOException{
 		log.info("OkHttp3 >> Request Query Url : {} , Method : {}", httpUrl.query() , method.getName());
 		// 1、创建Request.Builder对象
 		Request.Builder builder = new Request.Builder().url(httpUrl);
 		// 2、添加请求头
+		MediaType contentType = null;
+		boolean hasAccept = false;
 		if(Objects.nonNull(headers)) {
 			log.info("OkHttp3 >> Request Headers : {}", headers);
 			for (Entry<String, Object> entry : headers.entrySet()) {
 				builder.addHeader(entry.getKey(), String.valueOf(entry.getValue()));
+				if ("Content-Type".equalsIgnoreCase(entry.getKey())) {
+					contentType = MediaType.parse(String.valueOf(entry.getValue()));
+				} else if ("Accept".equalsIgnoreCase(entry.getKey())) {
+					hasAccept = true;
+				}
 			}
 		}
+		if (!hasAccept && Objects.nonNull(acceptHeader)) {
+			builder.header("Accept", acceptHeader);
+		}
 		// 3、添加请求体
 		if(Objects.nonNull(bodyContent)) {
-			String bodyStr = objectMapper.writeValueAsString(bodyContent);
-			log.info("OkHttp3 >> Request Body : {}", bodyStr);
-			builder = method.apply(builder, bodyStr);
+			RequestBody requestBody = this.createRequestBody(bodyContent, contentType);
+			if (log.isInfoEnabled() && !(bodyContent instanceof RequestBody)) {
+				this.logRequestBody(bodyContent, requestBody);
+			}
+			builder = method.apply(builder, requestBody);
 		} else {
 			builder = method.apply(builder);
 		}
 		return builder;
 	}
 
+	/**
+	 * 记录请求体：JSON 请求体输出序列化后的内容，其它编解码器编码的请求体只输出对象类型与请求类型，日志失败不影响请求
+	 */
+	private void logRequestBody(Object bodyContent, RequestBody requestBody) {
+		MediaType mediaType = requestBody.contentType();
+		if (Objects.nonNull(mediaType) && !mediaType.subtype().contains("json")) {
+			log.info("OkHttp3 >> Request Body : {} ({})", bodyContent.getClass().getName(), mediaType);
+			return;
+		}
+		try {
+			log.info("OkHttp3 >> Request Body : {}", objectMapper.writeValueAsString(bodyContent));
+		} catch (IOException e) {
+			log.info("OkHttp3 >> Request Body : {} ({})", bodyContent.getClass().getName(), e.getMessage());
+		}
+	}
+
+	/**
+	 * 创建请求体：已经是 {@link RequestBody} 的直接使用，其它对象在发送时由 Jackson 直接序列化到输出流
+	 *
+	 * @param bodyContent 请求体对象
+	 * @return 请求体
+	 */
+	public RequestBody createRequestBody(Object bodyContent) {
+		return this.createRequestBody(bodyContent, null);
+	}
+
+	/**
+	 * 创建请求体：指定了请求类型且有对应的编解码器时使用该编解码器，否则使用默认的请求编码器，都不可用时使用 JSON
+	 *
+	 * @param bodyContent 请求体对象
+	 * @param contentType 请求头中指定的请求类型，可以为空
+	 * @return 请求体
+	 */
+	public RequestBody createRequestBody(Object bodyContent, MediaType contentType) {
+		if (bodyContent instanceof RequestBody) {
+			return (RequestBody) bodyContent;
+		}
+		OkHttp3Codec codec = Objects.isNull(contentType) ? requestCodec : this.getCodec(contentType);
+		if (Objects.nonNull(codec) && codec.canWrite(bodyContent.getClass())) {
+			return codec.encode(bodyContent);
+		}
+		return new JacksonRequestBody(APPLICATION_JSON_UTF8, this.getObjectWriter(bodyContent.getClass()), bodyContent);
+	}
+
+	/**
+	 * 创建 application/x-www-form-urlencoded 请求体
+	 *
+	 * @param formParams 表单参数
+	 * @return 请求体
+	 */
+	public FormBody createFormBody(Map<String, Object> formParams) {
+		FormBody.Builder builder = new FormBody.Builder();
+		if (!CollectionUtils.isEmpty(formParams)) {
+			for (Entry<String, Object> entry : formParams.entrySet()) {
+				builder.add(entry.getKey(), Objects.isNull(entry.getValue()) ? "" : entry.getValue().toString());
+			}
+		}
+		return builder.build();
+	}
+
+	/**
+	 * 创建 multipart/form-data 请求体，表单项的取值：
+	 * <ul>
+	 * <li>{@link Path}、{@link File}：按文件名识别类型的文件项，发送时从文件流式写入</li>
+	 * <li>{@link InputStream}：application/octet-stream 类型的文件项（一次性，不能重试）</li>
+	 * <li>{@link MultipartBody.Part}：直接使用，忽略键名</li>
+	 * <li>{@link RequestBody}：以键名作为文件名的文件项</li>
+	 * <li>其它对象：按字符串处理的普通表单项</li>
+	 * </ul>
+	 * 包含一次性表单项时返回 {@link MultipartRequestBody}，以免请求被重试或对冲时重复读取已消费的表单项
+	 *
+	 * @param parts 表单项
+	 * @return 请求体
+	 */
+	public RequestBody createMultipartBody(Map<String, Object> parts) {
+		MultipartBody.Builder builder = new MultipartBody.Builder().setType(MultipartBody.FORM);
+		for (Entry<String, Object> entry : parts.entrySet()) {
+			String name = entry.getKey();
+			Object value = entry.getValue();
+			if (value instanceof File) {
+				value = ((File) value).toPath();
+			}
+			if (value instanceof Path) {
+				Path path = (Path) value;
+				String filename = path.getFileName().toString();
+				builder.addFormDataPart(name, filename, new FileRequestBody(this.guessMediaType(filename), path));
+			} else if (value instanceof InputStream) {
+				builder.addFormDataPart(name, name, new InputStreamRequestBody(APPLICATION_OCTET_STREAM, (InputStream) value));
+			} else if (value instanceof MultipartBody.Part) {
+				builder.addPart((MultipartBody.Part) value);
+			} else if (value instanceof RequestBody) {
+				builder.addFormDataPart(name, name, (RequestBody) value);
+			} else {
+				builder.addFormDataPart(name, Objects.isNull(value) ? "" : value.toString());
+			}
+		}
+		return MultipartRequestBody.of(builder.build());
+	}
+
+	protected MediaType guessMediaType(String filename) {
+		String contentType = URLConnection.guessContentTypeFromName(filename);
+		return Objects.isNull(contentType) ? APPLICATION_OCTET_STREAM : MediaType.parse(contentType);
+	}
+
 	/**
 	 * 字符串拼接
 	 *
@@ -406,80 +1085,377 @@ public class OkHttp3Template implements InitializingBean {
 	 */
 	public String joinPath(String url) {
 		if (StringUtils.hasText(baseUrl)) {
-			String address;
-			if (!baseUrl.endsWith("/")) {
-				address = baseUrl + "/" + url;
+			boolean baseEndsWithSlash = baseUrl.endsWith("/");
+			boolean urlStartsWithSlash = url.startsWith("/");
+			if (baseEndsWithSlash && urlStartsWithSlash) {
+				return baseUrl + url.substring(1);
+			}
+			if (!baseEndsWithSlash && !urlStartsWithSlash) {
+				return baseUrl + "/" + url;
 			}
-			address = baseUrl + url;
-			return address;
+			return baseUrl + url;
 		}
 		return url;
 	}
 
+	/**
+	 * 获取预编译的请求端点，例如：{@code endpoint("GET /users/{id}/orders")}；
+	 * 基础地址与路径模板只解析一次，之后每次调用只需替换路径变量和查询参数，结果按描述缓存
+	 *
+	 * @param spec 端点描述：请求方法 + 空格 + 路径模板（相对 baseUrl）或完整的 URL 模板
+	 * @return 预编译的请求端点
+	 */
+	public CompiledEndpoint endpoint(String spec) {
+		CompiledEndpoint endpoint = endpoints.get(spec);
+		if (Objects.isNull(endpoint)) {
+			endpoint = endpoints.computeIfAbsent(spec, key -> CompiledEndpoint.compile(this, key));
+		}
+		return endpoint;
+	}
+
 	public <T> T readValue(String json, Class<T> cls) {
 		try {
-			return objectMapper.readValue(json, cls);
+			return this.getObjectReader(cls).readValue(json);
 		} catch (Exception e) {
 			log.error(e.getMessage());
 			return BeanUtils.instantiateClass(cls);
 		}
 	}
 
+	public <T> T readValue(String json, TypeReference<T> typeRef) {
+		return this.readValue(json, this.constructType(typeRef));
+	}
+
+	public <T> T readValue(String json, JavaType javaType) {
+		try {
+			return this.getObjectReader(javaType).readValue(json);
+		} catch (Exception e) {
+			log.error(e.getMessage());
+			return this.instantiate(javaType);
+		}
+	}
+
+	/**
+	 * 将响应结果转换为指定类型的对象：直接从响应流中反序列化，避免先将整个响应体读取为字符串；无论成功与否，都会关闭响应体，以便连接及时归还连接池
+	 *
+	 * @param startTime 请求开始时间
+	 * @param response 响应对象
+	 * @param rtClass 返回值类型
+	 * @return 转换后的对象
+	 */
+	protected <T> T readValue(long startTime, Response response, Class<T> rtClass) {
+		return this.readValue(startTime, response, rtClass, () -> BeanUtils.instantiateClass(rtClass));
+	}
+
+	/**
+	 * 将响应结果转换为指定泛型类型的对象，请求失败时返回该类型的默认实例（无法实例化时返回 null）
+	 *
+	 * @param startTime 请求开始时间
+	 * @param response 响应对象
+	 * @param rtType 返回值类型
+	 * @return 转换后的对象
+	 */
+	protected <T> T readValue(long startTime, Response response, JavaType rtType) {
+		return this.readValue(startTime, response, rtType, () -> this.instantiate(rtType));
+	}
+
+	private <T> T readValue(long startTime, Response response, Type rtType, Supplier<T> fallback) {
+		boolean isVoid = this.isVoid(rtType);
+		if (Objects.isNull(response)) {
+			return isVoid ? null : fallback.get();
+		}
+		try (ResponseBody body = response.body()) {
+			if (isVoid) {
+				return null;
+			}
+			if (response.isSuccessful() && Objects.nonNull(body)) {
+				return this.readValue(body, this.getObjectReader(rtType));
+			}
+		} catch (Exception e) {
+			log.error("OkHttp3 >> Response Read Error : {}, use time : {}", e.getMessage(), System.currentTimeMillis() - startTime);
+		}
+		return fallback.get();
+	}
+
+	/**
+	 * 从响应体的输入流中直接反序列化对象（不会关闭响应体）；
+	 * 响应声明了非 Unicode 字符集时，按该字符集解码，否则交由 Jackson 自动识别 UTF-8/16/32 编码
+	 *
+	 * @param body 响应体
+	 * @param cls 返回值类型
+	 * @return 反序列化后的对象
+	 * @throws IOException 读取或解析失败时抛出
+	 */
+	public <T> T readValue(ResponseBody body, Class<T> cls) throws IOException {
+		return this.readValue(body, this.getObjectReader(cls));
+	}
+
+	public <T> T readValue(ResponseBody body, TypeReference<T> typeRef) throws IOException {
+		return this.readValue(body, this.getObjectReader(typeRef.getType()));
+	}
+
+	public <T> T readValue(ResponseBody body, JavaType javaType) throws IOException {
+		return this.readValue(body, this.getObjectReader(javaType));
+	}
+
+	protected <T> T readValue(ResponseBody body, ObjectReader reader) throws IOException {
+		MediaType contentType = body.contentType();
+		if (!codecs.isEmpty() && Objects.nonNull(contentType)) {
+			OkHttp3Codec codec = this.getCodec(contentType);
+			if (Objects.nonNull(codec) && codec.canRead(reader.getValueType())) {
+				return codec.decode(body, reader.getValueType());
+			}
+		}
+		Charset charset = Objects.isNull(contentType) ? null : contentType.charset();
+		if (Objects.nonNull(charset) && !charset.name().startsWith("UTF-")) {
+			return reader.readValue(body.charStream());
+		}
+		return reader.readValue(body.byteStream());
+	}
+
+	/**
+	 * 获取指定类型的 ObjectReader，ObjectReader 是线程安全且不可变的，按类型缓存后可避免每次调用重复解析类型；
+	 * 类型可以是 {@link Class}、{@link TypeReference#getType()} 返回的泛型类型或 {@link JavaType}
+	 *
+	 * @param type 目标类型
+	 * @return ObjectReader 对象
+	 */
+	protected ObjectReader getObjectReader(Type type) {
+		ObjectReader reader = readers.get(type);
+		if (Objects.isNull(reader)) {
+			reader = readers.computeIfAbsent(type, key -> objectMapper.readerFor(this.constructType(key)));
+		}
+		return reader;
+	}
+
+	/**
+	 * 解析泛型类型，结果按类型缓存
+	 *
+	 * @param typeRef 泛型类型引用
+	 * @return JavaType 对象
+	 */
+	public JavaType constructType(TypeReference<?> typeRef) {
+		return this.getJavaType(typeRef.getType());
+	}
+
+	/**
+	 * 解析任意 {@link Type}（例如方法的泛型返回值类型），结果按类型缓存
+	 *
+	 * @param type 目标类型
+	 * @return JavaType 对象
+	 */
+	public JavaType getJavaType(Type type) {
+		return this.getObjectReader(type).getValueType();
+	}
+
+	protected JavaType constructType(Type type) {
+		return type instanceof JavaType ? (JavaType) type : objectMapper.constructType(type);
+	}
+
+	protected boolean isVoid(Type type) {
+		if (type instanceof JavaType) {
+			return ((JavaType) type).hasRawClass(Void.TYPE);
+		}
+		return Void.TYPE.equals(type);
+	}
+
+	/**
+	 * 创建指定类型的默认实例，接口、抽象类或没有默认构造器的类型返回 null
+	 */
+	@SuppressWarnings("unchecked")
+	protected <T> T instantiate(JavaType javaType) {
+		Class<?> rawClass = javaType.getRawClass();
+		if (rawClass.isInterface() || Modifier.isAbstract(rawClass.getModifiers()) || rawClass.isPrimitive()) {
+			return null;
+		}
+		try {
+			return (T) BeanUtils.instantiateClass(rawClass);
+		} catch (BeanInstantiationException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * 获取指定类型的 ObjectWriter，并关闭 {@code AUTO_CLOSE_TARGET}，序列化结束后不会关闭请求体的输出流
+	 *
+	 * @param cls 目标类型
+	 * @return ObjectWriter 对象
+	 */
+	protected ObjectWriter getObjectWriter(Class<?> cls) {
+		return writers.computeIfAbsent(cls, key -> objectMapper.writerFor(key).without(JsonGenerator.Feature.AUTO_CLOSE_TARGET));
+	}
+
+	/**
+	 * 获取支持指定媒体类型的编解码器
+	 *
+	 * @param mediaType 媒体类型
+	 * @return 编解码器，没有匹配的编解码器时返回 null
+	 */
+	protected OkHttp3Codec getCodec(MediaType mediaType) {
+		for (OkHttp3Codec codec : codecs) {
+			if (codec.supports(mediaType)) {
+				return codec;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * 统计读取字节数的数据源
+	 */
+	private static final class CountingSource extends ForwardingSource {
+
+		private long bytesRead;
+
+		CountingSource(Source delegate) {
+			super(delegate);
+		}
+
+		@Override
+		public long read(Buffer sink, long byteCount) throws IOException {
+			long read = super.read(sink, byteCount);
+			if (read > 0) {
+				bytesRead += read;
+			}
+			return read;
+		}
+
+	}
+
+	public OkHttpClient getOkhttp3Client() {
+		return okhttp3Client;
+	}
+
+	public ObjectMapper getObjectMapper() {
+		return objectMapper;
+	}
+
+	public String getBaseUrl() {
+		return baseUrl;
+	}
+
+	public Executor getAsyncExecutor() {
+		return asyncExecutor;
+	}
+
+	public void setAsyncExecutor(Executor asyncExecutor) {
+		this.asyncExecutor = Objects.requireNonNull(asyncExecutor, "asyncExecutor");
+	}
+
+	public List<OkHttp3Codec> getCodecs() {
+		return codecs;
+	}
+
+	/**
+	 * 设置编解码器，并按顺序生成 Accept 请求头：排在前面的格式优先，JSON 作为最低优先级的兜底格式
+	 *
+	 * @param codecs 编解码器，按优先级排序
+	 * @param negotiate 是否添加 Accept 请求头
+	 */
+	public void setCodecs(List<OkHttp3Codec> codecs, boolean negotiate) {
+		this.codecs = Collections.unmodifiableList(new ArrayList<>(codecs));
+		if (!negotiate || codecs.isEmpty()) {
+			this.acceptHeader = null;
+			return;
+		}
+		StringJoiner joiner = new StringJoiner(", ");
+		int size = codecs.size();
+		for (int i = 0; i < size; i++) {
+			MediaType mediaType = codecs.get(i).getMediaType();
+			String value = mediaType.type() + "/" + mediaType.subtype();
+			joiner.add(i == 0 ? value : value + ";q=" + String.format(Locale.ROOT, "%.1f", Math.max(1.0 - i * 0.1, 0.2)));
+		}
+		joiner.add(APPLICATION_JSON_VALUE + ";q=0.1");
+		this.acceptHeader = joiner.toString();
+	}
+
+	public OkHttp3Codec getRequestCodec() {
+		return requestCodec;
+	}
+
+	public void setRequestCodec(OkHttp3Codec requestCodec) {
+		this.requestCodec = requestCodec;
+	}
+
+	public ResponseObjectCache getObjectCache() {
+		return objectCache;
+	}
+
+	public void setObjectCache(ResponseObjectCache objectCache) {
+		this.objectCache = objectCache;
+	}
+
+	public RequestHedger getHedger() {
+		return hedger;
+	}
+
+	public void setHedger(RequestHedger hedger) {
+		this.hedger = hedger;
+	}
+
+	public RetryPolicy getRetryPolicy() {
+		return retryPolicy;
+	}
+
+	public void setRetryPolicy(RetryPolicy retryPolicy) {
+		this.retryPolicy = retryPolicy;
+	}
+
 	public static enum HttpMethod {
 
 		/**
 		 * get request.
 		 */
-		GET("GET", (builder, bodyStr)->{
+		GET("GET", (builder, body)->{
 			return builder.get();
 		}),
 		/**
 		 * head request.
 		 */
-		HEAD("HEAD", (builder, bodyStr)->{
+		HEAD("HEAD", (builder, body)->{
 			return builder.head();
 		}),
 		/**
 		 * post request.
 		 */
-		POST("POST", (builder, bodyStr)->{
-			return builder.post(RequestBody.create(APPLICATION_JSON_UTF8, bodyStr));
+		POST("POST", (builder, body)->{
+			return builder.post(Objects.nonNull(body) ? body : Util.EMPTY_REQUEST);
 		}),
 		/**
 		 * put request.
 		 */
-		PUT("PUT", (builder, bodyStr)->{
-			return builder.put(RequestBody.create(APPLICATION_JSON_UTF8, bodyStr));
+		PUT("PUT", (builder, body)->{
+			return builder.put(Objects.nonNull(body) ? body : Util.EMPTY_REQUEST);
 		}),
 		/**
 		 * patch request.
 		 */
-		PATCH("PATCH", (builder, bodyStr)->{
-			return builder.patch(RequestBody.create(APPLICATION_JSON_UTF8, bodyStr));
+		PATCH("PATCH", (builder, body)->{
+			return builder.patch(Objects.nonNull(body) ? body : Util.EMPTY_REQUEST);
 		}),
 		/**
 		 * delete request.
 		 */
-		DELETE("DELETE", (builder, bodyStr)->{
-			return StringUtils.hasText(bodyStr) ? builder.delete(RequestBody.create(APPLICATION_JSON_UTF8, bodyStr)) : builder.delete();
+		DELETE("DELETE", (builder, body)->{
+			return Objects.nonNull(body) ? builder.delete(body) : builder.delete();
 		}),
 		/**
 		 * options request.
 		 */
-		OPTIONS("OPTIONS", (builder, bodyStr)->{
+		OPTIONS("OPTIONS", (builder, body)->{
 			return builder;
 		}),
 		/**
 		 * trace request.
 		 */
-		TRACE("TRACE", (builder, bodyStr)->{
+		TRACE("TRACE", (builder, body)->{
 			return builder;
 		});
 
 		private String name;
-		private BiFunction<Request.Builder, String, Request.Builder> function;
+		private BiFunction<Request.Builder, RequestBody, Request.Builder> function;
 
-		HttpMethod(String name, BiFunction<Request.Builder, String, Request.Builder> function) {
+		HttpMethod(String name, BiFunction<Request.Builder, RequestBody, Request.Builder> function) {
 			this.name = name;
 			this.function = function;
 		}
@@ -489,7 +1465,11 @@ public class OkHttp3Template implements InitializingBean {
 		}
 
 		public Request.Builder apply(Request.Builder builder, String bodyStr){
-			return function.apply(builder, bodyStr);
+			return function.apply(builder, StringUtils.hasText(bodyStr) ? RequestBody.create(APPLICATION_JSON_UTF8, bodyStr) : null);
+		}
+
+		public Request.Builder apply(Request.Builder builder, RequestBody body){
+			return function.apply(builder, body);
 		}
 
 		public Request.Builder apply(Request.Builder builder){
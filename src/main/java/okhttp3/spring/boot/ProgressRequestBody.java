@@ -0,0 +1,144 @@
+/*
+ * Copyright (c) 2018, hiwepy (https://github.com/hiwepy).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package okhttp3.spring.boot;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.MediaType;
+import okhttp3.RequestBody;
+import okio.Buffer;
+import okio.BufferedSink;
+import okio.ForwardingSink;
+import okio.Okio;
+
+/**
+ * 上传进度及限速的请求体包装：每次写入时通知进度监听器；设置了带宽上限时，写入速度超过上限后暂停写入线程
+ *
+ * @author ： <a href="https://github.com/hiwepy">wandl</a>
+ */
+public class ProgressRequestBody extends RequestBody {
+
+	/**
+	 * 上传进度监听器
+	 */
+	@FunctionalInterface
+	public interface ProgressListener {
+
+		/**
+		 * @param bytesWritten 已写入的字节数
+		 * @param contentLength 请求体总长度，未知时为 -1
+		 * @param done 是否写入完成
+		 */
+		void onProgress(long bytesWritten, long contentLength, boolean done);
+
+	}
+
+	private final RequestBody delegate;
+	private final ProgressListener listener;
+	private final long bytesPerSecond;
+
+	public ProgressRequestBody(RequestBody delegate, ProgressListener listener) {
+		this(delegate, listener, 0);
+	}
+
+	/**
+	 * @param delegate 实际的请求体
+	 * @param listener 进度监听器，可以为空
+	 * @param bytesPerSecond 带宽上限（字节/秒），0 表示不限速
+	 */
+	public ProgressRequestBody(RequestBody delegate, ProgressListener listener, long bytesPerSecond) {
+		this.delegate = delegate;
+		this.listener = listener;
+		this.bytesPerSecond = bytesPerSecond;
+	}
+
+	@Override
+	public MediaType contentType() {
+		return delegate.contentType();
+	}
+
+	@Override
+	public long contentLength() throws IOException {
+		return delegate.contentLength();
+	}
+
+	@Override
+	public boolean isOneShot() {
+		return delegate.isOneShot();
+	}
+
+	@Override
+	public boolean isDuplex() {
+		return delegate.isDuplex();
+	}
+
+	@Override
+	public void writeTo(BufferedSink sink) throws IOException {
+		long contentLength = this.contentLength();
+		CountingSink countingSink = new CountingSink(sink, contentLength);
+		BufferedSink bufferedSink = Okio.buffer(countingSink);
+		delegate.writeTo(bufferedSink);
+		bufferedSink.flush();
+		if (Objects.nonNull(listener)) {
+			listener.onProgress(countingSink.bytesWritten, contentLength, true);
+		}
+	}
+
+	private final class CountingSink extends ForwardingSink {
+
+		private final long contentLength;
+		private final long startNanos = System.nanoTime();
+		private long bytesWritten;
+
+		CountingSink(BufferedSink delegate, long contentLength) {
+			super(delegate);
+			this.contentLength = contentLength;
+		}
+
+		@Override
+		public void write(Buffer source, long byteCount) throws IOException {
+			super.write(source, byteCount);
+			bytesWritten += byteCount;
+			if (Objects.nonNull(listener)) {
+				listener.onProgress(bytesWritten, contentLength, false);
+			}
+			if (bytesPerSecond > 0) {
+				this.throttle();
+			}
+		}
+
+		/**
+		 * 按已写入的字节数计算预期耗时，实际耗时不足时暂停写入
+		 */
+		private void throttle() throws IOException {
+			long expectedNanos = (long) (bytesWritten * 1e9 / bytesPerSecond);
+			long waitNanos = expectedNanos - (System.nanoTime() - startNanos);
+			if (waitNanos > 0) {
+				try {
+					TimeUnit.NANOSECONDS.sleep(waitNanos);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					throw new InterruptedIOException("Upload throttling interrupted");
+				}
+			}
+		}
+
+	}
+
+}
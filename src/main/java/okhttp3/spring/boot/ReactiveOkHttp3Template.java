@@ -0,0 +1,247 @@
+/*
+ * Copyright (c) 2018, hiwepy (https://github.com/hiwepy).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package okhttp3.spring.boot;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+
+import lombok.extern.slf4j.Slf4j;
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.HttpUrl;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okhttp3.spring.boot.OkHttp3Template.HttpMethod;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * OkHttp3 响应式请求模板：基于 {@link Call#enqueue(Callback)} 实现，不阻塞订阅线程；
+ * 取消订阅会取消对应的 OkHttp {@link Call}，流式响应按下游请求量逐块读取
+ *
+ * @author ： <a href="https://github.com/hiwepy">wandl</a>
+ */
+@Slf4j
+public class ReactiveOkHttp3Template {
+
+	public static final int DEFAULT_BUFFER_SIZE = 8 * 1024;
+
+	private final OkHttp3Template template;
+	private DataBufferFactory bufferFactory = DefaultDataBufferFactory.sharedInstance;
+	/**
+	 * 流式读取响应体的调度器：OkHttp 的响应体读取是阻塞的，不能在事件循环线程上执行
+	 */
+	private Scheduler readScheduler = Schedulers.boundedElastic();
+	private int bufferSize = DEFAULT_BUFFER_SIZE;
+
+	public ReactiveOkHttp3Template(OkHttp3Template template) {
+		this.template = template;
+	}
+
+	public <T> Mono<T> get(String url, Class<T> rtClass) {
+		return this.exchange(url, HttpMethod.GET, null, null, null, rtClass);
+	}
+
+	public <T> Mono<T> get(String url, Map<String, Object> params, Class<T> rtClass) {
+		return this.exchange(url, HttpMethod.GET, null, params, null, rtClass);
+	}
+
+	public <T> Mono<T> post(String url, Object bodyContent, Class<T> rtClass) {
+		return this.exchange(url, HttpMethod.POST, null, null, bodyContent, rtClass);
+	}
+
+	public <T> Mono<T> exchange(
+			String url,
+			HttpMethod method,
+			Map<String, Object> headers,
+			Map<String, Object> queryParams,
+			Object bodyContent,
+			Class<T> rtClass) {
+		return Mono.defer(() -> {
+			long startTime = System.currentTimeMillis();
+			// 响应体的读取与解析是阻塞的，切换到 readScheduler 执行，不占用 Dispatcher 线程
+			return this.exchange(url, method, headers, queryParams, bodyContent)
+					.publishOn(readScheduler)
+					.flatMap(response -> Mono.justOrEmpty(template.readValue(startTime, response, rtClass)))
+					.doOnDiscard(Response.class, Response::close);
+		});
+	}
+
+	/**
+	 * 发起请求并返回原始的响应对象，订阅方负责关闭响应
+	 */
+	public Mono<Response> exchange(
+			String url,
+			HttpMethod method,
+			Map<String, Object> headers,
+			Map<String, Object> queryParams,
+			Object bodyContent) {
+		return Mono.defer(() -> {
+			HttpUrl httpUrl = template.getHttpUrl(template.joinPath(url), queryParams);
+			try {
+				return this.exchange(template.createRequestBuilder(httpUrl, method, headers, bodyContent).build());
+			} catch (IOException e) {
+				return Mono.error(e);
+			}
+		});
+	}
+
+	/**
+	 * 将 {@link Call#enqueue(Callback)} 包装为 {@link Mono}，取消订阅时取消请求，并关闭取消后才到达的响应；
+	 * 发出后在下游被丢弃（例如在 publishOn 的队列中被取消）的响应同样会被关闭
+	 *
+	 * @param request 请求对象
+	 * @return 响应对象
+	 */
+	public Mono<Response> exchange(Request request) {
+		return Mono.<Response>create(sink -> {
+			long startTime = System.currentTimeMillis();
+			AtomicBoolean cancelled = new AtomicBoolean(false);
+			Call call = template.newCall(request);
+			sink.onCancel(() -> {
+				cancelled.set(true);
+				call.cancel();
+			});
+			call.enqueue(new Callback() {
+
+				@Override
+				public void onFailure(Call call, IOException e) {
+					log.error("OkHttp3 >> Reactive Request Failure : {}, use time : {} ", e.getMessage(), System.currentTimeMillis() - startTime);
+					sink.error(e);
+				}
+
+				@Override
+				public void onResponse(Call call, Response response) {
+					if (cancelled.get()) {
+						response.close();
+						return;
+					}
+					if (response.isSuccessful()) {
+						log.info("OkHttp3 >> Reactive Request Success : code : {}, use time : {} ", response.code(), System.currentTimeMillis() - startTime);
+					} else {
+						log.error("OkHttp3 >> Reactive Request Failure : code : {}, message : {}, use time : {} ", response.code(), response.message(), System.currentTimeMillis() - startTime);
+					}
+					sink.success(response);
+				}
+
+			});
+		}).doOnDiscard(Response.class, Response::close);
+	}
+
+	/**
+	 * 以 {@link DataBuffer} 流的形式读取响应体，每次下游请求读取一个缓冲块；流结束、出错或取消时关闭响应
+	 */
+	public Flux<DataBuffer> stream(
+			String url,
+			HttpMethod method,
+			Map<String, Object> headers,
+			Map<String, Object> queryParams,
+			Object bodyContent) {
+		return this.exchange(url, method, headers, queryParams, bodyContent).flatMapMany(response -> Flux.using(
+				() -> response,
+				res -> DataBufferUtils.readInputStream(() -> this.requireBody(res).byteStream(), bufferFactory, bufferSize),
+				Response::close)
+			.subscribeOn(readScheduler))
+			.doOnDiscard(Response.class, Response::close);
+	}
+
+	/**
+	 * 逐个读取响应中的对象：支持根节点为 JSON 数组或以换行分隔的 JSON 对象序列，每次下游请求只解析一个元素；
+	 * 流结束、出错或取消时关闭响应
+	 */
+	public <T> Flux<T> stream(
+			String url,
+			HttpMethod method,
+			Map<String, Object> headers,
+			Map<String, Object> queryParams,
+			Object bodyContent,
+			Class<T> elementClass) {
+		return this.exchange(url, method, headers, queryParams, bodyContent).flatMapMany(response -> Flux.using(
+				() -> response,
+				res -> Flux.<T, MappingIterator<T>>generate(
+						() -> template.getObjectReader(elementClass).readValues(this.requireBody(res).byteStream()),
+						(iterator, sink) -> {
+							try {
+								if (iterator.hasNextValue()) {
+									sink.next(iterator.nextValue());
+								} else {
+									sink.complete();
+								}
+							} catch (IOException e) {
+								sink.error(e);
+							}
+							return iterator;
+						},
+						iterator -> {
+							try {
+								iterator.close();
+							} catch (IOException e) {
+								log.debug("OkHttp3 >> Close Stream Error : {}", e.getMessage());
+							}
+						}),
+				Response::close)
+			.subscribeOn(readScheduler))
+			.doOnDiscard(Response.class, Response::close);
+	}
+
+	private ResponseBody requireBody(Response response) throws IOException {
+		if (!response.isSuccessful() || Objects.isNull(response.body())) {
+			throw new IOException("Unexpected response : code : " + response.code() + ", message : " + response.message());
+		}
+		return response.body();
+	}
+
+	public OkHttp3Template getTemplate() {
+		return template;
+	}
+
+	public DataBufferFactory getBufferFactory() {
+		return bufferFactory;
+	}
+
+	public void setBufferFactory(DataBufferFactory bufferFactory) {
+		this.bufferFactory = bufferFactory;
+	}
+
+	public Scheduler getReadScheduler() {
+		return readScheduler;
+	}
+
+	public void setReadScheduler(Scheduler readScheduler) {
+		this.readScheduler = readScheduler;
+	}
+
+	public int getBufferSize() {
+		return bufferSize;
+	}
+
+	public void setBufferSize(int bufferSize) {
+		this.bufferSize = bufferSize;
+	}
+
+}
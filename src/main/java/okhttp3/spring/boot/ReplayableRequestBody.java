@@ -0,0 +1,298 @@
+/*
+ * Copyright (c) 2018, hiwepy (https://github.com/hiwepy).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package okhttp3.spring.boot;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.Objects;
+
+import okhttp3.MediaType;
+import okhttp3.RequestBody;
+import okio.Buffer;
+import okio.BufferedSink;
+import okio.Okio;
+import okio.Sink;
+import okio.Source;
+import okio.Timeout;
+
+/**
+ * 可重放的请求体：首次发送时一次性请求体（{@link RequestBody#isOneShot()}）的内容在写入连接的同时保存一份副本，
+ * 不超过 memoryThreshold 时副本为与发送数据共享分段的 Okio {@link Buffer}，超过时转存到临时文件，此后每次发送都从副本写入，
+ * 因此重试及对冲时可以重复发送；首次发送时连接写入失败，会继续读取剩余内容完成副本后再抛出异常，以便重试；
+ * 内容超过 maxSize 时立即停止保存副本，本次仍正常发送，但此后视为一次性请求体，不再重放
+ *
+ * 临时文件在 {@link #close()} 时删除，由创建该请求体的重试逻辑在请求结束后调用
+ *
+ * @author ： <a href="https://github.com/hiwepy">wandl</a>
+ */
+public class ReplayableRequestBody extends RequestBody implements Closeable {
+
+	private final RequestBody delegate;
+	private final long memoryThreshold;
+	private final long maxSize;
+	private final Object lock = new Object();
+	private boolean capturing;
+	private volatile boolean captured;
+	private volatile boolean overflow;
+	private volatile boolean closed;
+	private volatile Buffer memory;
+	private volatile File file;
+
+	protected ReplayableRequestBody(RequestBody delegate, long memoryThreshold, long maxSize) {
+		this.delegate = delegate;
+		this.memoryThreshold = memoryThreshold;
+		this.maxSize = maxSize;
+	}
+
+	/**
+	 * 包装一次性请求体；请求体为空、本身可重复发送、为双工请求体，或已知长度超过 maxSize 时原样返回
+	 *
+	 * @param body 请求体
+	 * @param memoryThreshold 保存在内存中的最大大小，超过后转存到临时文件
+	 * @param maxSize 允许重放的最大大小
+	 * @return 可重放的请求体或原请求体
+	 * @throws IOException 读取请求体长度失败时抛出
+	 */
+	public static RequestBody of(RequestBody body, long memoryThreshold, long maxSize) throws IOException {
+		if (Objects.isNull(body) || body instanceof ReplayableRequestBody || !body.isOneShot() || body.isDuplex()
+				|| body.contentLength() > maxSize) {
+			return body;
+		}
+		return new ReplayableRequestBody(body, memoryThreshold, maxSize);
+	}
+
+	@Override
+	public MediaType contentType() {
+		return delegate.contentType();
+	}
+
+	@Override
+	public long contentLength() throws IOException {
+		return delegate.contentLength();
+	}
+
+	@Override
+	public boolean isOneShot() {
+		return overflow;
+	}
+
+	@Override
+	public void writeTo(BufferedSink sink) throws IOException {
+		if (this.beginCapture()) {
+			this.capture(sink);
+			return;
+		}
+		Buffer bytes = memory;
+		if (Objects.nonNull(bytes)) {
+			// 共享副本的分段，不复制数据
+			bytes.copyTo(sink.buffer(), 0, bytes.size());
+			sink.emitCompleteSegments();
+			return;
+		}
+		File spilled = file;
+		if (Objects.isNull(spilled)) {
+			throw new IOException("Replayable request body is closed");
+		}
+		try (Source source = Okio.source(spilled)) {
+			sink.writeAll(source);
+		}
+	}
+
+	/**
+	 * 首次写入的线程负责保存副本，并发写入的线程等待副本完成后从副本写入
+	 *
+	 * @return 当前线程是否需要读取原请求体并保存副本
+	 */
+	private boolean beginCapture() throws IOException {
+		synchronized (lock) {
+			while (capturing) {
+				try {
+					lock.wait();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					throw new InterruptedIOException("Interrupted while waiting for request body capture");
+				}
+			}
+			if (closed) {
+				throw new IOException("Replayable request body is closed");
+			}
+			if (captured) {
+				return false;
+			}
+			if (overflow) {
+				throw new IOException("Request body exceeded " + maxSize + " bytes and cannot be replayed");
+			}
+			capturing = true;
+			return true;
+		}
+	}
+
+	private void capture(BufferedSink sink) throws IOException {
+		CaptureSink capture = new CaptureSink(sink);
+		boolean completed = false;
+		try {
+			try (BufferedSink out = Okio.buffer(capture)) {
+				delegate.writeTo(out);
+			}
+			completed = true;
+		} finally {
+			synchronized (lock) {
+				if (completed && !capture.exceeded && !closed) {
+					memory = Objects.isNull(capture.fileSink) ? capture.buffer : null;
+					file = capture.tempFile;
+					captured = true;
+				} else {
+					// 原请求体已被读取，副本不完整时不能再重放
+					overflow = true;
+					capture.discard();
+				}
+				capturing = false;
+				lock.notifyAll();
+			}
+		}
+		if (Objects.nonNull(capture.failure)) {
+			throw capture.failure;
+		}
+	}
+
+	/**
+	 * 释放内存副本并删除临时文件
+	 */
+	@Override
+	public void close() {
+		synchronized (lock) {
+			closed = true;
+			memory = null;
+			this.deleteFile();
+		}
+	}
+
+	private void deleteFile() {
+		File spilled = file;
+		file = null;
+		if (Objects.nonNull(spilled)) {
+			spilled.delete();
+		}
+	}
+
+	public boolean isSpilled() {
+		return Objects.nonNull(file);
+	}
+
+	/**
+	 * 首次发送时的输出：数据在写入连接的同时共享分段到内存副本，超过 memoryThreshold 后副本转存到临时文件，
+	 * 超过 maxSize 后丢弃副本；连接写入失败后继续保存副本，异常在原请求体写完后抛出
+	 */
+	private final class CaptureSink implements Sink {
+
+		private final BufferedSink target;
+		private final Buffer buffer = new Buffer();
+		private File tempFile;
+		private BufferedSink fileSink;
+		private long size;
+		private boolean exceeded;
+		private boolean aborted;
+		private IOException failure;
+
+		CaptureSink(BufferedSink target) {
+			this.target = target;
+		}
+
+		@Override
+		public void write(Buffer source, long byteCount) throws IOException {
+			size += byteCount;
+			if (!exceeded && size > maxSize) {
+				exceeded = true;
+				this.discard();
+			}
+			if (!exceeded) {
+				source.copyTo(buffer, 0, byteCount);
+				if (Objects.isNull(fileSink) && buffer.size() > memoryThreshold) {
+					tempFile = File.createTempFile("okhttp3-body-", ".tmp");
+					fileSink = Okio.buffer(Okio.sink(tempFile));
+				}
+				if (Objects.nonNull(fileSink)) {
+					fileSink.write(buffer, buffer.size());
+				}
+			}
+			long remaining = source.size();
+			if (Objects.isNull(failure)) {
+				try {
+					target.write(source, byteCount);
+					return;
+				} catch (IOException e) {
+					failure = e;
+				}
+			}
+			// 连接已失败且副本已丢弃时没有必要继续读取原请求体；异常只抛出一次，关闭缓冲输出时的剩余数据直接丢弃
+			if (exceeded && !aborted) {
+				aborted = true;
+				throw failure;
+			}
+			// 跳过连接失败前未写出的部分
+			source.skip(byteCount - (remaining - source.size()));
+		}
+
+		@Override
+		public void flush() throws IOException {
+			if (Objects.nonNull(fileSink)) {
+				fileSink.flush();
+			}
+			if (Objects.isNull(failure)) {
+				try {
+					target.flush();
+				} catch (IOException e) {
+					failure = e;
+				}
+			}
+		}
+
+		@Override
+		public Timeout timeout() {
+			return target.timeout();
+		}
+
+		/**
+		 * 只关闭副本的输出，连接由调用方关闭
+		 */
+		@Override
+		public void close() throws IOException {
+			if (Objects.nonNull(fileSink)) {
+				fileSink.close();
+			}
+		}
+
+		void discard() {
+			buffer.clear();
+			if (Objects.nonNull(fileSink)) {
+				try {
+					fileSink.close();
+				} catch (IOException ignored) {
+					// 副本即将删除
+				}
+				fileSink = null;
+			}
+			if (Objects.nonNull(tempFile)) {
+				tempFile.delete();
+				tempFile = null;
+			}
+		}
+
+	}
+
+}
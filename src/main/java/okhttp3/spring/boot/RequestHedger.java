@@ -0,0 +1,475 @@
+/*
+ * Copyright (c) 2018, hiwepy (https://github.com/hiwepy).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package okhttp3.spring.boot;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+import lombok.extern.slf4j.Slf4j;
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.internal.Util;
+import okio.Timeout;
+
+/**
+ * 对冲请求：幂等请求在对冲延迟内没有返回时，再发起一个相同的请求，先返回的响应胜出，另一个请求通过 {@link Call#cancel()} 取消
+ *
+ * 对冲延迟可以固定，也可以按路由（host:port）观测到的延迟分位数计算；对冲预算（令牌桶）限制对冲请求占请求总数的比例，避免放大上游压力
+ *
+ * @author ： <a href="https://github.com/hiwepy">wandl</a>
+ */
+@Slf4j
+public class RequestHedger implements OkHttp3Statistics {
+
+	private final Set<String> methods;
+	private final long fixedDelayNanos;
+	private final double percentile;
+	private final long minDelayNanos;
+	private final int minSamples;
+	private final long windowNanos;
+	private final long tokensPerRequest;
+	private final long maxTokens;
+	private final AtomicLong tokens;
+	private final ConcurrentMap<String, LatencyHistogram> histograms = new ConcurrentHashMap<>();
+	private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(Util.threadFactory("OkHttp Hedging", true));
+	private final LongAdder requests = new LongAdder();
+	private final LongAdder hedgesSent = new LongAdder();
+	private final LongAdder hedgesWon = new LongAdder();
+	private final LongAdder budgetExhausted = new LongAdder();
+
+	public RequestHedger(OkHttp3HedgingProperties properties) {
+		this.methods = properties.getMethods().stream().map(method -> method.toUpperCase(Locale.ROOT)).collect(Collectors.toSet());
+		this.fixedDelayNanos = properties.getDelay().toNanos();
+		this.percentile = properties.getPercentile();
+		this.minDelayNanos = properties.getMinDelay().toNanos();
+		this.minSamples = properties.getMinSamples();
+		this.windowNanos = properties.getWindow().toNanos();
+		// 令牌以千分之一为单位，避免浮点运算
+		this.tokensPerRequest = Math.round(properties.getBudgetPercent() * 10);
+		this.maxTokens = properties.getBudgetBurst() * 1000L;
+		this.tokens = new AtomicLong(maxTokens);
+	}
+
+	/**
+	 * 创建请求调用：可对冲的请求返回对冲调用，其余请求返回普通调用
+	 *
+	 * @param client OkHttpClient
+	 * @param request 请求对象
+	 * @return 请求调用
+	 */
+	public Call newCall(OkHttpClient client, Request request) {
+		if (!this.isHedgeable(request)) {
+			return client.newCall(request);
+		}
+		return new HedgedCall(client, request);
+	}
+
+	/**
+	 * @param request 请求对象
+	 * @return 是否为对冲请求，请求合并等拦截器据此让对冲请求直接发出
+	 */
+	public static boolean isHedge(Request request) {
+		return Objects.nonNull(request.tag(HedgeTag.class));
+	}
+
+	/**
+	 * 只对冲幂等方法，并且请求体可以重复发送
+	 */
+	protected boolean isHedgeable(Request request) {
+		return methods.contains(request.method()) && !MultipartRequestBody.isOneShot(request.body());
+	}
+
+	protected String route(Request request) {
+		return request.url().host() + ":" + request.url().port();
+	}
+
+	/**
+	 * @return 对冲延迟（纳秒），样本不足时返回 -1，不发起对冲
+	 */
+	protected long delayNanos(LatencyHistogram histogram) {
+		if (fixedDelayNanos > 0) {
+			return fixedDelayNanos;
+		}
+		long quantile = histogram.quantileNanos(percentile, minSamples);
+		return quantile < 0 ? -1 : Math.max(quantile, minDelayNanos);
+	}
+
+	/**
+	 * 每个请求为预算补充令牌，每个对冲请求消耗一个令牌
+	 */
+	protected void deposit() {
+		long current;
+		do {
+			current = tokens.get();
+			if (current >= maxTokens) {
+				return;
+			}
+		} while (!tokens.compareAndSet(current, Math.min(maxTokens, current + tokensPerRequest)));
+	}
+
+	protected boolean tryAcquire() {
+		long current;
+		do {
+			current = tokens.get();
+			if (current < 1000) {
+				budgetExhausted.increment();
+				return false;
+			}
+		} while (!tokens.compareAndSet(current, current - 1000));
+		return true;
+	}
+
+	public void shutdown() {
+		scheduler.shutdownNow();
+	}
+
+	@Override
+	public String getStatisticsName() {
+		return "hedging";
+	}
+
+	@Override
+	public Map<String, Object> getStatistics() {
+		Map<String, Object> statistics = new LinkedHashMap<>();
+		statistics.put("requests", requests.sum());
+		statistics.put("hedgesSent", hedgesSent.sum());
+		statistics.put("hedgesWon", hedgesWon.sum());
+		statistics.put("budgetExhausted", budgetExhausted.sum());
+		statistics.put("budgetTokens", tokens.get() / 1000D);
+		Map<String, Object> routes = new LinkedHashMap<>();
+		for (Map.Entry<String, LatencyHistogram> entry : histograms.entrySet()) {
+			Map<String, Object> route = new LinkedHashMap<>();
+			route.put("p50Millis", TimeUnit.NANOSECONDS.toMillis(entry.getValue().quantileNanos(50, 1)));
+			route.put("hedgeDelayMillis", TimeUnit.NANOSECONDS.toMillis(this.delayNanos(entry.getValue())));
+			routes.put(entry.getKey(), route);
+		}
+		statistics.put("routes", routes);
+		return statistics;
+	}
+
+	/**
+	 * 对冲请求的标记
+	 */
+	public static final class HedgeTag {
+
+		static final HedgeTag INSTANCE = new HedgeTag();
+
+		private HedgeTag() {
+		}
+
+	}
+
+	/**
+	 * 对冲调用：主请求与对冲请求共享同一个回调，先返回的响应胜出；同步执行时主请求在调用线程上执行，只有对冲请求进入 Dispatcher
+	 */
+	protected class HedgedCall implements Call {
+
+		private final OkHttpClient client;
+		private final Request request;
+		private final Call primary;
+		private volatile Call hedge;
+		private volatile ScheduledFuture<?> timer;
+		private final AtomicBoolean executed = new AtomicBoolean();
+		private final AtomicBoolean decided = new AtomicBoolean();
+		private final AtomicInteger pending = new AtomicInteger(1);
+		private volatile boolean canceled;
+
+		HedgedCall(OkHttpClient client, Request request) {
+			this.client = client;
+			this.request = request;
+			this.primary = client.newCall(request);
+		}
+
+		@Override
+		public Request request() {
+			return request;
+		}
+
+		@Override
+		public Response execute() throws IOException {
+			CompletableFuture<Response> future = new CompletableFuture<>();
+			Callback callback = this.start(new Callback() {
+
+				@Override
+				public void onFailure(Call call, IOException e) {
+					future.completeExceptionally(e);
+				}
+
+				@Override
+				public void onResponse(Call call, Response response) {
+					if (!future.complete(response)) {
+						response.close();
+					}
+				}
+
+			});
+			// 对冲请求胜出时会取消主请求，主请求随即以失败结束，结果由对冲请求的回调给出
+			Response response;
+			try {
+				response = primary.execute();
+			} catch (IOException e) {
+				callback.onFailure(primary, e);
+				response = null;
+			}
+			if (Objects.nonNull(response)) {
+				callback.onResponse(primary, response);
+			}
+			try {
+				return future.get();
+			} catch (InterruptedException e) {
+				this.cancel();
+				Thread.currentThread().interrupt();
+				throw new InterruptedIOException("Hedged call interrupted");
+			} catch (ExecutionException e) {
+				Throwable cause = e.getCause();
+				throw cause instanceof IOException ? (IOException) cause : new IOException(cause);
+			}
+		}
+
+		@Override
+		public void enqueue(Callback responseCallback) {
+			primary.enqueue(this.start(responseCallback));
+		}
+
+		/**
+		 * 标记调用已执行并安排对冲请求
+		 *
+		 * @return 主请求使用的回调
+		 */
+		protected Callback start(Callback responseCallback) {
+			if (!executed.compareAndSet(false, true)) {
+				throw new IllegalStateException("Already Executed");
+			}
+			requests.increment();
+			deposit();
+			LatencyHistogram histogram = histograms.computeIfAbsent(route(request), key -> new LatencyHistogram(windowNanos));
+			long startNanos = System.nanoTime();
+			long delayNanos = delayNanos(histogram);
+			if (delayNanos > 0) {
+				timer = scheduler.schedule(() -> this.fireHedge(responseCallback, histogram, startNanos), delayNanos, TimeUnit.NANOSECONDS);
+			}
+			return this.callback(responseCallback, histogram, startNanos, false);
+		}
+
+		protected void fireHedge(Callback responseCallback, LatencyHistogram histogram, long startNanos) {
+			if (decided.get() || canceled || !tryAcquire()) {
+				return;
+			}
+			pending.incrementAndGet();
+			if (decided.get()) {
+				pending.decrementAndGet();
+				return;
+			}
+			Call call = client.newCall(request.newBuilder().tag(HedgeTag.class, HedgeTag.INSTANCE).build());
+			hedge = call;
+			// 发布 hedge 之后再次检查：同时胜出的主请求或 cancel() 可能没有看到它；已取消的调用入队后立即以失败回调结束，pending 计数保持一致
+			if (decided.get() || canceled) {
+				call.cancel();
+			} else {
+				hedgesSent.increment();
+				log.debug("OkHttp3 >> Hedge request after {} ms : {}", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos), request.url());
+			}
+			call.enqueue(this.callback(responseCallback, histogram, startNanos, true));
+		}
+
+		protected Callback callback(Callback responseCallback, LatencyHistogram histogram, long startNanos, boolean isHedge) {
+			return new Callback() {
+
+				@Override
+				public void onFailure(Call call, IOException e) {
+					// 另一个请求仍在进行时等待其结果
+					if (pending.decrementAndGet() == 0 && decided.compareAndSet(false, true)) {
+						cancelTimer();
+						responseCallback.onFailure(HedgedCall.this, e);
+					}
+				}
+
+				@Override
+				public void onResponse(Call call, Response response) throws IOException {
+					if (!decided.compareAndSet(false, true)) {
+						response.close();
+						return;
+					}
+					cancelTimer();
+					histogram.record(System.nanoTime() - startNanos);
+					Call loser = isHedge ? primary : hedge;
+					if (Objects.nonNull(loser)) {
+						loser.cancel();
+					}
+					if (isHedge) {
+						hedgesWon.increment();
+					}
+					responseCallback.onResponse(HedgedCall.this, response);
+				}
+
+			};
+		}
+
+		private void cancelTimer() {
+			ScheduledFuture<?> scheduled = timer;
+			if (Objects.nonNull(scheduled)) {
+				scheduled.cancel(false);
+			}
+		}
+
+		@Override
+		public void cancel() {
+			canceled = true;
+			cancelTimer();
+			primary.cancel();
+			Call call = hedge;
+			if (Objects.nonNull(call)) {
+				call.cancel();
+			}
+		}
+
+		@Override
+		public boolean isExecuted() {
+			return executed.get();
+		}
+
+		@Override
+		public boolean isCanceled() {
+			return canceled;
+		}
+
+		@Override
+		public Timeout timeout() {
+			return primary.timeout();
+		}
+
+		@Override
+		public Call clone() {
+			return newCall(client, request);
+		}
+
+	}
+
+	/**
+	 * 无锁的对数分桶延迟直方图：按时间窗口轮换，分位数按当前及上一个窗口的样本计算
+	 */
+	protected static class LatencyHistogram {
+
+		/**
+		 * 相邻分桶的比例，分位数的相对误差不超过 10%
+		 */
+		private static final double GROWTH = 1.1;
+		private static final double LOG_GROWTH = Math.log(GROWTH);
+		/**
+		 * 最小分桶 100us，最大约 100us * 1.1^160 ≈ 400s
+		 */
+		private static final long MIN_NANOS = 100_000;
+		private static final int BUCKETS = 160;
+
+		private final long windowNanos;
+		private final AtomicReference<Window> current;
+
+		LatencyHistogram(long windowNanos) {
+			this.windowNanos = windowNanos;
+			this.current = new AtomicReference<>(new Window(System.nanoTime(), null));
+		}
+
+		void record(long nanos) {
+			long now = System.nanoTime();
+			Window window = current.get();
+			if (now - window.startNanos >= windowNanos) {
+				Window next = new Window(now, window);
+				window = current.compareAndSet(window, next) ? next : current.get();
+			}
+			window.counts.incrementAndGet(bucket(nanos));
+		}
+
+		/**
+		 * @return 指定分位数的延迟（纳秒），样本少于 minSamples 时返回 -1
+		 */
+		long quantileNanos(double percentile, int minSamples) {
+			Window window = current.get();
+			Window previous = window.previous;
+			long[] counts = new long[BUCKETS];
+			long total = 0;
+			for (int i = 0; i < BUCKETS; i++) {
+				counts[i] = window.counts.get(i) + (Objects.isNull(previous) ? 0 : previous.counts.get(i));
+				total += counts[i];
+			}
+			if (total < Math.max(minSamples, 1)) {
+				return -1;
+			}
+			long rank = (long) Math.ceil(total * percentile / 100D);
+			long seen = 0;
+			for (int i = 0; i < BUCKETS; i++) {
+				seen += counts[i];
+				if (seen >= rank) {
+					return upperBound(i);
+				}
+			}
+			return upperBound(BUCKETS - 1);
+		}
+
+		static int bucket(long nanos) {
+			if (nanos <= MIN_NANOS) {
+				return 0;
+			}
+			int index = (int) Math.ceil(Math.log((double) nanos / MIN_NANOS) / LOG_GROWTH);
+			return Math.min(index, BUCKETS - 1);
+		}
+
+		static long upperBound(int bucket) {
+			return (long) (MIN_NANOS * Math.pow(GROWTH, bucket));
+		}
+
+		private static final class Window {
+
+			private final long startNanos;
+			private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+			private volatile Window previous;
+
+			Window(long startNanos, Window previous) {
+				this.startNanos = startNanos;
+				this.previous = previous;
+				if (Objects.nonNull(previous)) {
+					// 只保留一个历史窗口
+					previous.previous = null;
+				}
+			}
+
+		}
+
+	}
+
+}
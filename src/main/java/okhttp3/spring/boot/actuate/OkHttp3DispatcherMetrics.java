@@ -0,0 +1,51 @@
+/*
+ * Copyright (c) 2018, hiwepy (https://github.com/hiwepy).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package okhttp3.spring.boot.actuate;
+
+import java.util.concurrent.TimeUnit;
+
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+
+import okhttp3.Dispatcher;
+import okhttp3.spring.boot.BoundedDispatcherExecutor;
+
+/**
+ * 记录有界 Dispatcher 执行器的排队时间（Timer：okhttp3.Dispatcher.queueWait）及拒绝次数（Meter：okhttp3.Dispatcher.rejected.{reason}）；
+ * 运行中及排队中的请求数由 {@link OkHttp3StatisticsGauges} 注册为 Gauge
+ * @author 		： <a href="https://github.com/hiwepy">hiwepy</a>
+ */
+public class OkHttp3DispatcherMetrics implements BoundedDispatcherExecutor.Listener {
+
+	private final MetricRegistry registry;
+	private final Timer queueWait;
+
+	public OkHttp3DispatcherMetrics(MetricRegistry registry) {
+		this.registry = registry;
+		this.queueWait = registry.timer(MetricRegistry.name(Dispatcher.class, "queueWait"));
+	}
+
+	@Override
+	public void onQueueWait(long waitNanos) {
+		queueWait.update(waitNanos, TimeUnit.NANOSECONDS);
+	}
+
+	@Override
+	public void onRejected(String reason) {
+		registry.meter(MetricRegistry.name(Dispatcher.class, "rejected", reason)).mark();
+	}
+
+}
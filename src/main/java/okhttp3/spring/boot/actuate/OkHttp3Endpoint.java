@@ -15,7 +15,9 @@
  */
 package okhttp3.spring.boot.actuate;
 
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.SortedMap;
 
@@ -27,6 +29,8 @@ import com.codahale.metrics.MetricRegistry;
 import com.codahale.metrics.Snapshot;
 import com.codahale.metrics.Timer;
 
+import okhttp3.spring.boot.OkHttp3Statistics;
+
 /**
  * {@link Endpoint} to expose OkHttp3 Metrics.
  * @author 		： <a href="https://github.com/hiwepy">hiwepy</a>
@@ -35,9 +39,15 @@ import com.codahale.metrics.Timer;
 public class OkHttp3Endpoint {
 	
 	private MetricRegistry registry;
+	private List<OkHttp3Statistics> statistics;
 
     public OkHttp3Endpoint(MetricRegistry registry) {
+        this(registry, Collections.emptyList());
+    }
+
+    public OkHttp3Endpoint(MetricRegistry registry, List<OkHttp3Statistics> statistics) {
         this.registry = registry;
+        this.statistics = statistics;
     }
     
     @ReadOperation
@@ -45,6 +55,7 @@ public class OkHttp3Endpoint {
     	 Map<String, Object> info = new HashMap<>();
          info.put("okhttp3", "http://square.github.io/okhttp/");
          info.put("metrics", getMetrics());
+         info.put("statistics", getStatistics());
 		return info;
 	}
     
@@ -63,6 +74,14 @@ public class OkHttp3Endpoint {
         return metrics;
     }
 
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> map = new HashMap<>();
+        for (OkHttp3Statistics item : statistics) {
+            map.put(item.getStatisticsName(), item.getStatistics());
+        }
+        return map;
+    }
+
     public Map<String, Object> convertTimerToMap(String name, Timer timer) {
         Map<String, Object> map = new HashMap<>();
         map.put(name + ".count", timer.getCount());
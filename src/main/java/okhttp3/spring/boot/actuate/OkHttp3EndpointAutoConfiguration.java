@@ -15,7 +15,9 @@
  */
 package okhttp3.spring.boot.actuate;
 
+import java.util.stream.Collectors;
 
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.actuate.autoconfigure.endpoint.EndpointAutoConfiguration;
 import org.springframework.boot.actuate.autoconfigure.endpoint.condition.ConditionalOnAvailableEndpoint;
 import org.springframework.boot.actuate.autoconfigure.health.ConditionalOnEnabledHealthIndicator;
@@ -23,6 +25,7 @@ import org.springframework.boot.actuate.health.HealthIndicator;
 import org.springframework.boot.autoconfigure.AutoConfigureAfter;
 import org.springframework.boot.autoconfigure.AutoConfigureBefore;
 import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.context.annotation.Bean;
@@ -31,7 +34,10 @@ import org.springframework.context.annotation.Configuration;
 import com.codahale.metrics.MetricRegistry;
 
 import okhttp3.OkHttpClient;
+import okhttp3.spring.boot.BoundedDispatcherExecutor;
 import okhttp3.spring.boot.OkHttp3AutoConfiguration;
+import okhttp3.spring.boot.OkHttp3ClientCustomizer;
+import okhttp3.spring.boot.OkHttp3Statistics;
 
 /**
  * {@link EnableAutoConfiguration Auto-configuration} for {@link OkHttp3Endpoint}.
@@ -56,11 +62,33 @@ public class OkHttp3EndpointAutoConfiguration {
         return new OkHttp3MetricsInterceptor(registry);
     }
 
+	/**
+	 * 为默认客户端及每个命名客户端添加以客户端名称区分的指标拦截器
+	 */
+	@Bean
+	public OkHttp3ClientCustomizer okHttp3MetricsClientCustomizer(MetricRegistry registry) {
+		return (name, builder) -> builder.addInterceptor(new OkHttp3MetricsInterceptor(registry, name));
+	}
+
+	@Bean
+	@ConditionalOnBean(BoundedDispatcherExecutor.class)
+	public OkHttp3DispatcherMetrics okHttp3DispatcherMetrics(MetricRegistry registry, BoundedDispatcherExecutor executor) {
+		OkHttp3DispatcherMetrics metrics = new OkHttp3DispatcherMetrics(registry);
+		executor.setListener(metrics);
+		return metrics;
+	}
+
+	@Bean
+	@ConditionalOnMissingBean
+	public OkHttp3StatisticsGauges okHttp3StatisticsGauges(MetricRegistry registry, ObjectProvider<OkHttp3Statistics> statisticsProvider) {
+		return new OkHttp3StatisticsGauges(registry, statisticsProvider.orderedStream().collect(Collectors.toList()));
+	}
+
 	@Bean
 	@ConditionalOnMissingBean
 	@ConditionalOnAvailableEndpoint
-    public OkHttp3Endpoint okHttp3Endpoint(MetricRegistry registry) {
-        return new OkHttp3Endpoint(registry);
+    public OkHttp3Endpoint okHttp3Endpoint(MetricRegistry registry, ObjectProvider<OkHttp3Statistics> statisticsProvider) {
+        return new OkHttp3Endpoint(registry, statisticsProvider.orderedStream().collect(Collectors.toList()));
 	}
 
 }
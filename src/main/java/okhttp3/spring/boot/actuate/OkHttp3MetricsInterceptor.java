@@ -4,6 +4,7 @@ package okhttp3.spring.boot.actuate;
 import static com.codahale.metrics.MetricRegistry.name;
 
 import java.io.IOException;
+import java.util.Objects;
 
 import com.codahale.metrics.MetricRegistry;
 import com.codahale.metrics.Timer;
@@ -12,25 +13,36 @@ import okhttp3.Interceptor;
 import okhttp3.OkHttpClient;
 import okhttp3.Request;
 import okhttp3.Response;
+import okhttp3.spring.boot.CompiledEndpoint;
 
 /**
- * okhttp3 metrics interceptor
+ * okhttp3 metrics interceptor ; 指定了客户端名称时，指标名称以客户端名称区分
  * @author linux_china
  */
 public class OkHttp3MetricsInterceptor implements Interceptor {
 	
 	private MetricRegistry registry;
+	private String clientName;
 
     public OkHttp3MetricsInterceptor(MetricRegistry registry) {
         this.registry = registry;
     }
+
+    public OkHttp3MetricsInterceptor(MetricRegistry registry, String clientName) {
+        this.registry = registry;
+        this.clientName = clientName;
+    }
     
     @Override
     public Response intercept(Interceptor.Chain chain) throws IOException {
         Request request = chain.request();
         String host = request.url().host();
         Response response;
-        final Timer timer = registry.timer(name(OkHttpClient.class, host, request.method()));
+        // 预编译端点的请求使用 URI 模板作为标签，避免路径变量造成指标名称膨胀
+        CompiledEndpoint endpoint = request.tag(CompiledEndpoint.class);
+        String prefix = Objects.isNull(clientName) ? name(OkHttpClient.class) : name(OkHttpClient.class, clientName);
+        final Timer timer = registry.timer(Objects.isNull(endpoint) ? name(prefix, host, request.method())
+                : name(prefix, host, request.method(), endpoint.getUriTemplate()));
         final Timer.Context context = timer.time();
         try {
             response = chain.proceed(request);
@@ -0,0 +1,59 @@
+/*
+ * Copyright (c) 2018, hiwepy (https://github.com/hiwepy).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package okhttp3.spring.boot.actuate;
+
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.SmartInitializingSingleton;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+
+import okhttp3.OkHttpClient;
+import okhttp3.spring.boot.OkHttp3Statistics;
+
+/**
+ * 将 {@link OkHttp3Statistics} 中的数值型统计项注册为 Gauge，名称为：okhttp3.OkHttpClient.{statisticsName}.{key}
+ * @author 		： <a href="https://github.com/hiwepy">hiwepy</a>
+ */
+public class OkHttp3StatisticsGauges implements SmartInitializingSingleton {
+
+	private final MetricRegistry registry;
+	private final List<OkHttp3Statistics> statistics;
+
+	public OkHttp3StatisticsGauges(MetricRegistry registry, List<OkHttp3Statistics> statistics) {
+		this.registry = registry;
+		this.statistics = statistics;
+	}
+
+	@Override
+	public void afterSingletonsInstantiated() {
+		for (OkHttp3Statistics item : statistics) {
+			for (Map.Entry<String, Object> entry : item.getStatistics().entrySet()) {
+				if (!(entry.getValue() instanceof Number)) {
+					continue;
+				}
+				String key = entry.getKey();
+				String name = MetricRegistry.name(OkHttpClient.class, item.getStatisticsName(), key);
+				if (!registry.getGauges().containsKey(name)) {
+					registry.register(name, (Gauge<Object>) () -> item.getStatistics().get(key));
+				}
+			}
+		}
+	}
+
+}
@@ -0,0 +1,183 @@
+/*
+ * Copyright (c) 2018, hiwepy (https://github.com/hiwepy).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package okhttp3.spring.boot.cache;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.springframework.util.StringUtils;
+
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.spring.boot.OkHttp3CacheProperties.CacheRule;
+import okhttp3.spring.boot.ext.NetworkInterceptor;
+
+/**
+ * 缓存策略规则拦截器：在 {@link okhttp3.Cache} 保存响应前，按规则改写网络响应的 Cache-Control，为没有缓存声明的上游强制指定有效期；
+ * 规则在创建时按主机及路径分段编译为前缀树，匹配时只遍历请求路径的分段，不做正则或模式解析
+ *
+ * @author ： <a href="https://github.com/hiwepy">wandl</a>
+ */
+public class CacheRuleInterceptor implements NetworkInterceptor {
+
+	private static final String ANY_HOST = "";
+
+	/**
+	 * 主机名 -&gt; 路径前缀树；通配子域名以 "*." 开头的后缀保存
+	 */
+	private final Map<String, Node> hosts = new HashMap<>();
+	private final boolean wildcardHosts;
+
+	public CacheRuleInterceptor(List<CacheRule> rules) {
+		boolean wildcard = false;
+		for (int i = 0; i < rules.size(); i++) {
+			CacheRule rule = rules.get(i);
+			String host = StringUtils.hasText(rule.getHost()) ? rule.getHost().trim().toLowerCase(Locale.ROOT) : ANY_HOST;
+			wildcard |= host.startsWith("*.");
+			Node node = hosts.computeIfAbsent(host, key -> new Node());
+			for (String segment : StringUtils.tokenizeToStringArray(rule.getPath(), "/")) {
+				node = node.child(segment);
+			}
+			if (Objects.isNull(node.rule)) {
+				node.rule = new CompiledRule(i, rule);
+			}
+		}
+		this.wildcardHosts = wildcard;
+	}
+
+	@Override
+	public Response intercept(Chain chain) throws IOException {
+		Request request = chain.request();
+		Response response = chain.proceed(request);
+		if (hosts.isEmpty() || response.code() != 200) {
+			return response;
+		}
+		CompiledRule rule = this.match(request);
+		if (Objects.isNull(rule)) {
+			return response;
+		}
+		return response.newBuilder()
+				.removeHeader("Pragma")
+				.removeHeader("Expires")
+				.header("Cache-Control", rule.cacheControl)
+				.build();
+	}
+
+	/**
+	 * 依次匹配精确主机、通配子域名及任意主机的规则，返回声明顺序最靠前的规则
+	 */
+	protected CompiledRule match(Request request) {
+		String host = request.url().host();
+		List<String> segments = request.url().pathSegments();
+		String method = request.method();
+		CompiledRule best = this.match(hosts.get(host), segments, method, null);
+		if (wildcardHosts) {
+			for (int index = host.indexOf('.'); index >= 0; index = host.indexOf('.', index + 1)) {
+				best = this.match(hosts.get("*" + host.substring(index)), segments, method, best);
+			}
+		}
+		return this.match(hosts.get(ANY_HOST), segments, method, best);
+	}
+
+	private CompiledRule match(Node root, List<String> segments, String method, CompiledRule best) {
+		if (Objects.isNull(root)) {
+			return best;
+		}
+		// 路径以 / 结尾时 HttpUrl 的最后一个分段为空字符串
+		int size = segments.size();
+		if (size > 0 && segments.get(size - 1).isEmpty()) {
+			size--;
+		}
+		return this.match(root, segments, 0, size, method, best);
+	}
+
+	private CompiledRule match(Node node, List<String> segments, int index, int size, String method, CompiledRule best) {
+		if (Objects.nonNull(node.doubleStar)) {
+			// ** 匹配任意多个（含 0 个）分段
+			for (int i = index; i <= size; i++) {
+				best = this.match(node.doubleStar, segments, i, size, method, best);
+			}
+		}
+		if (index == size) {
+			return node.accept(method, best);
+		}
+		Node literal = Objects.isNull(node.children) ? null : node.children.get(segments.get(index));
+		if (Objects.nonNull(literal)) {
+			best = this.match(literal, segments, index + 1, size, method, best);
+		}
+		if (Objects.nonNull(node.star)) {
+			best = this.match(node.star, segments, index + 1, size, method, best);
+		}
+		return best;
+	}
+
+	/**
+	 * 路径前缀树节点
+	 */
+	private static final class Node {
+
+		private Map<String, Node> children;
+		private Node star;
+		private Node doubleStar;
+		private CompiledRule rule;
+
+		Node child(String segment) {
+			if ("**".equals(segment)) {
+				return Objects.isNull(doubleStar) ? doubleStar = new Node() : doubleStar;
+			}
+			if ("*".equals(segment)) {
+				return Objects.isNull(star) ? star = new Node() : star;
+			}
+			if (Objects.isNull(children)) {
+				children = new HashMap<>();
+			}
+			return children.computeIfAbsent(segment, key -> new Node());
+		}
+
+		CompiledRule accept(String method, CompiledRule best) {
+			if (Objects.isNull(rule) || !rule.methods.contains(method)) {
+				return best;
+			}
+			return Objects.isNull(best) || rule.order < best.order ? rule : best;
+		}
+
+	}
+
+	/**
+	 * 预先生成 Cache-Control 取值的规则
+	 */
+	protected static final class CompiledRule {
+
+		private final int order;
+		private final Set<String> methods;
+		private final String cacheControl;
+
+		CompiledRule(int order, CacheRule rule) {
+			this.order = order;
+			this.methods = rule.getMethods().stream().map(method -> method.toUpperCase(Locale.ROOT)).collect(Collectors.toSet());
+			long seconds = rule.getTtl().getSeconds();
+			this.cacheControl = seconds > 0 ? "max-age=" + seconds : "no-store";
+		}
+
+	}
+
+}
@@ -0,0 +1,361 @@
+/*
+ * Copyright (c) 2018, hiwepy (https://github.com/hiwepy).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package okhttp3.spring.boot.cache;
+
+import java.io.IOException;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.core.Ordered;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+import lombok.extern.slf4j.Slf4j;
+import okhttp3.CacheControl;
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.CookieJar;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.spring.boot.OkHttp3CacheProperties;
+import okhttp3.spring.boot.OkHttp3Statistics;
+import okhttp3.spring.boot.ext.RequestInterceptor;
+
+/**
+ * 响应缓存拦截器：统计磁盘缓存（{@link okhttp3.Cache}）的命中情况，并可在磁盘缓存前增加一层按容量淘汰的内存缓存，
+ * 只保存较小、仍然新鲜的 GET 响应，命中时不再经过磁盘缓存的读取及解析
+ *
+ * 开启 staleEnabled 后，内存缓存遵循响应的 stale-while-revalidate 及 stale-if-error 指令（{@link okhttp3.Cache} 会忽略这两个指令）：
+ * 过期时间在 stale-while-revalidate 窗口内的响应立即返回，同时通过 Dispatcher 异步刷新，同一个键同时只有一个刷新请求；
+ * 上游请求失败、超时或返回 5xx 时，过期时间在 stale-if-error 窗口内的响应作为结果返回
+ *
+ * @author ： <a href="https://github.com/hiwepy">wandl</a>
+ */
+@Slf4j
+public class ResponseCacheInterceptor implements RequestInterceptor, OkHttp3Statistics, Ordered {
+
+	/**
+	 * 应用拦截器的执行顺序，位于合并、熔断、并发限制及重试拦截器之外：内存缓存命中时不占用并发限制也不计入熔断统计，熔断器打开时仍可返回 stale-if-error 响应
+	 */
+	public static final int ORDER = Ordered.HIGHEST_PRECEDENCE + 200;
+
+	private final okhttp3.Cache diskCache;
+	private final Cache<String, CachedResponse> memoryCache;
+	private final long maxEntrySize;
+	private final boolean staleEnabled;
+	private final CookieJar cookieJar;
+	/**
+	 * 正在进行的后台刷新：缓存键 -&gt; 刷新请求；刷新请求再次经过本拦截器时据此跳过内存缓存
+	 */
+	private final ConcurrentMap<String, Call> refreshing = new ConcurrentHashMap<>();
+	private final LongAdder memoryHits = new LongAdder();
+	private final LongAdder diskHits = new LongAdder();
+	private final LongAdder conditionalHits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder staleWhileRevalidateServes = new LongAdder();
+	private final LongAdder staleIfErrorServes = new LongAdder();
+	private final LongAdder refreshes = new LongAdder();
+	private final LongAdder refreshFailures = new LongAdder();
+
+	public ResponseCacheInterceptor(okhttp3.Cache diskCache, OkHttp3CacheProperties cacheProperties) {
+		this(diskCache, cacheProperties, CookieJar.NO_COOKIES);
+	}
+
+	/**
+	 * @param diskCache 磁盘缓存，可以为 null
+	 * @param cacheProperties 缓存配置
+	 * @param cookieJar 客户端使用的 CookieJar；不是 {@link CookieJar#NO_COOKIES} 时响应不会进入内存缓存
+	 */
+	public ResponseCacheInterceptor(okhttp3.Cache diskCache, OkHttp3CacheProperties cacheProperties, CookieJar cookieJar) {
+		this.diskCache = diskCache;
+		this.cookieJar = cookieJar;
+		OkHttp3CacheProperties.Memory memory = cacheProperties.getMemory();
+		this.maxEntrySize = memory.getMaxEntrySize().toBytes();
+		this.staleEnabled = memory.isStaleEnabled();
+		this.memoryCache = memory.isEnabled() ? CacheBuilder.newBuilder()
+				.maximumWeight(memory.getMaxSize().toBytes())
+				.weigher((String key, CachedResponse value) -> value.snapshot.weight())
+				.build() : null;
+	}
+
+	@Override
+	public int getOrder() {
+		return ORDER;
+	}
+
+	@Override
+	public Response intercept(Chain chain) throws IOException {
+		Request request = chain.request();
+		if (Objects.isNull(memoryCache) || !this.isCacheable(request)) {
+			return this.record(chain.proceed(request));
+		}
+		String key = this.cacheKey(request);
+		boolean refresh = chain.call() == refreshing.get(key);
+		CachedResponse cached = refresh ? null : memoryCache.getIfPresent(key);
+		long now = System.currentTimeMillis();
+		if (Objects.nonNull(cached)) {
+			// 1、内存缓存命中且仍然新鲜时直接返回
+			if (cached.isFresh(now)) {
+				memoryHits.increment();
+				return cached.snapshot.toResponse(request);
+			}
+			// 2、在 stale-while-revalidate 窗口内：返回过期的响应并在后台刷新
+			if (staleEnabled && cached.isStaleWhileRevalidate(now)) {
+				staleWhileRevalidateServes.increment();
+				this.refresh(chain, key);
+				return cached.snapshot.newBuilder(request).addHeader("Warning", "110 - \"Response is Stale\"").build();
+			}
+			if (!staleEnabled || !cached.isStaleIfError(now)) {
+				memoryCache.invalidate(key);
+				cached = null;
+			}
+		}
+		// 3、经磁盘缓存或网络请求；失败时在 stale-if-error 窗口内返回过期的响应
+		Response response;
+		try {
+			response = this.record(chain.proceed(request));
+		} catch (IOException e) {
+			if (Objects.nonNull(cached)) {
+				log.warn("OkHttp3 >> Serve stale response for {} : {}", request.url(), e.getMessage());
+				staleIfErrorServes.increment();
+				return cached.snapshot.newBuilder(request).addHeader("Warning", "111 - \"Revalidation Failed\"").build();
+			}
+			throw e;
+		}
+		if (Objects.nonNull(cached) && response.code() >= 500) {
+			response.close();
+			staleIfErrorServes.increment();
+			return cached.snapshot.newBuilder(request).addHeader("Warning", "111 - \"Revalidation Failed\"").build();
+		}
+		// 4、结果满足条件时放入内存缓存
+		CachedResponse entry = this.newCachedResponse(response);
+		if (Objects.isNull(entry)) {
+			return response;
+		}
+		memoryCache.put(key, entry);
+		return entry.snapshot.toResponse(request);
+	}
+
+	/**
+	 * 克隆当前请求并通过 Dispatcher 异步执行，刷新请求经过本拦截器时会跳过内存缓存并写入新的结果
+	 */
+	protected void refresh(Chain chain, String key) {
+		Call call = chain.call().clone();
+		if (Objects.nonNull(refreshing.putIfAbsent(key, call))) {
+			return;
+		}
+		refreshes.increment();
+		call.enqueue(new Callback() {
+
+			@Override
+			public void onFailure(Call call, IOException e) {
+				refreshFailures.increment();
+				refreshing.remove(key, call);
+				log.warn("OkHttp3 >> Background refresh failed for {} : {}", call.request().url(), e.getMessage());
+			}
+
+			@Override
+			public void onResponse(Call call, Response response) {
+				if (!response.isSuccessful()) {
+					refreshFailures.increment();
+				}
+				response.close();
+				refreshing.remove(key, call);
+			}
+
+		});
+	}
+
+	/**
+	 * 只缓存不携带 Authorization/Cookie 及 Range 请求头、未要求跳过缓存的 GET 请求
+	 */
+	protected boolean isCacheable(Request request) {
+		if (!"GET".equals(request.method()) || SharedResponses.hasCredentials(request) || Objects.nonNull(request.header("Range"))) {
+			return false;
+		}
+		CacheControl cacheControl = request.cacheControl();
+		return !cacheControl.noCache() && !cacheControl.noStore();
+	}
+
+	protected String cacheKey(Request request) {
+		String accept = request.header("Accept");
+		return Objects.isNull(accept) ? request.url().toString() : request.url() + "\n" + accept;
+	}
+
+	/**
+	 * 生成内存缓存项：响应不可共享（见 {@link SharedResponses#isShareable(Response, CookieJar)}）、
+	 * 不可缓存、超过大小限制或在保留窗口外时返回 null
+	 */
+	protected CachedResponse newCachedResponse(Response response) throws IOException {
+		if (!SharedResponses.isShareable(response, cookieJar)) {
+			return null;
+		}
+		long now = System.currentTimeMillis();
+		long expiresAtMillis = this.expiresAtMillis(response, now);
+		if (expiresAtMillis < 0) {
+			return null;
+		}
+		long staleWhileRevalidateMillis = 0;
+		long staleIfErrorMillis = 0;
+		if (staleEnabled) {
+			staleWhileRevalidateMillis = TimeUnit.SECONDS.toMillis(this.directiveSeconds(response, "stale-while-revalidate"));
+			staleIfErrorMillis = TimeUnit.SECONDS.toMillis(this.directiveSeconds(response, "stale-if-error"));
+		}
+		if (expiresAtMillis + Math.max(staleWhileRevalidateMillis, staleIfErrorMillis) <= now) {
+			return null;
+		}
+		ResponseSnapshot snapshot = ResponseSnapshot.of(response, maxEntrySize);
+		if (Objects.isNull(snapshot)) {
+			return null;
+		}
+		return new CachedResponse(snapshot, expiresAtMillis, staleWhileRevalidateMillis, staleIfErrorMillis);
+	}
+
+	/**
+	 * 根据 max-age（扣除 Age）或 Expires 计算响应的过期时间；不可缓存或未声明有效期的响应返回 -1
+	 */
+	protected long expiresAtMillis(Response response, long now) {
+		if (response.code() != 200) {
+			return -1;
+		}
+		CacheControl cacheControl = response.cacheControl();
+		if (cacheControl.noStore() || cacheControl.noCache() || cacheControl.isPrivate()) {
+			return -1;
+		}
+		if (cacheControl.maxAgeSeconds() >= 0) {
+			long ageSeconds = 0;
+			String age = response.header("Age");
+			if (Objects.nonNull(age)) {
+				try {
+					ageSeconds = Long.parseLong(age.trim());
+				} catch (NumberFormatException e) {
+					return -1;
+				}
+			}
+			return now + TimeUnit.SECONDS.toMillis(cacheControl.maxAgeSeconds() - ageSeconds);
+		}
+		Date expires = response.headers().getDate("Expires");
+		Date date = response.headers().getDate("Date");
+		if (Objects.nonNull(expires)) {
+			return now + expires.getTime() - (Objects.nonNull(date) ? date.getTime() : now);
+		}
+		return -1;
+	}
+
+	/**
+	 * 读取 {@link CacheControl} 未解析的 Cache-Control 扩展指令（秒），未声明时返回 0
+	 */
+	protected long directiveSeconds(Response response, String directive) {
+		for (String value : response.headers("Cache-Control")) {
+			for (String part : value.split(",")) {
+				String token = part.trim();
+				if (token.regionMatches(true, 0, directive, 0, directive.length()) && token.length() > directive.length()
+						&& token.charAt(directive.length()) == '=') {
+					try {
+						return Math.max(Long.parseLong(token.substring(directive.length() + 1).replace("\"", "").trim()), 0);
+					} catch (NumberFormatException e) {
+						return 0;
+					}
+				}
+			}
+		}
+		return 0;
+	}
+
+	/**
+	 * 根据响应的来源统计磁盘缓存的命中情况
+	 */
+	protected Response record(Response response) {
+		Response cacheResponse = response.cacheResponse();
+		Response networkResponse = response.networkResponse();
+		if (Objects.nonNull(cacheResponse) && Objects.isNull(networkResponse)) {
+			diskHits.increment();
+		} else if (Objects.nonNull(cacheResponse) && networkResponse.code() == 304) {
+			conditionalHits.increment();
+		} else {
+			misses.increment();
+		}
+		return response;
+	}
+
+	@Override
+	public String getStatisticsName() {
+		return "cache";
+	}
+
+	@Override
+	public Map<String, Object> getStatistics() {
+		Map<String, Object> statistics = new LinkedHashMap<>();
+		statistics.put("memoryHits", memoryHits.sum());
+		statistics.put("diskHits", diskHits.sum());
+		statistics.put("conditionalHits", conditionalHits.sum());
+		statistics.put("misses", misses.sum());
+		statistics.put("memoryEntries", Objects.isNull(memoryCache) ? 0L : memoryCache.size());
+		statistics.put("staleWhileRevalidateServes", staleWhileRevalidateServes.sum());
+		statistics.put("staleIfErrorServes", staleIfErrorServes.sum());
+		statistics.put("refreshes", refreshes.sum());
+		statistics.put("refreshFailures", refreshFailures.sum());
+		statistics.put("refreshing", refreshing.size());
+		if (Objects.nonNull(diskCache)) {
+			try {
+				statistics.put("diskSize", diskCache.size());
+			} catch (IOException e) {
+				statistics.put("diskSize", -1L);
+			}
+			statistics.put("diskMaxSize", diskCache.maxSize());
+		}
+		return statistics;
+	}
+
+	/**
+	 * 内存缓存中的响应及其过期时间、允许返回过期响应的时间窗口
+	 */
+	protected static class CachedResponse {
+
+		private final ResponseSnapshot snapshot;
+		private final long expiresAtMillis;
+		private final long staleWhileRevalidateMillis;
+		private final long staleIfErrorMillis;
+
+		CachedResponse(ResponseSnapshot snapshot, long expiresAtMillis, long staleWhileRevalidateMillis, long staleIfErrorMillis) {
+			this.snapshot = snapshot;
+			this.expiresAtMillis = expiresAtMillis;
+			this.staleWhileRevalidateMillis = staleWhileRevalidateMillis;
+			this.staleIfErrorMillis = staleIfErrorMillis;
+		}
+
+		boolean isFresh(long nowMillis) {
+			return nowMillis < expiresAtMillis;
+		}
+
+		boolean isStaleWhileRevalidate(long nowMillis) {
+			return nowMillis < expiresAtMillis + staleWhileRevalidateMillis;
+		}
+
+		boolean isStaleIfError(long nowMillis) {
+			return nowMillis < expiresAtMillis + staleIfErrorMillis;
+		}
+
+	}
+
+}
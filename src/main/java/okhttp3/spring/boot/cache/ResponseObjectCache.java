@@ -0,0 +1,271 @@
+/*
+ * Copyright (c) 2018, hiwepy (https://github.com/hiwepy).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package okhttp3.spring.boot.cache;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.PathMatcher;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+import okhttp3.CacheControl;
+import okhttp3.CookieJar;
+import okhttp3.HttpUrl;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.spring.boot.OkHttp3ObjectCacheProperties;
+import okhttp3.spring.boot.OkHttp3Statistics;
+
+/**
+ * 反序列化结果缓存：按规范化的 URL 及目标类型缓存 GET 请求反序列化后的对象，并记录响应的 ETag/Last-Modified；
+ * 有效期内直接返回缓存对象，过期后发起条件请求，304 时续期并返回缓存对象，既省去传输也省去反序列化
+ *
+ * 缓存对象会被多个调用方共享，调用方应将其视为不可变对象；携带身份信息的请求及私有或按请求头变化的响应不会缓存，
+ * 以免一个用户的结果被返回给另一个用户
+ *
+ * @author ： <a href="https://github.com/hiwepy">wandl</a>
+ */
+public class ResponseObjectCache implements OkHttp3Statistics {
+
+	private final Cache<Key, CachedObject> cache;
+	private final long defaultTtlMillis;
+	private final List<OkHttp3ObjectCacheProperties.EndpointTtl> endpoints;
+	private final PathMatcher pathMatcher = new AntPathMatcher();
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder revalidations = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final CookieJar cookieJar;
+
+	public ResponseObjectCache(OkHttp3ObjectCacheProperties properties) {
+		this(properties, CookieJar.NO_COOKIES);
+	}
+
+	/**
+	 * @param properties 缓存配置
+	 * @param cookieJar 客户端使用的 CookieJar；不是 {@link CookieJar#NO_COOKIES} 时请求会由 CookieJar 携带身份信息，结果不会缓存
+	 */
+	public ResponseObjectCache(OkHttp3ObjectCacheProperties properties, CookieJar cookieJar) {
+		this.cookieJar = cookieJar;
+		this.cache = CacheBuilder.newBuilder()
+				.maximumWeight(properties.getMaxSize().toBytes())
+				.weigher((Key key, CachedObject value) -> value.weight)
+				.build();
+		this.defaultTtlMillis = properties.getDefaultTtl().toMillis();
+		this.endpoints = new ArrayList<>(properties.getEndpoints());
+	}
+
+	/**
+	 * 只缓存不携带 Authorization/Cookie 请求头的 GET 请求
+	 */
+	public boolean isCacheable(Request request) {
+		return "GET".equals(request.method()) && !SharedResponses.hasCredentials(request);
+	}
+
+	/**
+	 * 响应是否可以在调用方之间共享，见 {@link SharedResponses#isShareable(Response, CookieJar)}
+	 */
+	protected boolean isShareable(Response response) {
+		return SharedResponses.isShareable(response, cookieJar);
+	}
+
+	/**
+	 * 生成缓存键：查询参数按名称排序，参数顺序不同的相同请求共享缓存
+	 */
+	public Key key(HttpUrl url, JavaType type) {
+		if (url.querySize() > 1) {
+			HttpUrl.Builder builder = url.newBuilder().query(null);
+			for (String name : new TreeSet<>(url.queryParameterNames())) {
+				for (String value : url.queryParameterValues(name)) {
+					builder.addQueryParameter(name, value);
+				}
+			}
+			return new Key(builder.build().toString(), type);
+		}
+		return new Key(url.toString(), type);
+	}
+
+	public CachedObject get(Key key) {
+		return cache.getIfPresent(key);
+	}
+
+	/**
+	 * 有效期内命中缓存
+	 */
+	public Object hit(CachedObject cached) {
+		hits.increment();
+		return cached.value;
+	}
+
+	/**
+	 * 为已过期的缓存对象添加条件请求头
+	 */
+	public Request conditional(Request request, CachedObject cached) {
+		Request.Builder builder = request.newBuilder();
+		if (Objects.nonNull(cached.etag)) {
+			builder.header("If-None-Match", cached.etag);
+		}
+		if (Objects.nonNull(cached.lastModified)) {
+			builder.header("If-Modified-Since", cached.lastModified);
+		}
+		return builder.build();
+	}
+
+	/**
+	 * 条件请求返回 304：按新的响应续期并返回缓存对象
+	 */
+	public Object revalidated(Key key, CachedObject cached, Response response) {
+		revalidations.increment();
+		if (!this.isShareable(response)) {
+			cache.invalidate(key);
+			return cached.value;
+		}
+		cache.put(key, new CachedObject(cached.value, cached.etag, cached.lastModified,
+				this.expiresAtMillis(key, response), cached.weight));
+		return cached.value;
+	}
+
+	/**
+	 * 缓存新读取的对象；既没有有效期也没有校验值的结果不会缓存
+	 */
+	public void put(Key key, Response response, Object value, long bodySize) {
+		misses.increment();
+		if (Objects.isNull(value) || !this.isShareable(response)) {
+			return;
+		}
+		String etag = response.header("ETag");
+		String lastModified = response.header("Last-Modified");
+		long expiresAtMillis = this.expiresAtMillis(key, response);
+		if (Objects.isNull(etag) && Objects.isNull(lastModified) && expiresAtMillis <= System.currentTimeMillis()) {
+			return;
+		}
+		int weight = (int) Math.min(Integer.MAX_VALUE, bodySize + key.url.length() + 64);
+		cache.put(key, new CachedObject(value, etag, lastModified, expiresAtMillis, weight));
+	}
+
+	/**
+	 * 有效期：匹配的端点规则优先，其次是响应的 max-age/Expires，最后是默认有效期
+	 */
+	protected long expiresAtMillis(Key key, Response response) {
+		long now = System.currentTimeMillis();
+		String path = response.request().url().encodedPath();
+		for (OkHttp3ObjectCacheProperties.EndpointTtl endpoint : endpoints) {
+			if (pathMatcher.match(endpoint.getPattern(), path)) {
+				return now + endpoint.getTtl().toMillis();
+			}
+		}
+		CacheControl cacheControl = response.cacheControl();
+		if (cacheControl.noCache()) {
+			return now;
+		}
+		if (cacheControl.maxAgeSeconds() >= 0) {
+			return now + TimeUnit.SECONDS.toMillis(cacheControl.maxAgeSeconds());
+		}
+		return now + defaultTtlMillis;
+	}
+
+	public void invalidateAll() {
+		cache.invalidateAll();
+	}
+
+	@Override
+	public String getStatisticsName() {
+		return "objectCache";
+	}
+
+	@Override
+	public Map<String, Object> getStatistics() {
+		Map<String, Object> statistics = new LinkedHashMap<>();
+		statistics.put("hits", hits.sum());
+		statistics.put("revalidations", revalidations.sum());
+		statistics.put("misses", misses.sum());
+		statistics.put("entries", cache.size());
+		return statistics;
+	}
+
+	/**
+	 * 缓存键：规范化的 URL + 目标类型
+	 */
+	public static final class Key {
+
+		private final String url;
+		private final JavaType type;
+		private final int hash;
+
+		Key(String url, JavaType type) {
+			this.url = url;
+			this.type = type;
+			this.hash = 31 * url.hashCode() + type.hashCode();
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (this == o) {
+				return true;
+			}
+			if (!(o instanceof Key)) {
+				return false;
+			}
+			Key other = (Key) o;
+			return hash == other.hash && url.equals(other.url) && type.equals(other.type);
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+
+	}
+
+	/**
+	 * 缓存的反序列化结果及其校验值、有效期
+	 */
+	public static final class CachedObject {
+
+		private final Object value;
+		private final String etag;
+		private final String lastModified;
+		private final long expiresAtMillis;
+		private final int weight;
+
+		CachedObject(Object value, String etag, String lastModified, long expiresAtMillis, int weight) {
+			this.value = value;
+			this.etag = etag;
+			this.lastModified = lastModified;
+			this.expiresAtMillis = expiresAtMillis;
+			this.weight = weight;
+		}
+
+		public boolean isFresh(long nowMillis) {
+			return nowMillis < expiresAtMillis;
+		}
+
+		public boolean hasValidator() {
+			return Objects.nonNull(etag) || Objects.nonNull(lastModified);
+		}
+
+	}
+
+}
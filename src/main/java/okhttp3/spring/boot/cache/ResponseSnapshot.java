@@ -0,0 +1,140 @@
+/*
+ * Copyright (c) 2018, hiwepy (https://github.com/hiwepy).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package okhttp3.spring.boot.cache;
+
+import java.io.IOException;
+import java.util.Objects;
+
+import okhttp3.Handshake;
+import okhttp3.Headers;
+import okhttp3.MediaType;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okio.BufferedSource;
+
+/**
+ * 已完整读入内存的响应快照，可以为任意请求重复生成独立的 {@link Response}
+ *
+ * @author ： <a href="https://github.com/hiwepy">hiwepy</a>
+ */
+public class ResponseSnapshot {
+
+	private final Protocol protocol;
+	private final int code;
+	private final String message;
+	private final Headers headers;
+	private final Handshake handshake;
+	private final MediaType contentType;
+	private final byte[] body;
+	private final long sentRequestAtMillis;
+	private final long receivedResponseAtMillis;
+
+	protected ResponseSnapshot(Response response, MediaType contentType, byte[] body) {
+		this.protocol = response.protocol();
+		this.code = response.code();
+		this.message = response.message();
+		this.headers = response.headers();
+		this.handshake = response.handshake();
+		this.contentType = contentType;
+		this.body = body;
+		this.sentRequestAtMillis = response.sentRequestAtMillis();
+		this.receivedResponseAtMillis = response.receivedResponseAtMillis();
+	}
+
+	/**
+	 * 读取响应体并生成快照；响应体超过 maxBodySize 时返回 null，此时响应体只被缓冲而未被消费，原响应仍可正常读取
+	 *
+	 * @param response 响应对象
+	 * @param maxBodySize 允许读入内存的最大响应体
+	 * @return 响应快照
+	 * @throws IOException 读取失败时抛出
+	 */
+	public static ResponseSnapshot of(Response response, long maxBodySize) throws IOException {
+		ResponseBody responseBody = response.body();
+		if (Objects.isNull(responseBody)) {
+			return new ResponseSnapshot(response, null, new byte[0]);
+		}
+		if (responseBody.contentLength() > maxBodySize) {
+			return null;
+		}
+		BufferedSource source = responseBody.source();
+		if (source.request(maxBodySize + 1)) {
+			return null;
+		}
+		byte[] bytes = source.readByteArray();
+		responseBody.close();
+		return new ResponseSnapshot(response, responseBody.contentType(), bytes);
+	}
+
+	/**
+	 * 为指定请求生成新的响应对象
+	 *
+	 * @param request 请求对象
+	 * @return 响应对象
+	 */
+	public Response toResponse(Request request) {
+		return this.newBuilder(request).build();
+	}
+
+	/**
+	 * 为指定请求生成新的响应构建器，可在此基础上调整响应头等信息
+	 *
+	 * @param request 请求对象
+	 * @return 响应构建器
+	 */
+	public Response.Builder newBuilder(Request request) {
+		return new Response.Builder()
+				.request(request)
+				.protocol(protocol)
+				.code(code)
+				.message(message)
+				.headers(headers)
+				.handshake(handshake)
+				.body(ResponseBody.create(contentType, body))
+				.sentRequestAtMillis(sentRequestAtMillis)
+				.receivedResponseAtMillis(receivedResponseAtMillis);
+	}
+
+	/**
+	 * @return 估算的内存占用（字节），用于按容量淘汰
+	 */
+	public int weight() {
+		return body.length + (int) headers.byteCount() + 64;
+	}
+
+	public int code() {
+		return code;
+	}
+
+	public Headers headers() {
+		return headers;
+	}
+
+	public MediaType contentType() {
+		return contentType;
+	}
+
+	public byte[] body() {
+		return body;
+	}
+
+	public long receivedResponseAtMillis() {
+		return receivedResponseAtMillis;
+	}
+
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright (c) 2018, hiwepy (https://github.com/hiwepy).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package okhttp3.spring.boot.cache;
+
+import java.util.Objects;
+
+import okhttp3.CacheControl;
+import okhttp3.CookieJar;
+import okhttp3.Request;
+import okhttp3.Response;
+
+/**
+ * 判断响应能否在调用方之间共享的工具类，供内存响应缓存及反序列化结果缓存共用
+ *
+ * @author ： <a href="https://github.com/hiwepy">wandl</a>
+ */
+public final class SharedResponses {
+
+	private SharedResponses() {
+	}
+
+	/**
+	 * 请求是否携带 Authorization/Cookie 等身份信息
+	 *
+	 * @param request 请求
+	 * @return 是否携带身份信息
+	 */
+	public static boolean hasCredentials(Request request) {
+		return Objects.nonNull(request.header("Authorization")) || Objects.nonNull(request.header("Cookie"));
+	}
+
+	/**
+	 * 响应是否可以在调用方之间共享：客户端不能配置 CookieJar；实际发出的请求（BridgeInterceptor 会把
+	 * {@link Response#request()} 重置为应用层请求，因此需要检查 networkResponse/cacheResponse 及重定向前的请求）
+	 * 不能携带身份信息；响应不能为 private/no-store，也不能按 Accept-Encoding 以外的请求头变化
+	 *
+	 * @param response 响应
+	 * @param cookieJar 客户端使用的 CookieJar
+	 * @return 是否可以共享
+	 */
+	public static boolean isShareable(Response response, CookieJar cookieJar) {
+		if (cookieJar != CookieJar.NO_COOKIES) {
+			return false;
+		}
+		CacheControl cacheControl = response.cacheControl();
+		if (cacheControl.noStore() || cacheControl.isPrivate()) {
+			return false;
+		}
+		for (Response current = response; Objects.nonNull(current); current = current.priorResponse()) {
+			if (hasCredentials(current.request())
+					|| Objects.nonNull(current.networkResponse()) && hasCredentials(current.networkResponse().request())
+					|| Objects.nonNull(current.cacheResponse()) && hasCredentials(current.cacheResponse().request())) {
+				return false;
+			}
+		}
+		for (String vary : response.headers("Vary")) {
+			for (String field : vary.split(",")) {
+				if (!field.trim().isEmpty() && !"Accept-Encoding".equalsIgnoreCase(field.trim())) {
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+
+}
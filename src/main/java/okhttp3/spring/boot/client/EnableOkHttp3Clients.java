@@ -0,0 +1,47 @@
+/*
+ * Copyright (c) 2018, hiwepy (https://github.com/hiwepy).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package okhttp3.spring.boot.client;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import org.springframework.context.annotation.Import;
+
+/**
+ * 扫描并注册 {@link OkHttp3Client} 声明的客户端接口
+ *
+ * @author ： <a href="https://github.com/hiwepy">wandl</a>
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+@Import(OkHttp3ClientsRegistrar.class)
+public @interface EnableOkHttp3Clients {
+
+	/**
+	 * 扫描的包，默认为注解所在类的包
+	 */
+	String[] basePackages() default {};
+
+	/**
+	 * 直接注册的客户端接口，指定后不再扫描
+	 */
+	Class<?>[] clients() default {};
+
+}
@@ -0,0 +1,49 @@
+/*
+ * Copyright (c) 2018, hiwepy (https://github.com/hiwepy).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package okhttp3.spring.boot.client;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 声明式 HTTP 客户端接口，由 {@link EnableOkHttp3Clients} 扫描并注册为 Spring Bean
+ *
+ * @author ： <a href="https://github.com/hiwepy">wandl</a>
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface OkHttp3Client {
+
+	/**
+	 * Bean 名称，默认为接口名称首字母小写
+	 */
+	String value() default "";
+
+	/**
+	 * 客户端基础地址，支持 ${...} 占位符；为空时使用请求模板的 baseUrl
+	 */
+	String url() default "";
+
+	/**
+	 * 使用的 OkHttp3Template Bean 名称，为空时使用容器中唯一（或 Primary）的模板
+	 */
+	String template() default "";
+
+}
@@ -0,0 +1,289 @@
+/*
+ * Copyright (c) 2018, hiwepy (https://github.com/hiwepy).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package okhttp3.spring.boot.client;
+
+import java.io.InputStream;
+import java.lang.annotation.Annotation;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Proxy;
+import java.lang.reflect.Type;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+
+import org.springframework.util.StringUtils;
+
+import com.fasterxml.jackson.databind.JavaType;
+
+import okhttp3.Response;
+import okhttp3.spring.boot.CompiledEndpoint;
+import okhttp3.spring.boot.OkHttp3Template;
+import okhttp3.spring.boot.OkHttp3Template.HttpMethod;
+
+/**
+ * 声明式客户端工厂：创建代理时一次性解析接口上的全部注解、URL 模板及返回值类型，生成每个方法的调用器，
+ * 调用时只需按方法查找调用器并绑定参数，不再进行反射解析
+ *
+ * 支持的返回值类型：普通对象（同步请求）、{@link CompletableFuture}（异步请求）、
+ * {@link Response} 与 {@link InputStream}（流式读取，调用方负责关闭）以及 void
+ *
+ * @author ： <a href="https://github.com/hiwepy">wandl</a>
+ */
+public class OkHttp3ClientFactory {
+
+	private final OkHttp3Template template;
+
+	public OkHttp3ClientFactory(OkHttp3Template template) {
+		this.template = template;
+	}
+
+	/**
+	 * 创建客户端代理
+	 *
+	 * @param clientType 客户端接口
+	 * @param url 客户端基础地址，为空时使用模板的 baseUrl
+	 * @return 客户端代理
+	 */
+	@SuppressWarnings("unchecked")
+	public <T> T create(Class<T> clientType, String url) {
+		if (!clientType.isInterface()) {
+			throw new IllegalArgumentException("OkHttp3 client must be an interface : " + clientType.getName());
+		}
+		Map<Method, MethodInvoker> invokers = new HashMap<>();
+		Map<Method, MethodHandle> defaultMethods = new HashMap<>();
+		for (Method method : clientType.getMethods()) {
+			if (Modifier.isStatic(method.getModifiers())) {
+				continue;
+			}
+			if (method.isDefault()) {
+				defaultMethods.put(method, this.defaultMethodHandle(method));
+				continue;
+			}
+			invokers.put(method, this.createInvoker(clientType, method, url));
+		}
+		String description = clientType.getName() + (StringUtils.hasText(url) ? "(" + url + ")" : "");
+		InvocationHandler handler = (proxy, method, args) -> {
+			MethodInvoker invoker = invokers.get(method);
+			if (Objects.nonNull(invoker)) {
+				return invoker.invoke(Objects.isNull(args) ? new Object[0] : args);
+			}
+			MethodHandle defaultMethod = defaultMethods.get(method);
+			if (Objects.nonNull(defaultMethod)) {
+				return defaultMethod.bindTo(proxy).invokeWithArguments(Objects.isNull(args) ? new Object[0] : args);
+			}
+			switch (method.getName()) {
+			case "equals":
+				return proxy == args[0];
+			case "hashCode":
+				return System.identityHashCode(proxy);
+			case "toString":
+				return description;
+			default:
+				throw new UnsupportedOperationException("Unsupported method on OkHttp3 client : " + method);
+			}
+		};
+		return (T) Proxy.newProxyInstance(clientType.getClassLoader(), new Class<?>[] { clientType }, handler);
+	}
+
+	/**
+	 * 解析接口默认方法的调用句柄：JDK 9+ 使用 MethodHandles#privateLookupIn，JDK 8 通过 Lookup 的私有构造器获取
+	 * 声明该方法的接口的私有访问权限，再以 invokespecial 方式调用接口中的默认实现
+	 */
+	protected MethodHandle defaultMethodHandle(Method method) {
+		Class<?> declaringClass = method.getDeclaringClass();
+		try {
+			MethodHandles.Lookup lookup;
+			try {
+				Method privateLookupIn = MethodHandles.class.getMethod("privateLookupIn", Class.class, MethodHandles.Lookup.class);
+				lookup = (MethodHandles.Lookup) privateLookupIn.invoke(null, declaringClass, MethodHandles.lookup());
+			} catch (NoSuchMethodException e) {
+				Constructor<MethodHandles.Lookup> constructor = MethodHandles.Lookup.class.getDeclaredConstructor(Class.class, int.class);
+				constructor.setAccessible(true);
+				lookup = constructor.newInstance(declaringClass, MethodHandles.Lookup.PRIVATE);
+			}
+			return lookup.unreflectSpecial(method, declaringClass);
+		} catch (ReflectiveOperationException | RuntimeException e) {
+			throw new IllegalStateException("Can not invoke default method " + declaringClass.getName() + "#" + method.getName(), e);
+		}
+	}
+
+	protected MethodInvoker createInvoker(Class<?> clientType, Method method, String url) {
+		// 1、解析请求方法与路径模板
+		HttpMethod httpMethod = null;
+		String path = null;
+		for (Annotation annotation : method.getAnnotations()) {
+			if (annotation instanceof Get) {
+				httpMethod = HttpMethod.GET;
+				path = ((Get) annotation).value();
+			} else if (annotation instanceof Post) {
+				httpMethod = HttpMethod.POST;
+				path = ((Post) annotation).value();
+			} else if (annotation instanceof Put) {
+				httpMethod = HttpMethod.PUT;
+				path = ((Put) annotation).value();
+			} else if (annotation instanceof Patch) {
+				httpMethod = HttpMethod.PATCH;
+				path = ((Patch) annotation).value();
+			} else if (annotation instanceof Delete) {
+				httpMethod = HttpMethod.DELETE;
+				path = ((Delete) annotation).value();
+			} else if (annotation instanceof Head) {
+				httpMethod = HttpMethod.HEAD;
+				path = ((Head) annotation).value();
+			}
+		}
+		if (Objects.isNull(httpMethod)) {
+			throw new IllegalStateException("Missing HTTP method annotation on " + clientType.getName() + "#" + method.getName());
+		}
+		String uriTemplate = StringUtils.hasText(url) ? this.join(url, path) : path;
+		CompiledEndpoint endpoint = template.endpoint(httpMethod.getName() + " " + uriTemplate);
+		// 2、解析参数绑定方式
+		Annotation[][] parameterAnnotations = method.getParameterAnnotations();
+		ArgumentBinder[] binders = new ArgumentBinder[parameterAnnotations.length];
+		for (int i = 0; i < parameterAnnotations.length; i++) {
+			binders[i] = this.createBinder(method, i, method.getParameterTypes()[i], parameterAnnotations[i]);
+		}
+		// 3、解析返回值类型
+		Class<?> returnType = method.getReturnType();
+		if (CompletableFuture.class.equals(returnType)) {
+			Type genericType = method.getGenericReturnType();
+			Type valueType = genericType instanceof ParameterizedType ? ((ParameterizedType) genericType).getActualTypeArguments()[0] : Object.class;
+			JavaType javaType = template.getJavaType(valueType);
+			return args -> {
+				RequestArguments arguments = this.bind(binders, args);
+				return endpoint.executeAsync(arguments.uriVariables, arguments.queryParams, arguments.headers, arguments.body, javaType);
+			};
+		}
+		if (Response.class.equals(returnType)) {
+			return args -> {
+				RequestArguments arguments = this.bind(binders, args);
+				return endpoint.exchange(arguments.uriVariables, arguments.queryParams, arguments.headers, arguments.body);
+			};
+		}
+		if (InputStream.class.equals(returnType)) {
+			return args -> {
+				RequestArguments arguments = this.bind(binders, args);
+				Response response = endpoint.exchange(arguments.uriVariables, arguments.queryParams, arguments.headers, arguments.body);
+				if (Objects.isNull(response) || Objects.isNull(response.body())) {
+					return null;
+				}
+				return response.body().byteStream();
+			};
+		}
+		JavaType javaType = template.getJavaType(Void.class.equals(returnType) ? Void.TYPE : method.getGenericReturnType());
+		return args -> {
+			RequestArguments arguments = this.bind(binders, args);
+			return endpoint.execute(arguments.uriVariables, arguments.queryParams, arguments.headers, arguments.body, javaType);
+		};
+	}
+
+	@SuppressWarnings("unchecked")
+	protected ArgumentBinder createBinder(Method method, int index, Class<?> parameterType, Annotation[] annotations) {
+		for (Annotation annotation : annotations) {
+			if (annotation instanceof Path) {
+				String name = ((Path) annotation).value();
+				return (arguments, value) -> arguments.uriVariables.put(name, value);
+			}
+			if (annotation instanceof Query) {
+				String name = ((Query) annotation).value();
+				if (Map.class.isAssignableFrom(parameterType)) {
+					return (arguments, value) -> {
+						if (Objects.nonNull(value)) {
+							arguments.queryParams.putAll((Map<String, Object>) value);
+						}
+					};
+				}
+				return (arguments, value) -> {
+					if (Objects.nonNull(value)) {
+						arguments.queryParams.put(name, value);
+					}
+				};
+			}
+			if (annotation instanceof Header) {
+				String name = ((Header) annotation).value();
+				if (Map.class.isAssignableFrom(parameterType)) {
+					return (arguments, value) -> {
+						if (Objects.nonNull(value)) {
+							arguments.headers.putAll((Map<String, Object>) value);
+						}
+					};
+				}
+				return (arguments, value) -> {
+					if (Objects.nonNull(value)) {
+						arguments.headers.put(name, value);
+					}
+				};
+			}
+			if (annotation instanceof Body) {
+				return (arguments, value) -> arguments.body = value;
+			}
+		}
+		throw new IllegalStateException("Missing @Path/@Query/@Header/@Body on parameter " + index + " of " + method);
+	}
+
+	protected RequestArguments bind(ArgumentBinder[] binders, Object[] args) {
+		RequestArguments arguments = new RequestArguments();
+		for (int i = 0; i < binders.length; i++) {
+			binders[i].bind(arguments, args[i]);
+		}
+		return arguments;
+	}
+
+	protected String join(String url, String path) {
+		if (!StringUtils.hasText(path)) {
+			return url;
+		}
+		if (url.endsWith("/") && path.startsWith("/")) {
+			return url + path.substring(1);
+		}
+		if (!url.endsWith("/") && !path.startsWith("/")) {
+			return url + "/" + path;
+		}
+		return url + path;
+	}
+
+	@FunctionalInterface
+	protected interface MethodInvoker {
+
+		Object invoke(Object[] args) throws Exception;
+
+	}
+
+	@FunctionalInterface
+	protected interface ArgumentBinder {
+
+		void bind(RequestArguments arguments, Object value);
+
+	}
+
+	protected static class RequestArguments {
+
+		private final Map<String, Object> uriVariables = new HashMap<>();
+		private final Map<String, Object> queryParams = new LinkedHashMap<>();
+		private final Map<String, Object> headers = new LinkedHashMap<>();
+		private Object body;
+
+	}
+
+}
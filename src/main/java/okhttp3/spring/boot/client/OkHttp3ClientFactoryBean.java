@@ -0,0 +1,88 @@
+/*
+ * Copyright (c) 2018, hiwepy (https://github.com/hiwepy).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package okhttp3.spring.boot.client;
+
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.BeanFactoryAware;
+import org.springframework.beans.factory.FactoryBean;
+import org.springframework.context.EnvironmentAware;
+import org.springframework.core.env.Environment;
+import org.springframework.util.StringUtils;
+
+import okhttp3.spring.boot.OkHttp3Template;
+
+/**
+ * 创建 {@link OkHttp3Client} 客户端代理的 FactoryBean
+ *
+ * @author ： <a href="https://github.com/hiwepy">wandl</a>
+ */
+public class OkHttp3ClientFactoryBean<T> implements FactoryBean<T>, BeanFactoryAware, EnvironmentAware {
+
+	private Class<T> type;
+	private String url;
+	private String template;
+	private BeanFactory beanFactory;
+	private Environment environment;
+
+	@Override
+	public T getObject() throws Exception {
+		OkHttp3Template okHttp3Template = StringUtils.hasText(template)
+				? beanFactory.getBean(template, OkHttp3Template.class)
+				: beanFactory.getBean(OkHttp3Template.class);
+		String resolvedUrl = StringUtils.hasText(url) ? environment.resolveRequiredPlaceholders(url) : url;
+		return new OkHttp3ClientFactory(okHttp3Template).create(type, resolvedUrl);
+	}
+
+	@Override
+	public Class<?> getObjectType() {
+		return type;
+	}
+
+	@Override
+	public void setBeanFactory(BeanFactory beanFactory) {
+		this.beanFactory = beanFactory;
+	}
+
+	@Override
+	public void setEnvironment(Environment environment) {
+		this.environment = environment;
+	}
+
+	public Class<T> getType() {
+		return type;
+	}
+
+	public void setType(Class<T> type) {
+		this.type = type;
+	}
+
+	public String getUrl() {
+		return url;
+	}
+
+	public void setUrl(String url) {
+		this.url = url;
+	}
+
+	public String getTemplate() {
+		return template;
+	}
+
+	public void setTemplate(String template) {
+		this.template = template;
+	}
+
+}
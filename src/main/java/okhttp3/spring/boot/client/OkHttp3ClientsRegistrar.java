@@ -0,0 +1,125 @@
+/*
+ * Copyright (c) 2018, hiwepy (https://github.com/hiwepy).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package okhttp3.spring.boot.client;
+
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import org.springframework.beans.factory.FactoryBean;
+import org.springframework.beans.factory.annotation.AnnotatedBeanDefinition;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.support.AbstractBeanDefinition;
+import org.springframework.beans.factory.support.BeanDefinitionBuilder;
+import org.springframework.beans.factory.support.BeanDefinitionRegistry;
+import org.springframework.context.EnvironmentAware;
+import org.springframework.context.ResourceLoaderAware;
+import org.springframework.context.annotation.ClassPathScanningCandidateComponentProvider;
+import org.springframework.context.annotation.ImportBeanDefinitionRegistrar;
+import org.springframework.core.annotation.AnnotationUtils;
+import org.springframework.core.env.Environment;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.core.type.AnnotationMetadata;
+import org.springframework.core.type.filter.AnnotationTypeFilter;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.StringUtils;
+
+/**
+ * 扫描 {@link OkHttp3Client} 接口并注册为 {@link OkHttp3ClientFactoryBean}
+ *
+ * @author ： <a href="https://github.com/hiwepy">wandl</a>
+ */
+public class OkHttp3ClientsRegistrar implements ImportBeanDefinitionRegistrar, ResourceLoaderAware, EnvironmentAware {
+
+	private ResourceLoader resourceLoader;
+	private Environment environment;
+
+	@Override
+	public void registerBeanDefinitions(AnnotationMetadata metadata, BeanDefinitionRegistry registry) {
+		Map<String, Object> attributes = metadata.getAnnotationAttributes(EnableOkHttp3Clients.class.getName());
+		Set<String> clientClassNames = new LinkedHashSet<>();
+		Class<?>[] clients = Objects.isNull(attributes) ? new Class<?>[0] : (Class<?>[]) attributes.get("clients");
+		if (clients.length > 0) {
+			for (Class<?> client : clients) {
+				clientClassNames.add(client.getName());
+			}
+		} else {
+			Set<String> basePackages = new LinkedHashSet<>();
+			if (Objects.nonNull(attributes)) {
+				for (String basePackage : (String[]) attributes.get("basePackages")) {
+					if (StringUtils.hasText(basePackage)) {
+						basePackages.add(basePackage);
+					}
+				}
+			}
+			if (basePackages.isEmpty()) {
+				basePackages.add(ClassUtils.getPackageName(metadata.getClassName()));
+			}
+			ClassPathScanningCandidateComponentProvider scanner = this.getScanner();
+			for (String basePackage : basePackages) {
+				for (BeanDefinition candidate : scanner.findCandidateComponents(basePackage)) {
+					clientClassNames.add(candidate.getBeanClassName());
+				}
+			}
+		}
+		for (String className : clientClassNames) {
+			this.registerClient(registry, className);
+		}
+	}
+
+	protected void registerClient(BeanDefinitionRegistry registry, String className) {
+		Class<?> clientType = ClassUtils.resolveClassName(className, resourceLoader.getClassLoader());
+		OkHttp3Client client = AnnotationUtils.findAnnotation(clientType, OkHttp3Client.class);
+		if (Objects.isNull(client)) {
+			throw new IllegalStateException("Missing @OkHttp3Client on " + className);
+		}
+		BeanDefinitionBuilder builder = BeanDefinitionBuilder.genericBeanDefinition(OkHttp3ClientFactoryBean.class);
+		builder.addPropertyValue("type", clientType);
+		builder.addPropertyValue("url", client.url());
+		builder.addPropertyValue("template", client.template());
+		builder.setAutowireMode(AbstractBeanDefinition.AUTOWIRE_BY_TYPE);
+		AbstractBeanDefinition beanDefinition = builder.getBeanDefinition();
+		beanDefinition.setAttribute(FactoryBean.OBJECT_TYPE_ATTRIBUTE, clientType);
+		String beanName = StringUtils.hasText(client.value()) ? client.value() : StringUtils.uncapitalize(ClassUtils.getShortName(clientType));
+		registry.registerBeanDefinition(beanName, beanDefinition);
+	}
+
+	protected ClassPathScanningCandidateComponentProvider getScanner() {
+		ClassPathScanningCandidateComponentProvider scanner = new ClassPathScanningCandidateComponentProvider(false, environment) {
+
+			@Override
+			protected boolean isCandidateComponent(AnnotatedBeanDefinition beanDefinition) {
+				return beanDefinition.getMetadata().isIndependent() && beanDefinition.getMetadata().isInterface();
+			}
+
+		};
+		scanner.setResourceLoader(resourceLoader);
+		scanner.addIncludeFilter(new AnnotationTypeFilter(OkHttp3Client.class));
+		return scanner;
+	}
+
+	@Override
+	public void setResourceLoader(ResourceLoader resourceLoader) {
+		this.resourceLoader = resourceLoader;
+	}
+
+	@Override
+	public void setEnvironment(Environment environment) {
+		this.environment = environment;
+	}
+
+}
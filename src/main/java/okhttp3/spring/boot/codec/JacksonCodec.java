@@ -0,0 +1,92 @@
+/*
+ * Copyright (c) 2018, hiwepy (https://github.com/hiwepy).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package okhttp3.spring.boot.codec;
+
+import java.io.IOException;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import okhttp3.MediaType;
+import okhttp3.RequestBody;
+import okhttp3.ResponseBody;
+import okhttp3.spring.boot.JacksonRequestBody;
+
+/**
+ * 基于 Jackson 的编解码器，适用于任意 Jackson 数据格式（JSON、Smile、CBOR 等），
+ * ObjectReader/ObjectWriter 按类型缓存
+ *
+ * @author ： <a href="https://github.com/hiwepy">wandl</a>
+ */
+public class JacksonCodec implements OkHttp3Codec {
+
+	public final static MediaType APPLICATION_SMILE = MediaType.get("application/x-jackson-smile");
+	public final static MediaType APPLICATION_CBOR = MediaType.get("application/cbor");
+
+	private final ObjectMapper objectMapper;
+	private final MediaType mediaType;
+	private final ConcurrentMap<JavaType, ObjectReader> readers = new ConcurrentHashMap<>();
+	private final ConcurrentMap<Class<?>, ObjectWriter> writers = new ConcurrentHashMap<>();
+
+	public JacksonCodec(ObjectMapper objectMapper, MediaType mediaType) {
+		this.objectMapper = Objects.requireNonNull(objectMapper, "objectMapper");
+		this.mediaType = Objects.requireNonNull(mediaType, "mediaType");
+	}
+
+	@Override
+	public MediaType getMediaType() {
+		return mediaType;
+	}
+
+	@Override
+	public boolean canRead(JavaType type) {
+		return true;
+	}
+
+	@Override
+	public boolean canWrite(Class<?> type) {
+		return true;
+	}
+
+	@Override
+	public RequestBody encode(Object value) {
+		return new JacksonRequestBody(mediaType, this.getObjectWriter(value.getClass()), value);
+	}
+
+	@Override
+	public <T> T decode(ResponseBody body, JavaType type) throws IOException {
+		return this.getObjectReader(type).readValue(body.byteStream());
+	}
+
+	protected ObjectReader getObjectReader(JavaType type) {
+		return readers.computeIfAbsent(type, objectMapper::readerFor);
+	}
+
+	protected ObjectWriter getObjectWriter(Class<?> cls) {
+		return writers.computeIfAbsent(cls, key -> objectMapper.writerFor(key).without(JsonGenerator.Feature.AUTO_CLOSE_TARGET));
+	}
+
+	public ObjectMapper getObjectMapper() {
+		return objectMapper;
+	}
+
+}
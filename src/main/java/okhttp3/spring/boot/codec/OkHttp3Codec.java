@@ -0,0 +1,81 @@
+/*
+ * Copyright (c) 2018, hiwepy (https://github.com/hiwepy).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package okhttp3.spring.boot.codec;
+
+import java.io.IOException;
+import java.util.Objects;
+
+import com.fasterxml.jackson.databind.JavaType;
+
+import okhttp3.MediaType;
+import okhttp3.RequestBody;
+import okhttp3.ResponseBody;
+
+/**
+ * 请求体/响应体编解码 SPI：{@link okhttp3.spring.boot.OkHttp3Template} 按响应的 Content-Type 选择解码器，
+ * 按配置的请求类型选择编码器，并根据已注册的编解码器生成 Accept 请求头
+ *
+ * @author ： <a href="https://github.com/hiwepy">wandl</a>
+ */
+public interface OkHttp3Codec {
+
+	/**
+	 * @return 编解码器对应的媒体类型，例如：application/x-jackson-smile
+	 */
+	MediaType getMediaType();
+
+	/**
+	 * 是否支持指定的媒体类型，只比较 type/subtype，忽略 charset 等参数
+	 *
+	 * @param contentType 媒体类型
+	 * @return 是否支持
+	 */
+	default boolean supports(MediaType contentType) {
+		return Objects.nonNull(contentType) && getMediaType().type().equalsIgnoreCase(contentType.type())
+				&& getMediaType().subtype().equalsIgnoreCase(contentType.subtype());
+	}
+
+	/**
+	 * @param type 目标类型
+	 * @return 是否可以将响应体解码为该类型
+	 */
+	boolean canRead(JavaType type);
+
+	/**
+	 * @param type 对象类型
+	 * @return 是否可以将该类型的对象编码为请求体
+	 */
+	boolean canWrite(Class<?> type);
+
+	/**
+	 * 将对象编码为请求体，编码应在发送时直接写入输出流
+	 *
+	 * @param value 请求对象
+	 * @return 请求体
+	 */
+	RequestBody encode(Object value);
+
+	/**
+	 * 从响应体中解码对象（不会关闭响应体）
+	 *
+	 * @param body 响应体
+	 * @param type 目标类型
+	 * @return 解码后的对象
+	 * @throws IOException 读取或解析失败时抛出
+	 */
+	<T> T decode(ResponseBody body, JavaType type) throws IOException;
+
+}
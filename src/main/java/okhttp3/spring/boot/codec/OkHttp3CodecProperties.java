@@ -0,0 +1,42 @@
+/*
+ * Copyright (c) 2018, hiwepy (https://github.com/hiwepy).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package okhttp3.spring.boot.codec;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+/**
+ * OkHttp3Template 编解码配置
+ * @author ： <a href="https://github.com/hiwepy">wandl</a>
+ */
+@ConfigurationProperties(OkHttp3CodecProperties.PREFIX)
+@Data
+public class OkHttp3CodecProperties {
+
+	public static final String PREFIX = "okhttp3.codec";
+
+	/**
+	 * 请求体的编码类型，需有对应的编解码器，例如：application/x-jackson-smile；为空或没有对应编解码器时使用 JSON
+	 */
+	private String requestContentType;
+
+	/**
+	 * 是否根据已注册的编解码器自动添加 Accept 请求头，由服务端选择响应格式；默认关闭，避免改变已有服务端的响应格式
+	 */
+	private boolean negotiate = false;
+
+}
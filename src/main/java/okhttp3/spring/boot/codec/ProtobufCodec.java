@@ -0,0 +1,127 @@
+/*
+ * Copyright (c) 2018, hiwepy (https://github.com/hiwepy).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package okhttp3.spring.boot.codec;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
+
+import com.fasterxml.jackson.databind.JavaType;
+
+import okhttp3.MediaType;
+import okhttp3.RequestBody;
+import okhttp3.ResponseBody;
+import okio.BufferedSink;
+
+/**
+ * Protobuf 编解码器：只处理 {@code com.google.protobuf.MessageLite} 的实现类，
+ * 通过反射调用生成类的 {@code parseFrom(InputStream)} 及 {@code writeTo(OutputStream)}，因此 protobuf-java 只需在运行时存在；
+ * 每个消息类型的解析方法只查找一次
+ *
+ * @author ： <a href="https://github.com/hiwepy">wandl</a>
+ */
+public class ProtobufCodec implements OkHttp3Codec {
+
+	public final static String MESSAGE_LITE_CLASS = "com.google.protobuf.MessageLite";
+	public final static MediaType APPLICATION_PROTOBUF = MediaType.get("application/x-protobuf");
+
+	private final Class<?> messageType;
+	private final Method writeTo;
+	private final Method getSerializedSize;
+	private final ConcurrentMap<Class<?>, Method> parsers = new ConcurrentHashMap<>();
+
+	public ProtobufCodec() {
+		this(ProtobufCodec.class.getClassLoader());
+	}
+
+	public ProtobufCodec(ClassLoader classLoader) {
+		this.messageType = ClassUtils.resolveClassName(MESSAGE_LITE_CLASS, classLoader);
+		this.writeTo = ReflectionUtils.findMethod(messageType, "writeTo", OutputStream.class);
+		this.getSerializedSize = ReflectionUtils.findMethod(messageType, "getSerializedSize");
+	}
+
+	@Override
+	public MediaType getMediaType() {
+		return APPLICATION_PROTOBUF;
+	}
+
+	@Override
+	public boolean canRead(JavaType type) {
+		return messageType.isAssignableFrom(type.getRawClass());
+	}
+
+	@Override
+	public boolean canWrite(Class<?> type) {
+		return messageType.isAssignableFrom(type);
+	}
+
+	@Override
+	public RequestBody encode(Object value) {
+		return new RequestBody() {
+
+			@Override
+			public MediaType contentType() {
+				return APPLICATION_PROTOBUF;
+			}
+
+			@Override
+			public long contentLength() throws IOException {
+				return ((Number) invoke(getSerializedSize, value)).longValue();
+			}
+
+			@Override
+			public void writeTo(BufferedSink sink) throws IOException {
+				invoke(writeTo, value, sink.outputStream());
+			}
+
+		};
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public <T> T decode(ResponseBody body, JavaType type) throws IOException {
+		Method parser = parsers.computeIfAbsent(type.getRawClass(), key -> {
+			Method method = ReflectionUtils.findMethod(key, "parseFrom", InputStream.class);
+			if (method == null) {
+				throw new IllegalStateException("No parseFrom(InputStream) method on " + key.getName());
+			}
+			return method;
+		});
+		return (T) invoke(parser, null, body.byteStream());
+	}
+
+	protected Object invoke(Method method, Object target, Object... args) throws IOException {
+		try {
+			return method.invoke(target, args);
+		} catch (InvocationTargetException e) {
+			Throwable cause = e.getTargetException();
+			if (cause instanceof IOException) {
+				throw (IOException) cause;
+			}
+			throw new IOException(cause);
+		} catch (IllegalAccessException e) {
+			throw new IOException(e);
+		}
+	}
+
+}
@@ -0,0 +1,276 @@
+/*
+ * Copyright (c) 2018, hiwepy (https://github.com/hiwepy).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package okhttp3.spring.boot.ext;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.SocketTimeoutException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.core.Ordered;
+
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.spring.boot.OkHttp3Statistics;
+import okhttp3.spring.boot.ext.ConcurrencyLimitProperties.Algorithm;
+
+/**
+ * 自适应并发限制拦截器：按主机维护在途请求数的上限，并根据每个请求的 RTT 及丢弃信号（IO 异常、429、503）动态调整，
+ * 替代固定的 Dispatcher maxRequestsPerHost；达到上限的请求在 maxWait 内等待，超时后抛出 {@link ConcurrencyLimitExceededException}
+ * @author 		： <a href="https://github.com/hiwepy">hiwepy</a>
+ */
+public class AdaptiveConcurrencyLimitInterceptor implements RequestInterceptor, OkHttp3Statistics, Ordered {
+
+	/**
+	 * 应用拦截器的执行顺序，位于重试拦截器之外：一次调用的多次重试只占用一个并发许可
+	 */
+	public static final int ORDER = Ordered.HIGHEST_PRECEDENCE + 500;
+
+	private final ConcurrencyLimitProperties properties;
+	private final long maxWaitNanos;
+	private final ConcurrentMap<String, HostLimiter> limiters = new ConcurrentHashMap<>();
+	private final LongAdder rejected = new LongAdder();
+
+	public AdaptiveConcurrencyLimitInterceptor(ConcurrencyLimitProperties properties) {
+		this.properties = properties;
+		this.maxWaitNanos = properties.getMaxWait().toNanos();
+	}
+
+	@Override
+	public int getOrder() {
+		return ORDER;
+	}
+
+	@Override
+	public Response intercept(Chain chain) throws IOException {
+		Request request = chain.request();
+		String host = request.url().host();
+		HostLimiter limiter = limiters.computeIfAbsent(host, key -> new HostLimiter(properties));
+		if (!limiter.acquire(maxWaitNanos)) {
+			rejected.increment();
+			limiter.rejected.increment();
+			throw new ConcurrencyLimitExceededException(host, limiter.getLimit());
+		}
+		long startNanos = System.nanoTime();
+		boolean dropped = true;
+		boolean sampled = true;
+		try {
+			Response response = chain.proceed(request);
+			dropped = response.code() == 429 || response.code() == 503;
+			// 缓存命中等没有经过网络的响应不反映下游的延迟
+			sampled = Objects.nonNull(response.networkResponse());
+			return response;
+		} catch (IOException e) {
+			sampled = this.isSampled(chain, e);
+			throw e;
+		} finally {
+			limiter.release(System.nanoTime() - startNanos, dropped, sampled);
+		}
+	}
+
+	/**
+	 * 异常是否作为丢弃信号：调用方主动取消（包括被丢弃的排队请求）、熔断器或并发限制的快速失败、线程中断等
+	 * 没有到达下游的异常既不是丢弃信号，也不是有效的延迟样本；读写超时（{@link SocketTimeoutException}）仍作为丢弃信号
+	 */
+	protected boolean isSampled(Chain chain, IOException e) {
+		if (chain.call().isCanceled() || e instanceof CircuitBreakerOpenException || e instanceof ConcurrencyLimitExceededException) {
+			return false;
+		}
+		return !(e instanceof InterruptedIOException) || e instanceof SocketTimeoutException;
+	}
+
+	@Override
+	public String getStatisticsName() {
+		return "concurrencyLimit";
+	}
+
+	@Override
+	public Map<String, Object> getStatistics() {
+		Map<String, Object> statistics = new LinkedHashMap<>();
+		statistics.put("algorithm", properties.getAlgorithm().name());
+		statistics.put("rejected", rejected.sum());
+		Map<String, Object> hosts = new LinkedHashMap<>();
+		for (Map.Entry<String, HostLimiter> entry : limiters.entrySet()) {
+			HostLimiter limiter = entry.getValue();
+			Map<String, Object> host = new LinkedHashMap<>();
+			host.put("limit", limiter.getLimit());
+			host.put("inflight", limiter.inflight.get());
+			host.put("rejected", limiter.rejected.sum());
+			hosts.put(entry.getKey(), host);
+		}
+		statistics.put("hosts", hosts);
+		return statistics;
+	}
+
+	/**
+	 * 单个主机的并发限制：在途请求数通过 CAS 获取，达到限制时在监视器上等待释放
+	 */
+	protected static class HostLimiter {
+
+		/**
+		 * 每经过约 PROBE_MULTIPLIER * limit 个样本重新测量一次基准 RTT
+		 */
+		private static final int PROBE_MULTIPLIER = 30;
+
+		private final Algorithm algorithm;
+		private final int minLimit;
+		private final int maxLimit;
+		private final double backoffRatio;
+		private final double rttTolerance;
+		private final double smoothing;
+		private final AtomicInteger inflight = new AtomicInteger();
+		private final LongAdder rejected = new LongAdder();
+		private volatile int limit;
+		/**
+		 * 调整算法的状态，只在 synchronized 的 {@link #update(long, boolean, int)} 中访问
+		 */
+		private double estimatedLimit;
+		private double longRttNanos;
+		private long minRttNanos = Long.MAX_VALUE;
+		private long samples;
+		private long nextProbe;
+
+		HostLimiter(ConcurrencyLimitProperties properties) {
+			this.algorithm = properties.getAlgorithm();
+			this.minLimit = Math.max(properties.getMinLimit(), 1);
+			this.maxLimit = Math.max(properties.getMaxLimit(), this.minLimit);
+			this.backoffRatio = properties.getBackoffRatio();
+			this.rttTolerance = properties.getRttTolerance();
+			this.smoothing = properties.getSmoothing();
+			this.limit = Math.min(Math.max(properties.getInitialLimit(), minLimit), maxLimit);
+			this.estimatedLimit = this.limit;
+			this.nextProbe = this.probeInterval();
+		}
+
+		boolean acquire(long maxWaitNanos) throws InterruptedIOException {
+			if (this.tryAcquire()) {
+				return true;
+			}
+			if (maxWaitNanos <= 0) {
+				return false;
+			}
+			long deadline = System.nanoTime() + maxWaitNanos;
+			synchronized (this) {
+				while (!this.tryAcquire()) {
+					long remaining = deadline - System.nanoTime();
+					if (remaining <= 0) {
+						return false;
+					}
+					try {
+						TimeUnit.NANOSECONDS.timedWait(this, remaining);
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+						throw new InterruptedIOException("Interrupted while waiting for concurrency limit");
+					}
+				}
+			}
+			return true;
+		}
+
+		private boolean tryAcquire() {
+			int current;
+			do {
+				current = inflight.get();
+				if (current >= limit) {
+					return false;
+				}
+			} while (!inflight.compareAndSet(current, current + 1));
+			return true;
+		}
+
+		void release(long rttNanos, boolean dropped, boolean sampled) {
+			int inflightBefore = inflight.getAndDecrement();
+			if (sampled) {
+				this.update(rttNanos, dropped, inflightBefore);
+				return;
+			}
+			synchronized (this) {
+				this.notifyAll();
+			}
+		}
+
+		synchronized void update(long rttNanos, boolean dropped, int inflightBefore) {
+			samples++;
+			// 定期重置基准 RTT：下游的正常延迟变大后，历史最小值或被拉低的长期均值会使限制被持续压低
+			if (samples >= nextProbe) {
+				minRttNanos = Long.MAX_VALUE;
+				longRttNanos = 0;
+				nextProbe = samples + this.probeInterval();
+			}
+			switch (algorithm) {
+			case AIMD:
+				if (dropped) {
+					estimatedLimit = estimatedLimit * backoffRatio;
+				} else if (inflightBefore * 2 >= limit) {
+					estimatedLimit = estimatedLimit + 1;
+				}
+				break;
+			case VEGAS:
+				minRttNanos = Math.min(minRttNanos, rttNanos);
+				if (dropped) {
+					estimatedLimit = estimatedLimit * backoffRatio;
+				} else if (inflightBefore * 2 >= limit) {
+					// 排队长度 = limit * (1 - minRtt / rtt)
+					double log = Math.max(1, Math.log10(estimatedLimit));
+					double queue = estimatedLimit * (1 - (double) minRttNanos / Math.max(rttNanos, 1));
+					if (queue < 3 * log) {
+						estimatedLimit = estimatedLimit + log;
+					} else if (queue > 6 * log) {
+						estimatedLimit = estimatedLimit - log;
+					}
+				}
+				break;
+			case GRADIENT:
+			default:
+				longRttNanos = longRttNanos <= 0 ? rttNanos : longRttNanos * 0.95 + rttNanos * 0.05;
+				if (dropped) {
+					estimatedLimit = estimatedLimit * backoffRatio;
+				} else if (inflightBefore * 2 >= limit || rttNanos > longRttNanos * rttTolerance) {
+					double gradient = Math.max(0.5, Math.min(1.0, rttTolerance * longRttNanos / Math.max(rttNanos, 1)));
+					double newLimit = estimatedLimit * gradient + Math.sqrt(estimatedLimit);
+					estimatedLimit = estimatedLimit * (1 - smoothing) + newLimit * smoothing;
+				}
+				break;
+			}
+			estimatedLimit = Math.min(Math.max(estimatedLimit, minLimit), maxLimit);
+			int newLimit = (int) estimatedLimit;
+			if (newLimit != limit) {
+				limit = newLimit;
+			}
+			// 唤醒等待中的请求
+			this.notifyAll();
+		}
+
+		int getLimit() {
+			return limit;
+		}
+
+		private long probeInterval() {
+			// 加入随机量，避免多个主机同时重新测量
+			return (long) PROBE_MULTIPLIER * limit + ThreadLocalRandom.current().nextInt(limit + 1);
+		}
+
+	}
+
+}
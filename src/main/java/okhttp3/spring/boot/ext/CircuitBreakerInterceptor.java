@@ -0,0 +1,340 @@
+/*
+ * Copyright (c) 2018, hiwepy (https://github.com/hiwepy).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package okhttp3.spring.boot.ext;
+
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.core.Ordered;
+
+import lombok.extern.slf4j.Slf4j;
+import okhttp3.HttpUrl;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.spring.boot.OkHttp3Statistics;
+import okhttp3.spring.boot.ext.CircuitBreakerProperties.KeyType;
+
+/**
+ * 熔断拦截器：按主机（或路由）统计滑动窗口内的失败率与慢调用率，达到阈值后熔断器打开，
+ * 此后的请求不访问网络直接抛出 {@link CircuitBreakerOpenException}；打开一段时间后进入半开状态，
+ * 只放行有限的探测请求，并根据探测结果重新关闭或打开
+ * @author 		： <a href="https://github.com/hiwepy">hiwepy</a>
+ */
+@Slf4j
+public class CircuitBreakerInterceptor implements RequestInterceptor, OkHttp3Statistics, Ordered {
+
+	/**
+	 * 应用拦截器的执行顺序，位于并发限制拦截器之外：熔断器打开时请求直接失败，不占用并发限制
+	 */
+	public static final int ORDER = Ordered.HIGHEST_PRECEDENCE + 400;
+
+	public enum State {
+		CLOSED, OPEN, HALF_OPEN
+	}
+
+	private final CircuitBreakerProperties properties;
+	private final Set<Integer> recordStatusCodes;
+	private final long slowCallNanos;
+	private final ConcurrentMap<String, Circuit> circuits = new ConcurrentHashMap<>();
+	private final LongAdder rejected = new LongAdder();
+
+	public CircuitBreakerInterceptor(CircuitBreakerProperties properties) {
+		this.properties = properties;
+		this.recordStatusCodes = new HashSet<>(properties.getRecordStatusCodes());
+		this.slowCallNanos = properties.getSlowCallDuration().toNanos();
+	}
+
+	@Override
+	public int getOrder() {
+		return ORDER;
+	}
+
+	@Override
+	public Response intercept(Chain chain) throws IOException {
+		Request request = chain.request();
+		String key = this.circuitKey(request.url());
+		Circuit circuit = circuits.computeIfAbsent(key, k -> new Circuit(k, properties));
+		State admitted = circuit.tryAcquire();
+		if (admitted == null) {
+			rejected.increment();
+			circuit.rejected.increment();
+			throw new CircuitBreakerOpenException(key, circuit.state.get().name());
+		}
+		long startNanos = System.nanoTime();
+		try {
+			Response response = chain.proceed(request);
+			circuit.onResult(admitted, recordStatusCodes.contains(response.code()), System.nanoTime() - startNanos >= slowCallNanos);
+			return response;
+		} catch (IOException | RuntimeException e) {
+			if (chain.call().isCanceled()) {
+				// 调用方主动取消时只归还半开状态的探测名额
+				circuit.onCanceled(admitted);
+			} else {
+				circuit.onResult(admitted, true, System.nanoTime() - startNanos >= slowCallNanos);
+			}
+			throw e;
+		}
+	}
+
+	protected String circuitKey(HttpUrl url) {
+		if (KeyType.ROUTE.equals(properties.getKeyType())) {
+			return url.scheme() + "://" + url.host() + ":" + url.port();
+		}
+		return url.host();
+	}
+
+	/**
+	 * @param key 主机名（或路由）
+	 * @return 熔断器当前状态，尚无请求时返回 {@link State#CLOSED}
+	 */
+	public State getState(String key) {
+		Circuit circuit = circuits.get(key);
+		return circuit == null ? State.CLOSED : circuit.state.get();
+	}
+
+	@Override
+	public String getStatisticsName() {
+		return "circuitBreaker";
+	}
+
+	@Override
+	public Map<String, Object> getStatistics() {
+		Map<String, Object> statistics = new LinkedHashMap<>();
+		statistics.put("rejected", rejected.sum());
+		int open = 0;
+		Map<String, Object> details = new LinkedHashMap<>();
+		for (Map.Entry<String, Circuit> entry : circuits.entrySet()) {
+			Circuit circuit = entry.getValue();
+			long[] window = circuit.window.snapshot();
+			State state = circuit.state.get();
+			if (!State.CLOSED.equals(state)) {
+				open++;
+			}
+			Map<String, Object> detail = new LinkedHashMap<>();
+			detail.put("state", state.name());
+			detail.put("calls", window[0]);
+			detail.put("failureRate", SlidingWindow.rate(window[1], window[0]));
+			detail.put("slowCallRate", SlidingWindow.rate(window[2], window[0]));
+			detail.put("rejected", circuit.rejected.sum());
+			details.put(entry.getKey(), detail);
+		}
+		statistics.put("openCircuits", open);
+		statistics.put("circuits", details);
+		return statistics;
+	}
+
+	/**
+	 * 单个主机（或路由）的熔断器，状态通过 CAS 切换
+	 */
+	protected static class Circuit {
+
+		private final String key;
+		private final SlidingWindow window;
+		private final int minimumCalls;
+		private final float failureRateThreshold;
+		private final float slowCallRateThreshold;
+		private final long waitNanos;
+		private final int permittedCallsInHalfOpen;
+		private final AtomicReference<State> state = new AtomicReference<>(State.CLOSED);
+		private final AtomicInteger halfOpenPermits = new AtomicInteger();
+		private final AtomicInteger halfOpenCalls = new AtomicInteger();
+		private final AtomicInteger halfOpenFailures = new AtomicInteger();
+		private final AtomicInteger halfOpenSlowCalls = new AtomicInteger();
+		private final LongAdder rejected = new LongAdder();
+		private volatile long openedAtNanos;
+
+		Circuit(String key, CircuitBreakerProperties properties) {
+			this.key = key;
+			this.window = new SlidingWindow(properties.getWindow().toNanos(), Math.max(properties.getWindowBuckets(), 1));
+			this.minimumCalls = Math.max(properties.getMinimumCalls(), 1);
+			this.failureRateThreshold = properties.getFailureRateThreshold();
+			this.slowCallRateThreshold = properties.getSlowCallRateThreshold();
+			this.waitNanos = properties.getWaitDurationInOpenState().toNanos();
+			this.permittedCallsInHalfOpen = Math.max(properties.getPermittedCallsInHalfOpen(), 1);
+		}
+
+		/**
+		 * @return 放行请求时所处的状态，拒绝时返回 null
+		 */
+		State tryAcquire() {
+			State current = state.get();
+			if (State.OPEN.equals(current)) {
+				if (System.nanoTime() - openedAtNanos < waitNanos) {
+					return null;
+				}
+				this.toHalfOpen();
+				current = state.get();
+			}
+			if (State.HALF_OPEN.equals(current)) {
+				int permits;
+				do {
+					permits = halfOpenPermits.get();
+					if (permits <= 0) {
+						return null;
+					}
+				} while (!halfOpenPermits.compareAndSet(permits, permits - 1));
+			}
+			return current;
+		}
+
+		void onResult(State admitted, boolean failure, boolean slow) {
+			if (State.HALF_OPEN.equals(admitted)) {
+				if (failure) {
+					halfOpenFailures.incrementAndGet();
+				}
+				if (slow) {
+					halfOpenSlowCalls.incrementAndGet();
+				}
+				if (halfOpenCalls.incrementAndGet() == permittedCallsInHalfOpen) {
+					// 全部探测请求完成，按探测结果关闭或重新打开
+					if (this.exceeded(halfOpenFailures.get(), halfOpenSlowCalls.get(), permittedCallsInHalfOpen)) {
+						this.toOpen(State.HALF_OPEN);
+					} else if (state.compareAndSet(State.HALF_OPEN, State.CLOSED)) {
+						window.reset();
+						log.info("OkHttp3 >> Circuit breaker closed : {}", key);
+					}
+				}
+				return;
+			}
+			long[] snapshot = window.record(failure, slow);
+			if (State.CLOSED.equals(state.get()) && snapshot[0] >= minimumCalls && this.exceeded(snapshot[1], snapshot[2], snapshot[0])) {
+				this.toOpen(State.CLOSED);
+			}
+		}
+
+		void onCanceled(State admitted) {
+			if (State.HALF_OPEN.equals(admitted)) {
+				halfOpenPermits.incrementAndGet();
+			}
+		}
+
+		private boolean exceeded(long failures, long slowCalls, long calls) {
+			return SlidingWindow.rate(failures, calls) >= failureRateThreshold
+					|| SlidingWindow.rate(slowCalls, calls) >= slowCallRateThreshold;
+		}
+
+		private void toOpen(State expected) {
+			long now = System.nanoTime();
+			if (state.compareAndSet(expected, State.OPEN)) {
+				openedAtNanos = now;
+				log.warn("OkHttp3 >> Circuit breaker opened : {}", key);
+			}
+		}
+
+		private void toHalfOpen() {
+			// 探测名额在状态切换后才发放，切换瞬间到达的请求会被拒绝
+			if (state.compareAndSet(State.OPEN, State.HALF_OPEN)) {
+				halfOpenCalls.set(0);
+				halfOpenFailures.set(0);
+				halfOpenSlowCalls.set(0);
+				halfOpenPermits.set(permittedCallsInHalfOpen);
+				log.info("OkHttp3 >> Circuit breaker half-open : {}", key);
+			}
+		}
+
+	}
+
+	/**
+	 * 无锁的时间桶滑动窗口：每个桶记录所属的时间片及该时间片内的调用数、失败数与慢调用数，
+	 * 桶过期后由首个写入者通过 CAS 重置；重置与并发写入之间可能丢失个别计数，对比率统计可以接受
+	 */
+	protected static class SlidingWindow {
+
+		private final long bucketNanos;
+		private final int buckets;
+		private final long baseNanos = System.nanoTime();
+		private final AtomicLongArray epochs;
+		private final AtomicLongArray calls;
+		private final AtomicLongArray failures;
+		private final AtomicLongArray slowCalls;
+
+		SlidingWindow(long windowNanos, int buckets) {
+			this.buckets = buckets;
+			this.bucketNanos = Math.max(windowNanos / buckets, 1);
+			this.epochs = new AtomicLongArray(buckets);
+			this.calls = new AtomicLongArray(buckets);
+			this.failures = new AtomicLongArray(buckets);
+			this.slowCalls = new AtomicLongArray(buckets);
+		}
+
+		/**
+		 * 时间片从 buckets 开始计数，初始为 0 的桶即为过期桶
+		 */
+		private long currentEpoch() {
+			return (System.nanoTime() - baseNanos) / bucketNanos + buckets;
+		}
+
+		/**
+		 * 记录一次调用结果
+		 * @return 记录后的窗口统计：调用数、失败数、慢调用数
+		 */
+		long[] record(boolean failure, boolean slow) {
+			long epoch = this.currentEpoch();
+			int index = (int) (epoch % buckets);
+			long bucketEpoch = epochs.get(index);
+			if (bucketEpoch != epoch && epochs.compareAndSet(index, bucketEpoch, epoch)) {
+				calls.set(index, 0);
+				failures.set(index, 0);
+				slowCalls.set(index, 0);
+			}
+			calls.incrementAndGet(index);
+			if (failure) {
+				failures.incrementAndGet(index);
+			}
+			if (slow) {
+				slowCalls.incrementAndGet(index);
+			}
+			return this.snapshot(epoch);
+		}
+
+		long[] snapshot() {
+			return this.snapshot(this.currentEpoch());
+		}
+
+		private long[] snapshot(long epoch) {
+			long[] snapshot = new long[3];
+			for (int i = 0; i < buckets; i++) {
+				if (epoch - epochs.get(i) < buckets) {
+					snapshot[0] += calls.get(i);
+					snapshot[1] += failures.get(i);
+					snapshot[2] += slowCalls.get(i);
+				}
+			}
+			return snapshot;
+		}
+
+		void reset() {
+			for (int i = 0; i < buckets; i++) {
+				epochs.set(i, 0);
+			}
+		}
+
+		static float rate(long count, long calls) {
+			return calls == 0 ? 0 : count * 100f / calls;
+		}
+
+	}
+
+}
@@ -0,0 +1,38 @@
+/*
+ * Copyright (c) 2018, hiwepy (https://github.com/hiwepy).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package okhttp3.spring.boot.ext;
+
+import java.io.IOException;
+
+/**
+ * 熔断器处于打开状态（或半开状态的探测请求已用完）时抛出，请求未发送到网络
+ * @author ： <a href="https://github.com/hiwepy">hiwepy</a>
+ */
+@SuppressWarnings("serial")
+public class CircuitBreakerOpenException extends IOException {
+
+	private final String key;
+
+	public CircuitBreakerOpenException(String key, String state) {
+		super("Circuit breaker is " + state + " for " + key);
+		this.key = key;
+	}
+
+	public String getKey() {
+		return key;
+	}
+
+}
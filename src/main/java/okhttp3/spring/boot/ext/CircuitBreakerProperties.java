@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) 2018, hiwepy (https://github.com/hiwepy).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package okhttp3.spring.boot.ext;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import com.google.common.collect.Lists;
+
+import lombok.Data;
+
+/**
+ * Http Circuit Breaker 配置
+ * @author ： <a href="https://github.com/hiwepy">hiwepy</a>
+ */
+@ConfigurationProperties(CircuitBreakerProperties.PREFIX)
+@Data
+public class CircuitBreakerProperties {
+
+	public static final String PREFIX = "okhttp3.circuit-breaker";
+
+	/**
+	 * 熔断器的划分方式
+	 */
+	public enum KeyType {
+		/**
+		 * 按主机名划分
+		 */
+		HOST,
+		/**
+		 * 按协议、主机名及端口划分
+		 */
+		ROUTE
+	}
+
+	/** Whether Enable OkHttp3 Circuit Breaker . */
+	private boolean enabled = false;
+
+	private KeyType keyType = KeyType.HOST;
+
+	/**
+	 * 统计失败率及慢调用率的滑动窗口
+	 */
+	private Duration window = Duration.ofSeconds(60);
+
+	/**
+	 * 滑动窗口划分的时间桶数量
+	 */
+	private int windowBuckets = 10;
+
+	/**
+	 * 窗口内至少完成多少次调用后才计算失败率
+	 */
+	private int minimumCalls = 20;
+
+	/**
+	 * 失败率阈值（百分比），达到后熔断器打开
+	 */
+	private float failureRateThreshold = 50;
+
+	/**
+	 * 超过该耗时的调用记为慢调用
+	 */
+	private Duration slowCallDuration = Duration.ofSeconds(5);
+
+	/**
+	 * 慢调用率阈值（百分比），达到后熔断器打开；为 100 时只有全部调用都是慢调用才会打开
+	 */
+	private float slowCallRateThreshold = 100;
+
+	/**
+	 * 熔断器打开后，经过该时间进入半开状态
+	 */
+	private Duration waitDurationInOpenState = Duration.ofSeconds(30);
+
+	/**
+	 * 半开状态下允许的探测请求数
+	 */
+	private int permittedCallsInHalfOpen = 5;
+
+	/**
+	 * 记为失败的响应状态码
+	 */
+	private List<Integer> recordStatusCodes = Lists.newArrayList(500, 502, 503, 504);
+
+}
@@ -0,0 +1,44 @@
+/*
+ * Copyright (c) 2018, hiwepy (https://github.com/hiwepy).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package okhttp3.spring.boot.ext;
+
+import java.io.IOException;
+
+/**
+ * 主机的并发请求数达到自适应并发限制且等待超时时抛出，请求未发送到网络
+ * @author ： <a href="https://github.com/hiwepy">hiwepy</a>
+ */
+@SuppressWarnings("serial")
+public class ConcurrencyLimitExceededException extends IOException {
+
+	private final String host;
+	private final int limit;
+
+	public ConcurrencyLimitExceededException(String host, int limit) {
+		super("Concurrency limit " + limit + " exceeded for host " + host);
+		this.host = host;
+		this.limit = limit;
+	}
+
+	public String getHost() {
+		return host;
+	}
+
+	public int getLimit() {
+		return limit;
+	}
+
+}
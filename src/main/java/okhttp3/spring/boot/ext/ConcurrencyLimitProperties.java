@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2018, hiwepy (https://github.com/hiwepy).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package okhttp3.spring.boot.ext;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+/**
+ * Http Adaptive Concurrency Limit 配置
+ * @author ： <a href="https://github.com/hiwepy">hiwepy</a>
+ */
+@ConfigurationProperties(ConcurrencyLimitProperties.PREFIX)
+@Data
+public class ConcurrencyLimitProperties {
+
+	public static final String PREFIX = "okhttp3.limit";
+
+	/**
+	 * 并发限制的调整算法
+	 */
+	public enum Algorithm {
+		/**
+		 * 加性增、乘性减：请求成功且并发接近限制时加 1，出现丢弃信号时按 backoffRatio 缩小
+		 */
+		AIMD,
+		/**
+		 * 梯度算法：按长期平均 RTT 与当前 RTT 的比值调整限制
+		 */
+		GRADIENT,
+		/**
+		 * Vegas 算法：按最小 RTT 估算排队长度调整限制
+		 */
+		VEGAS
+	}
+
+	/**
+	 * Whether Enable OkHttp3 Adaptive Concurrency Limit ; when enabled, the Dispatcher's
+	 * maxRequestsPerHost is raised to {@link #maxLimit} and per-host concurrency is governed by the limiter.
+	 */
+	private boolean enabled = false;
+
+	private Algorithm algorithm = Algorithm.GRADIENT;
+
+	/**
+	 * 每个主机的初始并发限制
+	 */
+	private int initialLimit = 20;
+
+	private int minLimit = 1;
+
+	private int maxLimit = 200;
+
+	/**
+	 * 达到并发限制时的最长等待时间，为 0 时立即拒绝
+	 */
+	private Duration maxWait = Duration.ZERO;
+
+	/**
+	 * AIMD 算法出现丢弃信号时的缩小比例
+	 */
+	private double backoffRatio = 0.9;
+
+	/**
+	 * GRADIENT 算法允许当前 RTT 超过长期平均 RTT 的倍数
+	 */
+	private double rttTolerance = 1.5;
+
+	/**
+	 * GRADIENT 算法新旧限制的平滑系数
+	 */
+	private double smoothing = 0.2;
+
+}
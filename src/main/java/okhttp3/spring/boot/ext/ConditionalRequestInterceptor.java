@@ -0,0 +1,153 @@
+/*
+ * Copyright (c) 2018, hiwepy (https://github.com/hiwepy).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package okhttp3.spring.boot.ext;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.spring.boot.OkHttp3Statistics;
+import okhttp3.spring.boot.cache.ResponseSnapshot;
+
+/**
+ * 条件请求拦截器：为带有 ETag/Last-Modified 的 GET 响应保存校验值及响应体，再次请求时自动添加 If-None-Match/If-Modified-Since，
+ * 服务端返回 304 时使用保存的响应体生成完整的 200 响应；适用于声明了 no-cache、无法被 {@link okhttp3.Cache} 直接命中的上游
+ * @author 		： <a href="https://github.com/hiwepy">hiwepy</a>
+ */
+public class ConditionalRequestInterceptor implements RequestInterceptor, OkHttp3Statistics {
+
+	private AtomicBoolean enabled = new AtomicBoolean(false);
+	private final List<String> varyHeaders;
+	private final long maxEntrySize;
+	private final Cache<String, ResponseSnapshot> validators;
+	private final LongAdder conditionalRequests = new LongAdder();
+	private final LongAdder notModified = new LongAdder();
+	private final LongAdder bytesSaved = new LongAdder();
+
+	public ConditionalRequestInterceptor(ConditionalRequestProperties conditionalProperties) {
+		this.enabled.set(conditionalProperties.isEnabled());
+		this.varyHeaders = conditionalProperties.getVaryHeaders();
+		this.maxEntrySize = conditionalProperties.getMaxEntrySize().toBytes();
+		this.validators = CacheBuilder.newBuilder()
+				.maximumWeight(conditionalProperties.getMaxSize().toBytes())
+				.weigher((String key, ResponseSnapshot value) -> value.weight())
+				.build();
+	}
+
+	public void enable() {
+		enabled.set(true);
+	}
+
+	public boolean isEnabled() {
+		return enabled.get();
+	}
+
+	public void disable() {
+		enabled.set(false);
+	}
+
+	@Override
+	public Response intercept(Chain chain) throws IOException {
+
+		Request request = chain.request();
+		// 调用方自行发起的条件请求不做处理
+		if (!enabled.get() || !"GET".equals(request.method()) || Objects.nonNull(request.header("If-None-Match"))
+				|| Objects.nonNull(request.header("If-Modified-Since"))) {
+			return chain.proceed(request);
+		}
+
+		// 1、已有校验值时添加条件请求头
+		String key = this.indexKey(request);
+		ResponseSnapshot stored = validators.getIfPresent(key);
+		Request networkRequest = request;
+		if (Objects.nonNull(stored)) {
+			Request.Builder builder = request.newBuilder();
+			String etag = stored.headers().get("ETag");
+			String lastModified = stored.headers().get("Last-Modified");
+			if (Objects.nonNull(etag)) {
+				builder.header("If-None-Match", etag);
+			}
+			if (Objects.nonNull(lastModified)) {
+				builder.header("If-Modified-Since", lastModified);
+			}
+			networkRequest = builder.build();
+			conditionalRequests.increment();
+		}
+		Response response = chain.proceed(networkRequest);
+
+		// 2、304：使用保存的响应体生成完整响应
+		if (Objects.nonNull(stored) && response.code() == 304) {
+			response.close();
+			notModified.increment();
+			bytesSaved.add(stored.body().length);
+			return stored.newBuilder(request)
+					.sentRequestAtMillis(response.sentRequestAtMillis())
+					.receivedResponseAtMillis(response.receivedResponseAtMillis())
+					.build();
+		}
+
+		// 3、200 且带有校验值：保存校验值及响应体
+		if (response.code() == 200 && (Objects.nonNull(response.header("ETag")) || Objects.nonNull(response.header("Last-Modified")))
+				&& !response.cacheControl().noStore()) {
+			ResponseSnapshot snapshot = ResponseSnapshot.of(response, maxEntrySize);
+			if (Objects.nonNull(snapshot)) {
+				validators.put(key, snapshot);
+				return snapshot.toResponse(request);
+			}
+		}
+		if (Objects.nonNull(stored)) {
+			validators.invalidate(key);
+		}
+		return response;
+	}
+
+	protected String indexKey(Request request) {
+		StringBuilder key = new StringBuilder(request.url().toString());
+		for (String name : varyHeaders) {
+			List<String> values = request.headers(name);
+			if (!values.isEmpty()) {
+				key.append('\n').append(name).append(':').append(String.join(",", values));
+			}
+		}
+		return key.toString();
+	}
+
+	@Override
+	public String getStatisticsName() {
+		return "conditional";
+	}
+
+	@Override
+	public Map<String, Object> getStatistics() {
+		Map<String, Object> statistics = new LinkedHashMap<>();
+		statistics.put("enabled", enabled.get());
+		statistics.put("conditionalRequests", conditionalRequests.sum());
+		statistics.put("notModified", notModified.sum());
+		statistics.put("bytesSaved", bytesSaved.sum());
+		statistics.put("entries", validators.size());
+		return statistics;
+	}
+
+}
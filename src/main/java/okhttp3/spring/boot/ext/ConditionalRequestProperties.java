@@ -0,0 +1,57 @@
+/*
+ * Copyright (c) 2018, hiwepy (https://github.com/hiwepy).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package okhttp3.spring.boot.ext;
+
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import com.google.common.collect.Lists;
+import com.google.common.net.HttpHeaders;
+
+import lombok.Data;
+
+/**
+ * Http Conditional Request 配置
+ * @author ： <a href="https://github.com/hiwepy">hiwepy</a>
+ */
+@ConfigurationProperties(ConditionalRequestProperties.PREFIX)
+@Data
+public class ConditionalRequestProperties {
+
+	public static final String PREFIX = "okhttp3.conditional";
+
+	/** Whether Enable OkHttp3 Automatic Conditional Request . */
+	private boolean enabled = false;
+
+	/**
+	 * 校验值索引的最大容量，按保存的响应体及响应头大小计算
+	 */
+	private DataSize maxSize = DataSize.ofMegabytes(16);
+
+	/**
+	 * 可保存的最大响应体，超过该大小的响应不发起条件请求
+	 */
+	private DataSize maxEntrySize = DataSize.ofKilobytes(256);
+
+	/**
+	 * 参与索引键计算的请求头：这些请求头的值不同的请求分别保存校验值
+	 */
+	private List<String> varyHeaders = Lists.newArrayList(HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_LANGUAGE,
+			HttpHeaders.AUTHORIZATION, HttpHeaders.COOKIE);
+
+}
@@ -88,6 +88,16 @@ public class GzipRequestInterceptor implements RequestInterceptor {
 				return -1; // We don't know the compressed length in advance!
 			}
 
+			@Override
+			public boolean isOneShot() {
+				return body.isOneShot();
+			}
+
+			@Override
+			public boolean isDuplex() {
+				return body.isDuplex();
+			}
+
 			@Override
 			public void writeTo(BufferedSink sink) throws IOException {
 				BufferedSink gzipSink = Okio.buffer(new GzipSink(sink));
@@ -0,0 +1,196 @@
+/*
+ * Copyright (c) 2018, hiwepy (https://github.com/hiwepy).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package okhttp3.spring.boot.ext;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+import org.springframework.core.Ordered;
+
+import lombok.extern.slf4j.Slf4j;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.spring.boot.OkHttp3Statistics;
+import okhttp3.spring.boot.RequestHedger;
+import okhttp3.spring.boot.cache.ResponseSnapshot;
+
+/**
+ * 请求合并拦截器：相同的幂等请求（请求方法、URL 及 varyHeaders 指定的请求头均相同）同时在途时，只发起一次网络请求，
+ * 其余调用方等待并共享该请求读入内存的响应；Range 请求、条件请求（If-* 请求头）及对冲请求需要各自的响应，不参与合并，
+ * 发起者收到非 2xx 响应时也不共享，等待者各自重新请求
+ * @author 		： <a href="https://github.com/hiwepy">hiwepy</a>
+ */
+@Slf4j
+public class RequestCoalescingInterceptor implements RequestInterceptor, OkHttp3Statistics, Ordered {
+
+	/**
+	 * 应用拦截器的执行顺序，位于缓存拦截器之内、熔断拦截器之外：合并后的一次请求只经过一次熔断及并发限制
+	 */
+	public static final int ORDER = Ordered.HIGHEST_PRECEDENCE + 300;
+
+	private AtomicBoolean enabled = new AtomicBoolean(false);
+	private final Set<String> methods;
+	private final List<String> varyHeaders;
+	private final long maxBodySize;
+	private final ConcurrentMap<String, CompletableFuture<ResponseSnapshot>> inflight = new ConcurrentHashMap<>();
+	private final LongAdder leaders = new LongAdder();
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder unshareable = new LongAdder();
+
+	public RequestCoalescingInterceptor(RequestCoalescingProperties coalescingProperties) {
+		this.enabled.set(coalescingProperties.isEnabled());
+		this.methods = coalescingProperties.getMethods().stream().map(String::toUpperCase).collect(Collectors.toSet());
+		this.varyHeaders = coalescingProperties.getVaryHeaders();
+		this.maxBodySize = coalescingProperties.getMaxBodySize().toBytes();
+	}
+
+	public void enable() {
+		enabled.set(true);
+	}
+
+	public boolean isEnabled() {
+		return enabled.get();
+	}
+
+	public void disable() {
+		enabled.set(false);
+	}
+
+	@Override
+	public int getOrder() {
+		return ORDER;
+	}
+
+	@Override
+	public Response intercept(Chain chain) throws IOException {
+
+		Request request = chain.request();
+		if (!enabled.get() || !this.isCoalescable(request)) {
+			return chain.proceed(request);
+		}
+
+		String key = this.coalescingKey(request);
+		CompletableFuture<ResponseSnapshot> flight = new CompletableFuture<>();
+		CompletableFuture<ResponseSnapshot> existing = inflight.putIfAbsent(key, flight);
+
+		// 1、已有相同请求在途：等待其结果
+		if (Objects.nonNull(existing)) {
+			ResponseSnapshot snapshot = this.await(chain, existing);
+			if (Objects.nonNull(snapshot)) {
+				hits.increment();
+				return snapshot.toResponse(request);
+			}
+			return chain.proceed(request);
+		}
+
+		// 2、由当前调用发起请求，并将读入内存的响应共享给等待者
+		leaders.increment();
+		try {
+			Response response = chain.proceed(request);
+			ResponseSnapshot snapshot = response.isSuccessful() ? ResponseSnapshot.of(response, maxBodySize) : null;
+			flight.complete(snapshot);
+			if (Objects.isNull(snapshot)) {
+				unshareable.increment();
+				return response;
+			}
+			return snapshot.toResponse(request);
+		} catch (IOException | RuntimeException e) {
+			if (chain.call().isCanceled()) {
+				// 发起者被取消时，等待者各自重新请求
+				flight.complete(null);
+			} else {
+				flight.completeExceptionally(e);
+			}
+			throw e;
+		} finally {
+			inflight.remove(key, flight);
+		}
+	}
+
+	protected ResponseSnapshot await(Chain chain, CompletableFuture<ResponseSnapshot> flight) throws IOException {
+		long timeoutMillis = (long) chain.connectTimeoutMillis() + chain.readTimeoutMillis();
+		try {
+			return chain.connectTimeoutMillis() > 0 && chain.readTimeoutMillis() > 0 ? flight.get(timeoutMillis, TimeUnit.MILLISECONDS) : flight.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException();
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			throw cause instanceof IOException ? (IOException) cause : new IOException(cause);
+		} catch (TimeoutException e) {
+			log.debug("Coalesced request timeout, proceed alone : {}", chain.request().url());
+			return null;
+		}
+	}
+
+	/**
+	 * 只合并没有请求体的幂等请求，Range 请求及条件请求的响应与请求头有关，不能共享；
+	 * 对冲请求需要独立于主请求发出，合并后会等待主请求的结果而失去意义
+	 */
+	protected boolean isCoalescable(Request request) {
+		if (Objects.nonNull(request.body()) || !methods.contains(request.method()) || RequestHedger.isHedge(request)) {
+			return false;
+		}
+		for (String name : request.headers().names()) {
+			if ("Range".equalsIgnoreCase(name) || name.regionMatches(true, 0, "If-", 0, 3)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	protected String coalescingKey(Request request) {
+		StringBuilder key = new StringBuilder(request.method()).append(' ').append(request.url());
+		for (String name : varyHeaders) {
+			List<String> values = request.headers(name);
+			if (!values.isEmpty()) {
+				key.append('\n').append(name).append(':').append(String.join(",", values));
+			}
+		}
+		return key.toString();
+	}
+
+	@Override
+	public String getStatisticsName() {
+		return "coalescing";
+	}
+
+	@Override
+	public Map<String, Object> getStatistics() {
+		Map<String, Object> statistics = new LinkedHashMap<>();
+		statistics.put("enabled", enabled.get());
+		statistics.put("leaders", leaders.sum());
+		statistics.put("hits", hits.sum());
+		statistics.put("unshareable", unshareable.sum());
+		statistics.put("inflight", inflight.size());
+		return statistics;
+	}
+
+}
@@ -0,0 +1,57 @@
+/*
+ * Copyright (c) 2018, hiwepy (https://github.com/hiwepy).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package okhttp3.spring.boot.ext;
+
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import com.google.common.collect.Lists;
+import com.google.common.net.HttpHeaders;
+
+import lombok.Data;
+
+/**
+ * Http Request Coalescing 配置
+ * @author ： <a href="https://github.com/hiwepy">hiwepy</a>
+ */
+@ConfigurationProperties(RequestCoalescingProperties.PREFIX)
+@Data
+public class RequestCoalescingProperties {
+
+	public static final String PREFIX = "okhttp3.coalescing";
+
+	/** Whether Enable OkHttp3 Request Coalescing . */
+	private boolean enabled = false;
+
+	/**
+	 * 允许合并的请求方法，只应配置幂等且无请求体的方法
+	 */
+	private List<String> methods = Lists.newArrayList("GET", "HEAD");
+
+	/**
+	 * 参与合并键计算的请求头：这些请求头的值不同的请求不会被合并
+	 */
+	private List<String> varyHeaders = Lists.newArrayList(HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING,
+			HttpHeaders.ACCEPT_LANGUAGE, HttpHeaders.AUTHORIZATION, HttpHeaders.COOKIE);
+
+	/**
+	 * 可共享的最大响应体，超过该大小的响应只返回给发起请求的调用方，其余调用方各自请求
+	 */
+	private DataSize maxBodySize = DataSize.ofMegabytes(1);
+
+}
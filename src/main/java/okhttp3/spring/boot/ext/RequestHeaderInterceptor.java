@@ -18,6 +18,7 @@ package okhttp3.spring.boot.ext;
 import java.io.IOException;
 import java.util.concurrent.atomic.AtomicBoolean;
 
+import org.springframework.core.Ordered;
 import org.springframework.util.StringUtils;
 
 import com.google.common.net.HttpHeaders;
@@ -32,7 +33,12 @@ import okhttp3.Response;
  * @author 		： <a href="https://github.com/hiwepy">hiwepy</a>
  */
 @Slf4j
-public class RequestHeaderInterceptor implements RequestInterceptor  {
+public class RequestHeaderInterceptor implements RequestInterceptor, Ordered {
+
+	/**
+	 * 应用拦截器的执行顺序，最先执行，后续的缓存、合并等拦截器看到的是补全请求头后的请求
+	 */
+	public static final int ORDER = Ordered.HIGHEST_PRECEDENCE + 100;
 
     private AtomicBoolean enabled = new AtomicBoolean(false);
 
@@ -55,6 +61,11 @@ public class RequestHeaderInterceptor implements RequestInterceptor  {
         enabled.set(false);
     }
     
+	@Override
+	public int getOrder() {
+		return ORDER;
+	}
+
 	@Override
 	public Response intercept(Chain chain) throws IOException {
 		
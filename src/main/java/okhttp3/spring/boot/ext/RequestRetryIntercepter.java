@@ -18,99 +18,84 @@ package okhttp3.spring.boot.ext;
 import java.io.IOException;
 import java.io.InterruptedIOException;
 import java.util.Objects;
-import java.util.concurrent.TimeUnit;
-import java.util.concurrent.atomic.AtomicBoolean;
 
-import com.google.common.cache.Cache;
-import com.google.common.cache.CacheBuilder;
-import com.google.common.cache.RemovalListener;
-import com.google.common.cache.RemovalNotification;
+import org.springframework.core.Ordered;
 
 import lombok.extern.slf4j.Slf4j;
 import okhttp3.Request;
 import okhttp3.Response;
 
+/**
+ * 请求重试拦截器：按 {@link RetryPolicy} 在拦截器链中同步重试，等待退避时间会占用当前线程；
+ * 经由 OkHttp3Template 发起的请求由 {@link RetryPolicy#newCall(okhttp3.Call.Factory, Request)} 负责重试，此处直接放行
+ * @author 		： <a href="https://github.com/hiwepy">hiwepy</a>
+ */
 @Slf4j
-public class RequestRetryIntercepter implements RequestInterceptor {
-	
-	private int maxRetry; // 最大重试次数，假如设置为3次重试的话，则最大可能请求4次（默认1次+3次重试）
-    private long retryInterval;// 重试的间隔
-    private AtomicBoolean enabled = new AtomicBoolean(false);
-    private final Cache<String, Integer> cache;
-    private final String RETRY_ID_TMP = "retryId-%s";
-    
-    public RequestRetryIntercepter(int maxRetry, long retryInterval) {
-        this.maxRetry = maxRetry;
-        this.retryInterval = retryInterval;
-        this.enabled.set(maxRetry > 0);
-        this.cache = CacheBuilder.newBuilder()
-        		.initialCapacity(10)
-        		.removalListener(new RemovalListener<String, Integer>() {
+public class RequestRetryIntercepter implements RequestInterceptor, Ordered {
 
-					@Override
-					public void onRemoval(RemovalNotification<String, Integer> notification) {
-						log.debug("Remove Cache : {}", notification.getKey());
-					}
-        			
-				})
-        		.expireAfterAccess(1, TimeUnit.HOURS)
-        		.build();
-    }
+	/**
+	 * 应用拦截器的执行顺序，位于上述拦截器之内，只重试实际的网络请求
+	 */
+	public static final int ORDER = Ordered.HIGHEST_PRECEDENCE + 600;
+
+	private final RetryPolicy retryPolicy;
+
+	public RequestRetryIntercepter(RetryPolicy retryPolicy) {
+		this.retryPolicy = retryPolicy;
+	}
+
+	@Override
+	public int getOrder() {
+		return ORDER;
+	}
 
-    @SuppressWarnings("resource")
 	@Override
-    public Response intercept(Chain chain) throws IOException {
-    	
-    	// 1、检查retry是否开启
-    	if (!enabled.get()) {
-            return chain.proceed(chain.request());
-        }
-    	
-    	Request request = chain.request();
-        Response response = doRequest(chain, request);
-        String retryId = String.format(RETRY_ID_TMP, request.hashCode());
-        Integer retryNum = cache.getIfPresent(retryId);  
-        if(Objects.isNull(retryNum)) {
-        	retryNum = 0;
-        }
-        
-        // 2、执行重试
-        while ((response == null || !response.isSuccessful()) && retryNum < maxRetry) {
-            log.info("intercept Request is not successful - {}", retryNum);
-            final long nextInterval = getRetryInterval();
-        	try {
-                log.info("Wait for {}", nextInterval);
-                Thread.sleep(nextInterval);
-            } catch (final InterruptedException e) {
-                Thread.currentThread().interrupt();
-                throw new InterruptedIOException();
-            }
-        	retryNum ++;
-        	cache.put(retryId, retryNum);
-            // retry the request
-            response = doRequest(chain, request);
-        }
-        // 3、失败超过重试或者重试成功，则移除
-        if(response.isSuccessful()) {
-        	cache.invalidate(retryId);
-        }
-        return response;
-    }
-    
-    private Response doRequest(Chain chain, Request request) {
-        Response response = null;
-        try {
-            response = chain.proceed(request);
-        } catch (Exception e) {
-        }
-        return response;
-    }
-    
-    /**
-     * retry间隔时间
-     */
-    public long getRetryInterval() {
-        return this.retryInterval;
-    }
-    
+	public Response intercept(Chain chain) throws IOException {
+
+		// 1、检查retry是否开启，或已由 RetryPolicy 创建的调用负责重试
+		Request request = chain.request();
+		if (!retryPolicy.isEnabled() || Objects.nonNull(request.tag(RetryPolicy.class))) {
+			return chain.proceed(request);
+		}
+
+		// 2、执行请求，按重试策略决定是否重试；最后一次的异常原样抛出
+		retryPolicy.onRequest();
+		Request replayable = retryPolicy.replayable(request);
+		try {
+			for (int attempt = 1;; attempt++) {
+				Response response = null;
+				IOException failure = null;
+				try {
+					response = chain.proceed(replayable);
+				} catch (IOException e) {
+					failure = e;
+				}
+				long delay = retryPolicy.retryDelay(chain.call(), replayable, response, failure, attempt);
+				if (delay < 0) {
+					if (Objects.nonNull(failure)) {
+						throw failure;
+					}
+					return response;
+				}
+				if (Objects.nonNull(response)) {
+					response.close();
+				}
+				log.debug("OkHttp3 >> Retry {} after {} ms : {}", attempt, delay, request.url());
+				try {
+					Thread.sleep(delay);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					throw new InterruptedIOException();
+				}
+			}
+		} finally {
+			// 3、释放一次性请求体的副本
+			retryPolicy.release(replayable);
+		}
+	}
+
+	public RetryPolicy getRetryPolicy() {
+		return retryPolicy;
+	}
+
 }
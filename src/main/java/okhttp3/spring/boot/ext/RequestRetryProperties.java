@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) 2018, hiwepy (https://github.com/hiwepy).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package okhttp3.spring.boot.ext;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import com.google.common.collect.Lists;
+
+import lombok.Data;
+
+/**
+ * Http Request Retry 配置
+ * @author ： <a href="https://github.com/hiwepy">hiwepy</a>
+ */
+@ConfigurationProperties(RequestRetryProperties.PREFIX)
+@Data
+public class RequestRetryProperties {
+
+	public static final String PREFIX = "okhttp3.retry";
+
+	/**
+	 * 最大重试次数，为 0 时不重试；假如设置为3次重试的话，则最大可能请求4次（默认1次+3次重试）；
+	 * 未配置时沿用 okhttp3.max-retry
+	 */
+	private int maxRetries = 0;
+
+	/**
+	 * 首次重试的退避时间，未配置 okhttp3.retry.max-retries 时沿用 okhttp3.retry-interval
+	 */
+	private Duration initialBackoff = Duration.ofMillis(100);
+
+	/**
+	 * 退避时间上限
+	 */
+	private Duration maxBackoff = Duration.ofSeconds(10);
+
+	/**
+	 * 每次重试退避时间的增长倍数
+	 */
+	private double multiplier = 2.0;
+
+	/**
+	 * 随机抖动比例（0 ~ 1）：实际退避时间在 [backoff * (1 - jitter), backoff] 之间随机取值
+	 */
+	private double jitter = 0.5;
+
+	/**
+	 * 允许重试的请求方法，只应配置幂等的方法
+	 */
+	private List<String> methods = Lists.newArrayList("GET", "HEAD", "OPTIONS", "PUT", "DELETE", "TRACE");
+
+	/**
+	 * 携带该请求头的请求视为幂等请求，不受 methods 限制
+	 */
+	private String idempotencyKeyHeader = "Idempotency-Key";
+
+	/**
+	 * 需要重试的响应状态码
+	 */
+	private List<Integer> retryStatusCodes = Lists.newArrayList(408, 429, 502, 503, 504);
+
+	/**
+	 * 是否按响应的 Retry-After 头决定重试间隔
+	 */
+	private boolean retryAfterEnabled = true;
+
+	/**
+	 * Retry-After 超过该时间时不再重试
+	 */
+	private Duration maxRetryAfter = Duration.ofSeconds(30);
+
+	/**
+	 * 一次性请求体（如输入流）为重试缓存副本时，保存在内存中的最大大小，超过后转存到临时文件
+	 */
+	private DataSize replayMemoryThreshold = DataSize.ofKilobytes(64);
+
+	/**
+	 * 允许缓存副本以便重试的一次性请求体的最大大小，超过该大小的请求体不重试
+	 */
+	private DataSize replayMaxSize = DataSize.ofMegabytes(10);
+
+	/**
+	 * 重试预算：重试请求数占请求总数的最大百分比，用于防止重试风暴，默认：20
+	 */
+	private double budgetPercent = 20;
+
+	/**
+	 * 重试预算允许累积的最大重试请求数，默认：10
+	 */
+	private int budgetBurst = 10;
+
+}
@@ -0,0 +1,468 @@
+/*
+ * Copyright (c) 2018, hiwepy (https://github.com/hiwepy).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package okhttp3.spring.boot.ext;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.ConnectException;
+import java.net.SocketTimeoutException;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+import org.springframework.util.StringUtils;
+
+import com.google.common.net.HttpHeaders;
+
+import lombok.extern.slf4j.Slf4j;
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okhttp3.internal.Util;
+import okhttp3.internal.http.HttpDate;
+import okhttp3.spring.boot.MultipartRequestBody;
+import okhttp3.spring.boot.OkHttp3Statistics;
+import okhttp3.spring.boot.ReplayableRequestBody;
+import okio.Timeout;
+
+/**
+ * 请求重试策略：指数退避并叠加随机抖动，支持响应的 Retry-After 头；只重试幂等的请求方法（或携带幂等键的请求），
+ * 连接失败时请求尚未发出，任意方法均可重试；全局重试预算（令牌桶）限制重试请求占请求总数的比例，防止重试风暴；
+ * 幂等请求的一次性请求体由 {@link ReplayableRequestBody} 缓存副本后重放，无法缓存的请求体不重试
+ *
+ * 同步请求在调用线程上等待退避时间；{@link #newCall(Call.Factory, Request)} 创建的调用异步执行时，
+ * 重试由定时器重新调度，不占用 Dispatcher 线程；这些请求携带 {@code RetryPolicy.class} 标记，{@link RequestRetryIntercepter} 不再重复重试
+ * @author 		： <a href="https://github.com/hiwepy">hiwepy</a>
+ */
+@Slf4j
+public class RetryPolicy implements OkHttp3Statistics {
+
+	private final int maxRetries;
+	private final long initialBackoffMillis;
+	private final long maxBackoffMillis;
+	private final double multiplier;
+	private final double jitter;
+	private final Set<String> methods;
+	private final String idempotencyKeyHeader;
+	private final Set<Integer> retryStatusCodes;
+	private final boolean retryAfterEnabled;
+	private final long maxRetryAfterMillis;
+	private final long replayMemoryThreshold;
+	private final long replayMaxSize;
+	/**
+	 * 重试预算，以千分之一个重试请求为单位计数
+	 */
+	private final long tokensPerRequest;
+	private final long maxTokens;
+	private final AtomicLong tokens;
+	private final ScheduledThreadPoolExecutor timer;
+	private final LongAdder requests = new LongAdder();
+	private final LongAdder retries = new LongAdder();
+	private final LongAdder exhausted = new LongAdder();
+	private final LongAdder budgetExhausted = new LongAdder();
+
+	public RetryPolicy(RequestRetryProperties properties) {
+		this.maxRetries = properties.getMaxRetries();
+		this.initialBackoffMillis = properties.getInitialBackoff().toMillis();
+		this.maxBackoffMillis = properties.getMaxBackoff().toMillis();
+		this.multiplier = Math.max(properties.getMultiplier(), 1);
+		this.jitter = Math.min(Math.max(properties.getJitter(), 0), 1);
+		this.methods = properties.getMethods().stream().map(String::toUpperCase).collect(Collectors.toSet());
+		this.idempotencyKeyHeader = properties.getIdempotencyKeyHeader();
+		this.retryStatusCodes = properties.getRetryStatusCodes().stream().collect(Collectors.toSet());
+		this.retryAfterEnabled = properties.isRetryAfterEnabled();
+		this.maxRetryAfterMillis = properties.getMaxRetryAfter().toMillis();
+		this.replayMemoryThreshold = properties.getReplayMemoryThreshold().toBytes();
+		this.replayMaxSize = properties.getReplayMaxSize().toBytes();
+		this.tokensPerRequest = Math.round(properties.getBudgetPercent() * 10);
+		this.maxTokens = properties.getBudgetBurst() * 1000L;
+		this.tokens = new AtomicLong(maxTokens);
+		this.timer = new ScheduledThreadPoolExecutor(1, Util.threadFactory("OkHttp3 Retry Timer", true));
+		this.timer.setRemoveOnCancelPolicy(true);
+	}
+
+	public boolean isEnabled() {
+		return maxRetries > 0;
+	}
+
+	/**
+	 * 创建可重试的调用
+	 *
+	 * @param factory 实际发起请求的调用工厂
+	 * @param request 请求对象
+	 * @return 可重试的调用
+	 */
+	public Call newCall(Call.Factory factory, Request request) {
+		return new RetryingCall(factory, request);
+	}
+
+	/**
+	 * 为可重试的请求包装一次性请求体，使其可以重放；请求结束后需调用 {@link #release(Request)} 释放副本
+	 *
+	 * @param request 请求对象
+	 * @return 请求体可重放的请求对象，无需包装时返回原请求
+	 */
+	public Request replayable(Request request) {
+		RequestBody body = MultipartRequestBody.of(request.body());
+		if (Objects.isNull(body) || !body.isOneShot() || !this.isIdempotent(request)) {
+			return request;
+		}
+		try {
+			RequestBody replayable = ReplayableRequestBody.of(body, replayMemoryThreshold, replayMaxSize);
+			return replayable == request.body() ? request : request.newBuilder().method(request.method(), replayable).build();
+		} catch (IOException e) {
+			return request;
+		}
+	}
+
+	/**
+	 * 释放 {@link #replayable(Request)} 缓存的请求体副本
+	 */
+	public void release(Request request) {
+		if (request.body() instanceof ReplayableRequestBody) {
+			((ReplayableRequestBody) request.body()).close();
+		}
+	}
+
+	/**
+	 * 记录一次原始请求，并向重试预算存入令牌
+	 */
+	public void onRequest() {
+		requests.increment();
+		long current;
+		do {
+			current = tokens.get();
+			if (current >= maxTokens) {
+				return;
+			}
+		} while (!tokens.compareAndSet(current, Math.min(maxTokens, current + tokensPerRequest)));
+	}
+
+	/**
+	 * 判断请求结果是否需要重试并计算重试前的等待时间；需要重试时会从重试预算中扣除一个令牌
+	 *
+	 * @param call 当前调用
+	 * @param request 请求对象
+	 * @param response 响应对象，请求异常时为 null
+	 * @param failure 请求异常，收到响应时为 null
+	 * @param attempt 即将进行的重试次数，从 1 开始
+	 * @return 等待时间（毫秒），不重试时返回 -1
+	 */
+	public long retryDelay(Call call, Request request, Response response, IOException failure, int attempt) {
+		if (attempt > maxRetries || call.isCanceled() || !this.isReplayable(request)) {
+			return this.giveUp(response, failure, attempt);
+		}
+		long retryAfterMillis = -1;
+		if (Objects.nonNull(failure)) {
+			if (!this.isRetryable(failure) || !(this.isIdempotent(request) || failure instanceof ConnectException)) {
+				return -1;
+			}
+		} else {
+			if (!retryStatusCodes.contains(response.code()) || !this.isIdempotent(request)) {
+				return -1;
+			}
+			retryAfterMillis = this.retryAfterMillis(response);
+			if (retryAfterMillis > maxRetryAfterMillis) {
+				return -1;
+			}
+		}
+		if (!this.tryAcquire()) {
+			budgetExhausted.increment();
+			return -1;
+		}
+		retries.increment();
+		return retryAfterMillis >= 0 ? retryAfterMillis : this.backoffMillis(attempt);
+	}
+
+	private long giveUp(Response response, IOException failure, int attempt) {
+		if (attempt > maxRetries && maxRetries > 0 && (Objects.nonNull(failure) || retryStatusCodes.contains(response.code()))) {
+			exhausted.increment();
+		}
+		return -1;
+	}
+
+	protected boolean isIdempotent(Request request) {
+		return methods.contains(request.method())
+				|| (StringUtils.hasText(idempotencyKeyHeader) && Objects.nonNull(request.header(idempotencyKeyHeader)));
+	}
+
+	protected boolean isReplayable(Request request) {
+		RequestBody body = request.body();
+		return Objects.isNull(body) || !(MultipartRequestBody.isOneShot(body) || body.isDuplex());
+	}
+
+	protected boolean isRetryable(IOException failure) {
+		// 熔断与并发限制是主动的快速失败，重试只会加重下游压力
+		if (failure instanceof CircuitBreakerOpenException || failure instanceof ConcurrencyLimitExceededException) {
+			return false;
+		}
+		return !(failure instanceof InterruptedIOException) || failure instanceof SocketTimeoutException;
+	}
+
+	/**
+	 * @return 第 attempt 次重试的指数退避时间，叠加随机抖动
+	 */
+	protected long backoffMillis(int attempt) {
+		double backoff = Math.min(maxBackoffMillis, initialBackoffMillis * Math.pow(multiplier, attempt - 1));
+		return Math.round(backoff * (1 - jitter * ThreadLocalRandom.current().nextDouble()));
+	}
+
+	/**
+	 * 解析 Retry-After 头：秒数或 HTTP 日期
+	 */
+	protected long retryAfterMillis(Response response) {
+		String retryAfter = retryAfterEnabled ? response.header(HttpHeaders.RETRY_AFTER) : null;
+		if (!StringUtils.hasText(retryAfter)) {
+			return -1;
+		}
+		try {
+			return Math.max(Long.parseLong(retryAfter.trim()), 0) * 1000;
+		} catch (NumberFormatException e) {
+			Date date = HttpDate.parse(retryAfter.trim());
+			return Objects.isNull(date) ? -1 : Math.max(date.getTime() - System.currentTimeMillis(), 0);
+		}
+	}
+
+	private boolean tryAcquire() {
+		long current;
+		do {
+			current = tokens.get();
+			if (current < 1000) {
+				return false;
+			}
+		} while (!tokens.compareAndSet(current, current - 1000));
+		return true;
+	}
+
+	public void shutdown() {
+		timer.shutdownNow();
+	}
+
+	@Override
+	public String getStatisticsName() {
+		return "retry";
+	}
+
+	@Override
+	public Map<String, Object> getStatistics() {
+		Map<String, Object> statistics = new LinkedHashMap<>();
+		statistics.put("enabled", this.isEnabled());
+		statistics.put("requests", requests.sum());
+		statistics.put("retries", retries.sum());
+		statistics.put("exhausted", exhausted.sum());
+		statistics.put("budgetExhausted", budgetExhausted.sum());
+		statistics.put("budgetTokens", tokens.get() / 1000D);
+		return statistics;
+	}
+
+	/**
+	 * 可重试的调用：同步执行时在调用线程上等待退避时间，异步执行时由定时器调度下一次请求
+	 */
+	protected class RetryingCall implements Call {
+
+		private final Call.Factory factory;
+		private final Request request;
+		/**
+		 * 实际发出的请求：请求体按需包装为可重放的副本并携带重试标记，在执行时才创建，未执行的调用及其 clone() 不会持有副本
+		 */
+		private volatile Request tagged;
+		private final AtomicBoolean executed = new AtomicBoolean();
+		private volatile Call current;
+		private volatile ScheduledFuture<?> scheduled;
+		private volatile Callback callback;
+		private volatile boolean canceled;
+
+		RetryingCall(Call.Factory factory, Request request) {
+			this.factory = factory;
+			this.request = request;
+		}
+
+		@Override
+		public Request request() {
+			return request;
+		}
+
+		@Override
+		public Response execute() throws IOException {
+			if (!executed.compareAndSet(false, true)) {
+				throw new IllegalStateException("Already Executed");
+			}
+			onRequest();
+			this.prepare();
+			try {
+				for (int attempt = 1;; attempt++) {
+					Response response = null;
+					IOException failure = null;
+					Call call = this.newAttempt();
+					try {
+						response = call.execute();
+					} catch (IOException e) {
+						failure = e;
+					}
+					long delay = retryDelay(this, tagged, response, failure, attempt);
+					if (delay < 0) {
+						if (Objects.nonNull(failure)) {
+							throw failure;
+						}
+						return response;
+					}
+					if (Objects.nonNull(response)) {
+						response.close();
+					}
+					log.debug("OkHttp3 >> Retry {} after {} ms : {}", attempt, delay, request.url());
+					try {
+						Thread.sleep(delay);
+					} catch (InterruptedException e) {
+						this.cancel();
+						Thread.currentThread().interrupt();
+						throw new InterruptedIOException("Retry interrupted");
+					}
+				}
+			} finally {
+				release(tagged);
+			}
+		}
+
+		@Override
+		public void enqueue(Callback responseCallback) {
+			if (!executed.compareAndSet(false, true)) {
+				throw new IllegalStateException("Already Executed");
+			}
+			this.callback = responseCallback;
+			onRequest();
+			this.prepare();
+			this.attempt(1);
+		}
+
+		private void prepare() {
+			tagged = replayable(request).newBuilder().tag(RetryPolicy.class, RetryPolicy.this).build();
+		}
+
+		private Call newAttempt() throws IOException {
+			if (canceled) {
+				throw new IOException("Canceled");
+			}
+			Call call = factory.newCall(tagged);
+			current = call;
+			// 取消与创建并发时，确保新的请求也被取消
+			if (canceled) {
+				call.cancel();
+			}
+			return call;
+		}
+
+		private void attempt(int attempt) {
+			Call call;
+			try {
+				call = this.newAttempt();
+			} catch (IOException e) {
+				release(tagged);
+				callback.onFailure(this, e);
+				return;
+			}
+			call.enqueue(new Callback() {
+
+				@Override
+				public void onFailure(Call call, IOException e) {
+					onResult(attempt, null, e);
+				}
+
+				@Override
+				public void onResponse(Call call, Response response) {
+					onResult(attempt, response, null);
+				}
+
+			});
+		}
+
+		private void onResult(int attempt, Response response, IOException failure) {
+			long delay = retryDelay(this, tagged, response, failure, attempt);
+			if (delay >= 0) {
+				try {
+					log.debug("OkHttp3 >> Retry {} after {} ms : {}", attempt, delay, request.url());
+					scheduled = timer.schedule(() -> this.attempt(attempt + 1), delay, TimeUnit.MILLISECONDS);
+					if (Objects.nonNull(response)) {
+						response.close();
+					}
+					return;
+				} catch (RejectedExecutionException e) {
+					log.warn("OkHttp3 >> Retry timer rejected, deliver last result : {}", request.url());
+				}
+			}
+			release(tagged);
+			if (Objects.nonNull(failure)) {
+				callback.onFailure(this, failure);
+				return;
+			}
+			try {
+				callback.onResponse(this, response);
+			} catch (IOException e) {
+				log.warn("OkHttp3 >> Callback failure for " + request.url(), e);
+			}
+		}
+
+		@Override
+		public void cancel() {
+			canceled = true;
+			Call call = current;
+			if (Objects.nonNull(call)) {
+				call.cancel();
+			}
+			ScheduledFuture<?> future = scheduled;
+			if (Objects.nonNull(future) && future.cancel(false)) {
+				// 等待中的重试被取消，直接通知调用方
+				release(tagged);
+				callback.onFailure(this, new IOException("Canceled"));
+			}
+		}
+
+		@Override
+		public boolean isExecuted() {
+			return executed.get();
+		}
+
+		@Override
+		public boolean isCanceled() {
+			return canceled;
+		}
+
+		@Override
+		public Timeout timeout() {
+			Call call = current;
+			return Objects.isNull(call) ? Timeout.NONE : call.timeout();
+		}
+
+		@Override
+		public Call clone() {
+			return newCall(factory, request);
+		}
+
+	}
+
+}
@@ -0,0 +1,156 @@
+package okhttp3.spring.boot;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.Dispatcher;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.spring.boot.OkHttp3PoolProperties.RejectionPolicy;
+
+public class BoundedDispatcherExecutorTest {
+
+	private TestHttpServer server;
+	private BoundedDispatcherExecutor executor;
+	private final AtomicInteger intercepted = new AtomicInteger();
+
+	@BeforeEach
+	public void setUp() throws Exception {
+		server = new TestHttpServer();
+		server.handle("/slow", exchange -> {
+			TestHttpServer.sleep(500);
+			TestHttpServer.respond(exchange, 200, "slow");
+		});
+		server.handle("/fast", exchange -> TestHttpServer.respond(exchange, 200, "fast"));
+	}
+
+	@AfterEach
+	public void tearDown() {
+		executor.shutdownNow();
+		server.close();
+	}
+
+	@Test
+	public void dropOldestFailsTheOldestQueuedCall() throws Exception {
+		OkHttpClient client = this.client(1, 1, RejectionPolicy.DROP_OLDEST, Duration.ZERO);
+		CompletableFuture<String> running = this.enqueue(client, "/slow");
+		CompletableFuture<String> oldest = this.enqueue(client, "/slow");
+		CompletableFuture<String> newest = this.enqueue(client, "/slow");
+
+		assertTrue(this.failure(oldest) instanceof InterruptedIOException);
+		assertEquals("slow", running.get(5, TimeUnit.SECONDS));
+		assertEquals("slow", newest.get(5, TimeUnit.SECONDS));
+		assertEquals(2, server.count("/slow"));
+		assertEquals(2, intercepted.get());
+		assertEquals(1L, executor.getStatistics().get("droppedOldest"));
+	}
+
+	@Test
+	public void queueTimeoutFailsCallsThatWaitedTooLong() throws Exception {
+		OkHttpClient client = this.client(1, 10, RejectionPolicy.FAIL_FAST, Duration.ofMillis(200));
+		CompletableFuture<String> running = this.enqueue(client, "/slow");
+		CompletableFuture<String> queued = this.enqueue(client, "/slow");
+
+		assertEquals("slow", running.get(5, TimeUnit.SECONDS));
+		assertTrue(this.failure(queued) instanceof InterruptedIOException);
+		assertEquals(1, server.count("/slow"));
+		assertEquals(1, intercepted.get());
+		assertEquals(1L, executor.getStatistics().get("queueTimeout"));
+	}
+
+	@Test
+	public void callerRunsDoesNotGrowTheDispatcherStack() throws Exception {
+		OkHttpClient client = this.client(1, 1, RejectionPolicy.CALLER_RUNS, Duration.ZERO);
+		List<Integer> depths = new CopyOnWriteArrayList<>();
+		CompletableFuture<Void> done = new CompletableFuture<>();
+		Callback chained = new Callback() {
+
+			@Override
+			public void onFailure(Call call, IOException e) {
+				done.completeExceptionally(e);
+			}
+
+			@Override
+			public void onResponse(Call call, Response response) {
+				response.close();
+				depths.add(Thread.currentThread().getStackTrace().length);
+				// 线程及队列都已占满，回调中发起的请求以 caller-runs 方式在当前 Dispatcher 线程上执行
+				if (depths.size() < 20) {
+					client.newCall(request("/fast")).enqueue(this);
+				} else {
+					done.complete(null);
+				}
+			}
+
+		};
+		client.newCall(this.request("/slow")).enqueue(chained);
+		CompletableFuture<String> queued = this.enqueue(client, "/fast");
+
+		done.get(10, TimeUnit.SECONDS);
+		assertEquals("fast", queued.get(5, TimeUnit.SECONDS));
+		assertEquals(19L, executor.getStatistics().get("callerRuns"));
+		assertTrue(depths.get(depths.size() - 1) <= depths.get(1), "stack depths : " + depths);
+	}
+
+	private OkHttpClient client(int maxThreads, int maxQueuedCalls, RejectionPolicy policy, Duration queueTimeout) {
+		executor = new BoundedDispatcherExecutor(maxThreads, maxQueuedCalls, Duration.ofSeconds(60), policy, queueTimeout);
+		Dispatcher dispatcher = new Dispatcher(executor);
+		dispatcher.setMaxRequests(Integer.MAX_VALUE);
+		dispatcher.setMaxRequestsPerHost(Integer.MAX_VALUE);
+		return new OkHttpClient.Builder().dispatcher(dispatcher).addInterceptor(chain -> {
+			intercepted.incrementAndGet();
+			return chain.proceed(chain.request());
+		}).build();
+	}
+
+	private Request request(String path) {
+		return new Request.Builder().url(server.url(path)).build();
+	}
+
+	private CompletableFuture<String> enqueue(OkHttpClient client, String path) {
+		CompletableFuture<String> future = new CompletableFuture<>();
+		client.newCall(this.request(path)).enqueue(new Callback() {
+
+			@Override
+			public void onFailure(Call call, IOException e) {
+				future.completeExceptionally(e);
+			}
+
+			@Override
+			public void onResponse(Call call, Response response) throws IOException {
+				try (Response closeable = response) {
+					future.complete(closeable.body().string());
+				}
+			}
+
+		});
+		return future;
+	}
+
+	private Throwable failure(CompletableFuture<String> future) throws Exception {
+		try {
+			future.get(5, TimeUnit.SECONDS);
+			throw new AssertionError("Call should have failed");
+		} catch (ExecutionException e) {
+			return e.getCause();
+		}
+	}
+
+}
@@ -0,0 +1,116 @@
+package okhttp3.spring.boot;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.spring.boot.ext.RequestCoalescingInterceptor;
+import okhttp3.spring.boot.ext.RequestCoalescingProperties;
+
+public class RequestHedgerTest {
+
+	private TestHttpServer server;
+	private RequestHedger hedger;
+	private OkHttpClient client;
+	private final List<Request> canceled = new CopyOnWriteArrayList<>();
+
+	@BeforeEach
+	public void setUp() throws Exception {
+		AtomicInteger requests = new AtomicInteger();
+		server = new TestHttpServer();
+		server.handle("/data", exchange -> {
+			// 第一个请求（主请求）很慢，对冲请求立即返回
+			if (requests.incrementAndGet() == 1) {
+				TestHttpServer.sleep(3000);
+				TestHttpServer.respond(exchange, 200, "primary");
+			} else {
+				TestHttpServer.respond(exchange, 200, "hedge");
+			}
+		});
+		OkHttp3HedgingProperties properties = new OkHttp3HedgingProperties();
+		properties.setEnabled(true);
+		properties.setDelay(Duration.ofMillis(100));
+		hedger = new RequestHedger(properties);
+		// 对冲请求不能与主请求合并，否则只能等待主请求的结果
+		RequestCoalescingProperties coalescingProperties = new RequestCoalescingProperties();
+		coalescingProperties.setEnabled(true);
+		client = new OkHttpClient.Builder()
+				.addInterceptor(new RequestCoalescingInterceptor(coalescingProperties))
+				.addInterceptor(chain -> {
+					try {
+						return chain.proceed(chain.request());
+					} catch (IOException e) {
+						if (chain.call().isCanceled()) {
+							canceled.add(chain.request());
+						}
+						throw e;
+					}
+				}).build();
+	}
+
+	@AfterEach
+	public void tearDown() {
+		hedger.shutdown();
+		server.close();
+	}
+
+	@Test
+	public void hedgeWinsAndCancelsPrimaryOnExecute() throws Exception {
+		long startNanos = System.nanoTime();
+		try (Response response = hedger.newCall(client, this.request()).execute()) {
+			assertEquals("hedge", response.body().string());
+		}
+		assertTrue(System.nanoTime() - startNanos < TimeUnit.SECONDS.toNanos(2));
+		assertEquals(1L, hedger.getStatistics().get("hedgesWon"));
+		assertEquals(1, canceled.size());
+		assertFalse(RequestHedger.isHedge(canceled.get(0)));
+	}
+
+	@Test
+	public void hedgeWinsAndCancelsPrimaryOnEnqueue() throws Exception {
+		CompletableFuture<String> body = new CompletableFuture<>();
+		hedger.newCall(client, this.request()).enqueue(new Callback() {
+
+			@Override
+			public void onFailure(Call call, IOException e) {
+				body.completeExceptionally(e);
+			}
+
+			@Override
+			public void onResponse(Call call, Response response) throws IOException {
+				try (Response closeable = response) {
+					body.complete(closeable.body().string());
+				}
+			}
+
+		});
+		assertEquals("hedge", body.get(2, TimeUnit.SECONDS));
+		for (int i = 0; i < 50 && canceled.isEmpty(); i++) {
+			TestHttpServer.sleep(20);
+		}
+		assertEquals(1, canceled.size());
+		assertFalse(RequestHedger.isHedge(canceled.get(0)));
+	}
+
+	private Request request() {
+		return new Request.Builder().url(server.url("/data")).build();
+	}
+
+}
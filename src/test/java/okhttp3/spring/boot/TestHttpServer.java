@@ -0,0 +1,88 @@
+package okhttp3.spring.boot;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * 测试用的本地 HTTP 服务：按路径注册处理器，并记录每个路径收到的请求数
+ */
+public class TestHttpServer implements Closeable {
+
+	@FunctionalInterface
+	public interface Handler {
+
+		void handle(HttpExchange exchange) throws Exception;
+
+	}
+
+	private final HttpServer server;
+	private final ExecutorService executor = Executors.newCachedThreadPool();
+	private final Map<String, AtomicInteger> counts = new ConcurrentHashMap<>();
+
+	public TestHttpServer() throws IOException {
+		this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+		this.server.setExecutor(executor);
+		this.server.start();
+	}
+
+	public TestHttpServer handle(String path, Handler handler) {
+		AtomicInteger count = counts.computeIfAbsent(path, key -> new AtomicInteger());
+		server.createContext(path, exchange -> {
+			count.incrementAndGet();
+			try {
+				handler.handle(exchange);
+			} catch (Exception e) {
+				// 客户端取消等情况下写响应失败，忽略
+			} finally {
+				exchange.close();
+			}
+		});
+		return this;
+	}
+
+	public String url(String path) {
+		return "http://127.0.0.1:" + server.getAddress().getPort() + path;
+	}
+
+	public int count(String path) {
+		AtomicInteger count = counts.get(path);
+		return count == null ? 0 : count.get();
+	}
+
+	public static void respond(HttpExchange exchange, int code, String body) throws IOException {
+		byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+		exchange.sendResponseHeaders(code, bytes.length == 0 ? -1 : bytes.length);
+		if (bytes.length > 0) {
+			try (OutputStream output = exchange.getResponseBody()) {
+				output.write(bytes);
+			}
+		}
+	}
+
+	public static void sleep(long millis) {
+		try {
+			TimeUnit.MILLISECONDS.sleep(millis);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	@Override
+	public void close() {
+		server.stop(0);
+		executor.shutdownNow();
+	}
+
+}
@@ -0,0 +1,100 @@
+package okhttp3.spring.boot.ext;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.spring.boot.TestHttpServer;
+
+public class AdaptiveConcurrencyLimitInterceptorTest {
+
+	private TestHttpServer server;
+	private ExecutorService executor;
+
+	@BeforeEach
+	public void setUp() throws Exception {
+		server = new TestHttpServer();
+		server.handle("/slow", exchange -> {
+			TestHttpServer.sleep(300);
+			TestHttpServer.respond(exchange, 200, "ok");
+		});
+		executor = Executors.newCachedThreadPool();
+	}
+
+	@AfterEach
+	public void tearDown() {
+		executor.shutdownNow();
+		server.close();
+	}
+
+	@Test
+	public void requestsOverTheLimitAreRejected() throws Exception {
+		AdaptiveConcurrencyLimitInterceptor limiter = new AdaptiveConcurrencyLimitInterceptor(this.properties(1, 1));
+		OkHttpClient client = new OkHttpClient.Builder().addInterceptor(limiter).build();
+		Request request = new Request.Builder().url(server.url("/slow")).build();
+		Future<Integer> first = executor.submit(() -> {
+			try (Response response = client.newCall(request).execute()) {
+				return response.code();
+			}
+		});
+		TestHttpServer.sleep(100);
+		assertThrows(ConcurrencyLimitExceededException.class, () -> client.newCall(request).execute());
+		assertEquals(200, first.get().intValue());
+		assertEquals(1, server.count("/slow"));
+	}
+
+	@Test
+	public void fastFailuresAreNotSampledAsDrops() {
+		AdaptiveConcurrencyLimitInterceptor limiter = new AdaptiveConcurrencyLimitInterceptor(this.properties(10, 10));
+		OkHttpClient client = new OkHttpClient.Builder().addInterceptor(limiter).addInterceptor(chain -> {
+			throw new CircuitBreakerOpenException(chain.request().url().host(), "OPEN");
+		}).build();
+		Request request = new Request.Builder().url(server.url("/slow")).build();
+		for (int i = 0; i < 5; i++) {
+			assertThrows(CircuitBreakerOpenException.class, () -> client.newCall(request).execute());
+		}
+		assertEquals(10, this.limit(limiter));
+		assertEquals(0, server.count("/slow"));
+	}
+
+	@Test
+	public void networkFailuresReduceTheLimit() throws Exception {
+		String url = server.url("/slow");
+		server.close();
+		AdaptiveConcurrencyLimitInterceptor limiter = new AdaptiveConcurrencyLimitInterceptor(this.properties(10, 10));
+		OkHttpClient client = new OkHttpClient.Builder().addInterceptor(limiter).retryOnConnectionFailure(false).build();
+		assertThrows(IOException.class, () -> client.newCall(new Request.Builder().url(url).build()).execute());
+		assertEquals(5, this.limit(limiter));
+	}
+
+	private ConcurrencyLimitProperties properties(int initialLimit, int maxLimit) {
+		ConcurrencyLimitProperties properties = new ConcurrencyLimitProperties();
+		properties.setEnabled(true);
+		properties.setAlgorithm(ConcurrencyLimitProperties.Algorithm.AIMD);
+		properties.setInitialLimit(initialLimit);
+		properties.setMaxLimit(maxLimit);
+		properties.setBackoffRatio(0.5);
+		properties.setMaxWait(Duration.ZERO);
+		return properties;
+	}
+
+	@SuppressWarnings("unchecked")
+	private int limit(AdaptiveConcurrencyLimitInterceptor limiter) {
+		Map<String, Object> hosts = (Map<String, Object>) limiter.getStatistics().get("hosts");
+		return (Integer) ((Map<String, Object>) hosts.get("127.0.0.1")).get("limit");
+	}
+
+}
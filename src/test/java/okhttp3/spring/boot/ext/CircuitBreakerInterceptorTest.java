@@ -0,0 +1,121 @@
+package okhttp3.spring.boot.ext;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.annotation.AnnotationAwareOrderComparator;
+
+import okhttp3.Interceptor;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.spring.boot.OkHttp3CacheProperties;
+import okhttp3.spring.boot.TestHttpServer;
+import okhttp3.spring.boot.cache.ResponseCacheInterceptor;
+import okhttp3.spring.boot.ext.CircuitBreakerInterceptor.State;
+
+public class CircuitBreakerInterceptorTest {
+
+	private static final String HOST = "127.0.0.1";
+
+	private TestHttpServer server;
+	private CircuitBreakerInterceptor breaker;
+	private final AtomicInteger status = new AtomicInteger(200);
+	private final AtomicReference<State> stateDuringCall = new AtomicReference<>();
+
+	@BeforeEach
+	public void setUp() throws Exception {
+		server = new TestHttpServer();
+		server.handle("/data", exchange -> {
+			stateDuringCall.set(breaker.getState(HOST));
+			exchange.getResponseHeaders().add("Cache-Control", "max-age=1, stale-if-error=60");
+			exchange.getResponseHeaders().add("Age", "1");
+			TestHttpServer.respond(exchange, status.get(), status.get() == 200 ? "fresh" : "error");
+		});
+		CircuitBreakerProperties properties = new CircuitBreakerProperties();
+		properties.setEnabled(true);
+		properties.setMinimumCalls(2);
+		properties.setFailureRateThreshold(50);
+		properties.setWaitDurationInOpenState(Duration.ofMillis(300));
+		properties.setPermittedCallsInHalfOpen(1);
+		breaker = new CircuitBreakerInterceptor(properties);
+	}
+
+	@AfterEach
+	public void tearDown() {
+		server.close();
+	}
+
+	@Test
+	public void circuitOpensThenHalfOpensThenCloses() throws Exception {
+		OkHttpClient client = new OkHttpClient.Builder().addInterceptor(breaker).build();
+		status.set(500);
+		assertEquals(500, this.call(client));
+		assertEquals(500, this.call(client));
+		assertEquals(State.OPEN, breaker.getState(HOST));
+
+		assertThrows(CircuitBreakerOpenException.class, () -> client.newCall(this.request()).execute());
+		assertEquals(2, server.count("/data"));
+
+		TestHttpServer.sleep(400);
+		status.set(200);
+		assertEquals(200, this.call(client));
+		assertEquals(State.HALF_OPEN, stateDuringCall.get());
+		assertEquals(State.CLOSED, breaker.getState(HOST));
+		assertEquals(200, this.call(client));
+	}
+
+	@Test
+	public void staleResponseIsServedWhileCircuitIsOpen() throws Exception {
+		OkHttp3CacheProperties cacheProperties = new OkHttp3CacheProperties();
+		cacheProperties.getMemory().setEnabled(true);
+		cacheProperties.getMemory().setStaleEnabled(true);
+		ConcurrencyLimitProperties limitProperties = new ConcurrencyLimitProperties();
+		limitProperties.setEnabled(true);
+		// 按 Ordered 排序后缓存拦截器位于熔断拦截器之外，与声明顺序无关
+		List<Interceptor> interceptors = new ArrayList<>();
+		interceptors.add(new AdaptiveConcurrencyLimitInterceptor(limitProperties));
+		interceptors.add(breaker);
+		interceptors.add(new ResponseCacheInterceptor(null, cacheProperties));
+		AnnotationAwareOrderComparator.sort(interceptors);
+		OkHttpClient.Builder builder = new OkHttpClient.Builder();
+		interceptors.forEach(builder::addInterceptor);
+		OkHttpClient client = builder.build();
+
+		assertEquals("fresh", this.body(client));
+		status.set(500);
+		assertEquals("fresh", this.body(client));
+		assertEquals(State.OPEN, breaker.getState(HOST));
+		assertEquals(2, server.count("/data"));
+
+		assertEquals("fresh", this.body(client));
+		assertEquals("fresh", this.body(client));
+		assertEquals(2, server.count("/data"));
+	}
+
+	private Request request() {
+		return new Request.Builder().url(server.url("/data")).build();
+	}
+
+	private int call(OkHttpClient client) throws Exception {
+		try (Response response = client.newCall(this.request()).execute()) {
+			return response.code();
+		}
+	}
+
+	private String body(OkHttpClient client) throws Exception {
+		try (Response response = client.newCall(this.request()).execute()) {
+			return response.body().string();
+		}
+	}
+
+}
@@ -0,0 +1,107 @@
+package okhttp3.spring.boot.ext;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.spring.boot.TestHttpServer;
+
+public class RequestCoalescingInterceptorTest {
+
+	private static final String CONTENT = "0123456789";
+
+	private TestHttpServer server;
+	private OkHttpClient client;
+	private ExecutorService executor;
+
+	@BeforeEach
+	public void setUp() throws Exception {
+		server = new TestHttpServer();
+		server.handle("/data", exchange -> {
+			TestHttpServer.sleep(300);
+			String range = exchange.getRequestHeaders().getFirst("Range");
+			if ("\"v1\"".equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+				TestHttpServer.respond(exchange, 304, "");
+			} else if (range != null) {
+				String[] bounds = range.substring("bytes=".length()).split("-");
+				TestHttpServer.respond(exchange, 206, CONTENT.substring(Integer.parseInt(bounds[0]), Integer.parseInt(bounds[1]) + 1));
+			} else {
+				exchange.getResponseHeaders().add("ETag", "\"v1\"");
+				TestHttpServer.respond(exchange, 200, CONTENT);
+			}
+		});
+		RequestCoalescingProperties properties = new RequestCoalescingProperties();
+		properties.setEnabled(true);
+		client = new OkHttpClient.Builder().addInterceptor(new RequestCoalescingInterceptor(properties)).build();
+		executor = Executors.newCachedThreadPool();
+	}
+
+	@AfterEach
+	public void tearDown() {
+		executor.shutdownNow();
+		server.close();
+	}
+
+	@Test
+	public void identicalRequestsShareOneNetworkCall() throws Exception {
+		List<String> bodies = this.concurrently(new Request.Builder().url(server.url("/data")).build(),
+				new Request.Builder().url(server.url("/data")).build());
+		assertEquals(CONTENT, bodies.get(0));
+		assertEquals(CONTENT, bodies.get(1));
+		assertEquals(1, server.count("/data"));
+	}
+
+	@Test
+	public void rangeRequestsAreNotCoalesced() throws Exception {
+		List<String> bodies = this.concurrently(new Request.Builder().url(server.url("/data")).header("Range", "bytes=0-4").build(),
+				new Request.Builder().url(server.url("/data")).header("Range", "bytes=5-9").build());
+		assertEquals("206:01234", bodies.get(0));
+		assertEquals("206:56789", bodies.get(1));
+		assertEquals(2, server.count("/data"));
+	}
+
+	@Test
+	public void plainRequestDoesNotJoinConditionalRequest() throws Exception {
+		List<String> bodies = this.concurrently(new Request.Builder().url(server.url("/data")).header("If-None-Match", "\"v1\"").build(),
+				new Request.Builder().url(server.url("/data")).build());
+		assertEquals("304:", bodies.get(0));
+		assertEquals(CONTENT, bodies.get(1));
+		assertEquals(2, server.count("/data"));
+	}
+
+	/**
+	 * 在第一个请求在途时发出第二个请求，返回各自的响应；非 200 响应以 "code:body" 表示
+	 */
+	private List<String> concurrently(Request first, Request second) throws Exception {
+		List<Future<String>> futures = new ArrayList<>();
+		for (Request request : new Request[] { first, second }) {
+			Callable<String> task = () -> {
+				try (Response response = client.newCall(request).execute()) {
+					String body = response.body().string();
+					return response.code() == 200 ? body : response.code() + ":" + body;
+				}
+			};
+			futures.add(executor.submit(task));
+			// 服务端延迟 300ms 响应，第一个请求成为发起者
+			Thread.sleep(50);
+		}
+		List<String> bodies = new ArrayList<>();
+		for (Future<String> future : futures) {
+			bodies.add(future.get());
+		}
+		return bodies;
+	}
+
+}
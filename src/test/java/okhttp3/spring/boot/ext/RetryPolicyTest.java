@@ -0,0 +1,130 @@
+package okhttp3.spring.boot.ext;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okhttp3.spring.boot.TestHttpServer;
+import okio.BufferedSink;
+import okio.Okio;
+
+public class RetryPolicyTest {
+
+	private static final String PAYLOAD = "payload";
+
+	private TestHttpServer server;
+	private RetryPolicy retryPolicy;
+	private OkHttpClient client;
+	private final AtomicInteger writes = new AtomicInteger();
+
+	@BeforeEach
+	public void setUp() throws Exception {
+		AtomicInteger requests = new AtomicInteger();
+		server = new TestHttpServer();
+		server.handle("/flaky", exchange -> {
+			String body = Okio.buffer(Okio.source(exchange.getRequestBody())).readUtf8();
+			// 第一次请求返回 503，之后回显请求体
+			if (requests.incrementAndGet() == 1) {
+				TestHttpServer.respond(exchange, 503, "");
+			} else {
+				TestHttpServer.respond(exchange, 200, body);
+			}
+		});
+		RequestRetryProperties properties = new RequestRetryProperties();
+		properties.setMaxRetries(2);
+		properties.setInitialBackoff(Duration.ofMillis(10));
+		retryPolicy = new RetryPolicy(properties);
+		client = new OkHttpClient();
+	}
+
+	@AfterEach
+	public void tearDown() {
+		retryPolicy.shutdown();
+		server.close();
+	}
+
+	@Test
+	public void oneShotBodyIsReplayedOnExecute() throws Exception {
+		try (Response response = retryPolicy.newCall(client, this.request()).execute()) {
+			assertEquals(200, response.code());
+			assertEquals(PAYLOAD, response.body().string());
+		}
+		assertEquals(2, server.count("/flaky"));
+		assertEquals(1, writes.get());
+		assertEquals(1L, retryPolicy.getStatistics().get("retries"));
+	}
+
+	@Test
+	public void oneShotBodyIsReplayedOnEnqueue() throws Exception {
+		CompletableFuture<String> body = new CompletableFuture<>();
+		retryPolicy.newCall(client, this.request()).enqueue(new Callback() {
+
+			@Override
+			public void onFailure(Call call, IOException e) {
+				body.completeExceptionally(e);
+			}
+
+			@Override
+			public void onResponse(Call call, Response response) throws IOException {
+				try (Response closeable = response) {
+					body.complete(closeable.code() + ":" + closeable.body().string());
+				}
+			}
+
+		});
+		assertEquals("200:" + PAYLOAD, body.get(5, TimeUnit.SECONDS));
+		assertEquals(2, server.count("/flaky"));
+		assertEquals(1, writes.get());
+	}
+
+	@Test
+	public void cloneOfUnexecutedCallSendsTheBody() throws Exception {
+		Call call = retryPolicy.newCall(client, this.request());
+		try (Response response = call.clone().execute()) {
+			assertEquals(PAYLOAD, response.body().string());
+		}
+		assertEquals(1, writes.get());
+	}
+
+	private Request request() {
+		RequestBody body = new RequestBody() {
+
+			@Override
+			public MediaType contentType() {
+				return MediaType.get("text/plain");
+			}
+
+			@Override
+			public boolean isOneShot() {
+				return true;
+			}
+
+			@Override
+			public void writeTo(BufferedSink sink) throws IOException {
+				if (writes.incrementAndGet() > 1) {
+					throw new IllegalStateException("One-shot body written twice");
+				}
+				sink.write(PAYLOAD.getBytes(StandardCharsets.UTF_8));
+			}
+
+		};
+		return new Request.Builder().url(server.url("/flaky")).put(body).build();
+	}
+
+}